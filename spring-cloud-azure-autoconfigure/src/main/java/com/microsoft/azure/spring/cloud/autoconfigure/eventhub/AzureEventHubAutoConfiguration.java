@@ -14,11 +14,19 @@ import com.microsoft.azure.spring.cloud.context.core.api.EnvironmentProvider;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.cloud.context.core.storage.StorageConnectionStringProvider;
 import com.microsoft.azure.spring.cloud.telemetry.TelemetryCollector;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
+import com.microsoft.azure.spring.integration.eventhub.checkpoint.store.CheckpointStoreProvider;
 import com.microsoft.azure.spring.integration.eventhub.factory.DefaultEventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.factory.EventHubConnectionStringProvider;
+import com.microsoft.azure.spring.integration.eventhub.factory.ProducerPoolConfig;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
+import com.microsoft.azure.spring.integration.eventhub.metrics.EventHubMetrics;
+import com.microsoft.azure.spring.integration.eventhub.metrics.MicrometerEventHubMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -31,6 +39,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
+import java.util.Locale;
 
 /**
  * An auto-configuration for Event Hub, which provides {@link EventHubOperation}
@@ -49,6 +58,15 @@ public class AzureEventHubAutoConfiguration {
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired(required = false)
+    private CheckpointStoreProvider checkpointStoreProvider;
+
+    @Autowired(required = false)
+    private EventHubMetrics eventHubMetrics;
+
+    @Autowired(required = false)
+    private AzureHeaderMapper azureHeaderMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(EVENT_HUB);
@@ -57,7 +75,14 @@ public class AzureEventHubAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public EventHubOperation eventHubOperation(EventHubClientFactory clientFactory) {
-        return new EventHubTemplate(clientFactory);
+        EventHubTemplate eventHubTemplate = new EventHubTemplate(clientFactory);
+        eventHubTemplate.setMetrics(eventHubMetrics);
+
+        if (azureHeaderMapper != null) {
+            eventHubTemplate.setHeaderMapper(azureHeaderMapper);
+        }
+
+        return eventHubTemplate;
     }
 
     @Bean
@@ -85,19 +110,54 @@ public class AzureEventHubAutoConfiguration {
     @ConditionalOnMissingBean
     public EventHubClientFactory clientFactory(EventHubConnectionStringProvider connectionStringProvider,
             AzureEventHubProperties eventHubProperties, EnvironmentProvider environmentProvider) {
-        String checkpointConnectionString;
+        DefaultEventHubClientFactory clientFactory;
+
+        if (checkpointStoreProvider != null) {
+            clientFactory = new DefaultEventHubClientFactory(connectionStringProvider, checkpointStoreProvider);
+        } else {
+            clientFactory = new DefaultEventHubClientFactory(connectionStringProvider,
+                    getCheckpointConnectionString(eventHubProperties, environmentProvider),
+                    eventHubProperties.getCheckpointContainer());
+        }
+
+        // round-robin -> ROUND_ROBIN
+        String strategy = eventHubProperties.getProducerPoolStrategy().trim().toUpperCase(Locale.ROOT)
+                                            .replace('-', '_');
+        clientFactory.setShareConnection(eventHubProperties.isShareConnection());
+        clientFactory.setProducerPoolConfig(ProducerPoolConfig.builder()
+                                                              .poolSize(eventHubProperties.getProducerPoolSize())
+                                                              .strategy(ProducerPoolConfig.Strategy.valueOf(strategy))
+                                                              .build());
+        clientFactory.setConsumerPrefetchCount(eventHubProperties.getConsumerPrefetchCount());
+        clientFactory.setTrackLastEnqueuedEventProperties(eventHubProperties.isTrackLastEnqueuedEventProperties());
+        return clientFactory;
+    }
+
+    private String getCheckpointConnectionString(AzureEventHubProperties eventHubProperties,
+            EnvironmentProvider environmentProvider) {
         if (resourceManagerProvider != null) {
             StorageAccount checkpointStorageAccount = resourceManagerProvider.getStorageAccountManager().getOrCreate(
                     eventHubProperties.getCheckpointStorageAccount());
-            checkpointConnectionString = StorageConnectionStringProvider
+            return StorageConnectionStringProvider
                     .getConnectionString(checkpointStorageAccount, environmentProvider.getEnvironment());
-        } else {
-            checkpointConnectionString = StorageConnectionStringProvider
-                    .getConnectionString(eventHubProperties.getCheckpointStorageAccount(),
-                            eventHubProperties.getCheckpointAccessKey(), environmentProvider.getEnvironment());
         }
 
-        return new DefaultEventHubClientFactory(connectionStringProvider, checkpointConnectionString,
-                eventHubProperties.getCheckpointContainer());
+        return StorageConnectionStringProvider
+                .getConnectionString(eventHubProperties.getCheckpointStorageAccount(),
+                        eventHubProperties.getCheckpointAccessKey(), environmentProvider.getEnvironment());
+    }
+
+    /**
+     * Publish partition ownership changes and consumer lag to Micrometer when it's on the classpath
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    static class EventHubMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public EventHubMetrics eventHubMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new MicrometerEventHubMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
     }
 }
@@ -32,6 +32,35 @@ public class AzureEventHubProperties {
 
     private String checkpointContainer;
 
+    /**
+     * Whether consumer clients and the producer client of each event hub share one connection, which limits the
+     * producer pool to one client
+     */
+    private boolean shareConnection = false;
+
+    /**
+     * How many producer clients, each with its own send link, are created per event hub. Ignored when sharing the
+     * connection, since a shared connection has one send link per event hub.
+     */
+    private int producerPoolSize = 1;
+
+    /**
+     * How a producer client is picked from the pool for each send, either round-robin or least-in-flight. Kept as
+     * text since these properties are also used without the event hub integration on the classpath.
+     */
+    private String producerPoolStrategy = "round-robin";
+
+    /**
+     * How many events each consumer client receives ahead of processing, the client default if not set
+     */
+    private Integer consumerPrefetchCount;
+
+    /**
+     * Whether event processors receive the last enqueued event properties of each partition, needed for consumer
+     * lag metrics
+     */
+    private boolean trackLastEnqueuedEventProperties = false;
+
     public String getNamespace() {
         return namespace;
     }
@@ -72,6 +101,46 @@ public class AzureEventHubProperties {
         this.checkpointContainer = checkpointContainer;
     }
 
+    public boolean isShareConnection() {
+        return shareConnection;
+    }
+
+    public void setShareConnection(boolean shareConnection) {
+        this.shareConnection = shareConnection;
+    }
+
+    public int getProducerPoolSize() {
+        return producerPoolSize;
+    }
+
+    public void setProducerPoolSize(int producerPoolSize) {
+        this.producerPoolSize = producerPoolSize;
+    }
+
+    public String getProducerPoolStrategy() {
+        return producerPoolStrategy;
+    }
+
+    public void setProducerPoolStrategy(String producerPoolStrategy) {
+        this.producerPoolStrategy = producerPoolStrategy;
+    }
+
+    public Integer getConsumerPrefetchCount() {
+        return consumerPrefetchCount;
+    }
+
+    public void setConsumerPrefetchCount(Integer consumerPrefetchCount) {
+        this.consumerPrefetchCount = consumerPrefetchCount;
+    }
+
+    public boolean isTrackLastEnqueuedEventProperties() {
+        return trackLastEnqueuedEventProperties;
+    }
+
+    public void setTrackLastEnqueuedEventProperties(boolean trackLastEnqueuedEventProperties) {
+        this.trackLastEnqueuedEventProperties = trackLastEnqueuedEventProperties;
+    }
+
     @PostConstruct
     public void validate() {
         if (!StringUtils.hasText(namespace) && !StringUtils.hasText(connectionString)) {
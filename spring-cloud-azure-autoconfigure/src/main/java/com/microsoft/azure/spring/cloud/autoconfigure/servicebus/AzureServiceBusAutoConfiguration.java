@@ -14,12 +14,19 @@ import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoCo
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManager;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.cloud.telemetry.TelemetryCollector;
+import com.microsoft.azure.spring.integration.servicebus.executor.ServiceBusHandlerExecutor;
+import com.microsoft.azure.spring.integration.servicebus.metrics.MicrometerServiceBusMetrics;
+import com.microsoft.azure.spring.integration.servicebus.metrics.ServiceBusMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -73,4 +80,36 @@ public class AzureServiceBusAutoConfiguration {
 
         return serviceBusProperties;
     }
+
+    /**
+     * One thread pool shared by the message handlers of all Service Bus subscriptions
+     */
+    @Configuration
+    @ConditionalOnClass(ServiceBusHandlerExecutor.class)
+    static class ServiceBusHandlerExecutorConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ServiceBusHandlerExecutor serviceBusHandlerExecutor(AzureServiceBusProperties serviceBusProperties,
+                ObjectProvider<ServiceBusMetrics> serviceBusMetrics) {
+            ServiceBusHandlerExecutor handlerExecutor =
+                    new ServiceBusHandlerExecutor(serviceBusProperties.getHandlerMaxThreads());
+            handlerExecutor.setMetrics(serviceBusMetrics.getIfAvailable());
+            return handlerExecutor;
+        }
+    }
+
+    /**
+     * Publish Service Bus metrics to Micrometer when it's on the classpath
+     */
+    @Configuration
+    @ConditionalOnClass({MeterRegistry.class, ServiceBusMetrics.class})
+    static class ServiceBusMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ServiceBusMetrics serviceBusMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new MicrometerServiceBusMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
+    }
 }
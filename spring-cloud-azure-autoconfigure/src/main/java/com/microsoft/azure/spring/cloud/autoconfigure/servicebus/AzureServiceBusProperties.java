@@ -23,6 +23,11 @@ public class AzureServiceBusProperties {
 
     private String connectionString;
 
+    /**
+     * Max number of threads shared by the message handlers of all queue and topic subscriptions
+     */
+    private int handlerMaxThreads = 64;
+
     public String getNamespace() {
         return namespace;
     }
@@ -39,6 +44,14 @@ public class AzureServiceBusProperties {
         this.connectionString = connectionString;
     }
 
+    public int getHandlerMaxThreads() {
+        return handlerMaxThreads;
+    }
+
+    public void setHandlerMaxThreads(int handlerMaxThreads) {
+        this.handlerMaxThreads = handlerMaxThreads;
+    }
+
     @PostConstruct
     public void validate() {
         if (!StringUtils.hasText(namespace) && !StringUtils.hasText(connectionString)) {
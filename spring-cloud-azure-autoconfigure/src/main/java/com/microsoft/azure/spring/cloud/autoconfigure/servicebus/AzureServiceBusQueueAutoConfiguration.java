@@ -10,10 +10,15 @@ import com.microsoft.azure.servicebus.QueueClient;
 import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoConfiguration;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.cloud.telemetry.TelemetryCollector;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
+import com.microsoft.azure.spring.integration.servicebus.executor.ServiceBusHandlerExecutor;
 import com.microsoft.azure.spring.integration.servicebus.factory.DefaultServiceBusQueueClientFactory;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusQueueClientFactory;
+import com.microsoft.azure.spring.integration.servicebus.metrics.ServiceBusMetrics;
 import com.microsoft.azure.spring.integration.servicebus.queue.ServiceBusQueueOperation;
 import com.microsoft.azure.spring.integration.servicebus.queue.ServiceBusQueueTemplate;
+import com.microsoft.azure.spring.integration.servicebus.receive.ServiceBusReceiveOperation;
+import com.microsoft.azure.spring.integration.servicebus.receive.ServiceBusReceiveTemplate;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -41,6 +46,15 @@ public class AzureServiceBusQueueAutoConfiguration {
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired(required = false)
+    private ServiceBusMetrics serviceBusMetrics;
+
+    @Autowired(required = false)
+    private ServiceBusHandlerExecutor serviceBusHandlerExecutor;
+
+    @Autowired(required = false)
+    private AzureHeaderMapper azureHeaderMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(SERVICE_BUS_QUEUE);
@@ -67,6 +81,32 @@ public class AzureServiceBusQueueAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public ServiceBusQueueOperation queueOperation(ServiceBusQueueClientFactory factory) {
-        return new ServiceBusQueueTemplate(factory);
+        ServiceBusQueueTemplate queueTemplate = new ServiceBusQueueTemplate(factory);
+        queueTemplate.setMetrics(serviceBusMetrics);
+
+        if (serviceBusHandlerExecutor != null) {
+            queueTemplate.setHandlerExecutor(serviceBusHandlerExecutor);
+        }
+
+        if (azureHeaderMapper != null) {
+            queueTemplate.setHeaderMapper(azureHeaderMapper);
+        }
+
+        return queueTemplate;
+    }
+
+    /**
+     * Pull messages from queues, and from subscriptions with destination {@code <topic>/subscriptions/<subscription>}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceBusReceiveOperation serviceBusReceiveOperation(ServiceBusQueueClientFactory factory) {
+        ServiceBusReceiveTemplate receiveTemplate = new ServiceBusReceiveTemplate(factory);
+
+        if (azureHeaderMapper != null) {
+            receiveTemplate.setHeaderMapper(azureHeaderMapper);
+        }
+
+        return receiveTemplate;
     }
 }
@@ -10,8 +10,11 @@ import com.microsoft.azure.servicebus.TopicClient;
 import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoConfiguration;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.cloud.telemetry.TelemetryCollector;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
+import com.microsoft.azure.spring.integration.servicebus.executor.ServiceBusHandlerExecutor;
 import com.microsoft.azure.spring.integration.servicebus.factory.DefaultServiceBusTopicClientFactory;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusTopicClientFactory;
+import com.microsoft.azure.spring.integration.servicebus.metrics.ServiceBusMetrics;
 import com.microsoft.azure.spring.integration.servicebus.topic.ServiceBusTopicOperation;
 import com.microsoft.azure.spring.integration.servicebus.topic.ServiceBusTopicTemplate;
 
@@ -41,6 +44,15 @@ public class AzureServiceBusTopicAutoConfiguration {
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired(required = false)
+    private ServiceBusMetrics serviceBusMetrics;
+
+    @Autowired(required = false)
+    private ServiceBusHandlerExecutor serviceBusHandlerExecutor;
+
+    @Autowired(required = false)
+    private AzureHeaderMapper azureHeaderMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(SERVICE_BUS_TOPIC);
@@ -67,6 +79,17 @@ public class AzureServiceBusTopicAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public ServiceBusTopicOperation topicOperation(ServiceBusTopicClientFactory factory) {
-        return new ServiceBusTopicTemplate(factory);
+        ServiceBusTopicTemplate topicTemplate = new ServiceBusTopicTemplate(factory);
+        topicTemplate.setMetrics(serviceBusMetrics);
+
+        if (serviceBusHandlerExecutor != null) {
+            topicTemplate.setHandlerExecutor(serviceBusHandlerExecutor);
+        }
+
+        if (azureHeaderMapper != null) {
+            topicTemplate.setHeaderMapper(azureHeaderMapper);
+        }
+
+        return topicTemplate;
     }
 }
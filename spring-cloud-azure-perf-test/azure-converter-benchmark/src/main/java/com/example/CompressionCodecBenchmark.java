@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.example;
+
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.DeflateCompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.GzipCompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.Lz4CompressionCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of each compression codec on JSON like payloads, to be weighed against the bytes saved by each codec.
+ *
+ * <p>
+ * {@code java -jar target/benchmarks.jar CompressionCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionCodecBenchmark {
+
+    @Param({"gzip", "deflate", "lz4"})
+    private String encoding;
+
+    @Param({"1024", "16384", "262144"})
+    private int payloadSizeInBytes;
+
+    private CompressionCodec codec;
+
+    private byte[] payload;
+
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() {
+        this.codec = createCodec(this.encoding);
+        this.payload = jsonLikePayload(this.payloadSizeInBytes);
+        this.compressed = this.codec.compress(this.payload);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return this.codec.compress(this.payload);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return this.codec.decompress(this.compressed);
+    }
+
+    private static CompressionCodec createCodec(String encoding) {
+        switch (encoding) {
+            case GzipCompressionCodec.ENCODING:
+                return new GzipCompressionCodec();
+            case DeflateCompressionCodec.ENCODING:
+                return new DeflateCompressionCodec();
+            case Lz4CompressionCodec.ENCODING:
+                return new Lz4CompressionCodec();
+            default:
+                throw new IllegalArgumentException("Unknown encoding " + encoding);
+        }
+    }
+
+    private static byte[] jsonLikePayload(int sizeInBytes) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(sizeInBytes + 64);
+
+        while (builder.length() < sizeInBytes) {
+            builder.append("{\"id\":").append(random.nextInt(100000))
+                   .append(",\"name\":\"user-").append(random.nextInt(1000))
+                   .append("\",\"score\":").append(random.nextDouble()).append("},");
+        }
+
+        builder.setLength(sizeInBytes);
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.example;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare converting an {@link EventData} with 20 application properties into a {@link Message} and reading two of
+ * its headers, between eagerly copying all properties into the headers and the lazy {@link EventHubMessageConverter}.
+ *
+ * <p>
+ * Run with allocation profiling after {@code mvn package}:
+ * {@code java -jar target/benchmarks.jar EventHubMessageConverterBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventHubMessageConverterBenchmark {
+
+    private static final int PROPERTY_COUNT = 20;
+
+    private final EventHubMessageConverter converter = new EventHubMessageConverter();
+
+    private EventData eventData;
+
+    @Setup
+    public void setUp() {
+        this.eventData = new EventData("event-hub-benchmark-payload");
+
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            this.eventData.getProperties().put("property-" + i, "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public void eagerHeaders(Blackhole blackhole) {
+        Map<String, Object> headers = new HashMap<>(this.eventData.getProperties());
+        headers.put(AzureHeaders.RAW_PARTITION_ID, "0");
+        Message<String> message = MessageBuilder.withPayload(this.eventData.getBodyAsString())
+                                                .copyHeaders(headers).build();
+        readHeaders(message.getHeaders(), blackhole);
+    }
+
+    @Benchmark
+    public void lazyHeaders(Blackhole blackhole) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.RAW_PARTITION_ID, "0");
+        Message<String> message = this.converter.toMessage(this.eventData, headers, String.class);
+        readHeaders(message.getHeaders(), blackhole);
+    }
+
+    private static void readHeaders(MessageHeaders headers, Blackhole blackhole) {
+        blackhole.consume(headers.get(AzureHeaders.RAW_PARTITION_ID));
+        blackhole.consume(headers.get("property-0"));
+    }
+}
@@ -11,9 +11,14 @@ import com.microsoft.azure.eventhub.stream.binder.properties.EventHubExtendedBin
 import com.microsoft.azure.eventhub.stream.binder.properties.EventHubProducerProperties;
 import com.microsoft.azure.eventhub.stream.binder.provisioning.EventHubChannelProvisioner;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
 import com.microsoft.azure.spring.integration.core.api.reactor.DefaultMessageHandler;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
+import com.microsoft.azure.spring.integration.eventhub.api.EventPositionProvider;
+import com.microsoft.azure.spring.integration.eventhub.batch.BatchConsumerConfig;
+import com.microsoft.azure.spring.integration.eventhub.dedup.DeduplicationConfig;
+import com.microsoft.azure.spring.integration.eventhub.dispatch.DispatchConfig;
 import com.microsoft.azure.spring.integration.eventhub.inbound.EventHubInboundChannelAdapter;
 import org.springframework.cloud.stream.binder.AbstractMessageChannelBinder;
 import org.springframework.cloud.stream.binder.BinderHeaders;
@@ -30,6 +35,7 @@ import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.util.StringUtils;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -72,12 +78,25 @@ public class EventHubMessageChannelBinder extends
     protected MessageProducer createConsumerEndpoint(ConsumerDestination destination, String group,
             ExtendedConsumerProperties<EventHubConsumerProperties> properties) {
         this.eventHubOperation.setStartPosition(properties.getExtension().getStartPosition());
+        Instant startEnqueuedTime = properties.getExtension().getStartEnqueuedTime();
+        this.eventHubOperation.setEventPositionProvider(startEnqueuedTime == null ? null
+                : EventPositionProvider.fromEnqueuedTime(startEnqueuedTime));
         CheckpointConfig checkpointConfig =
                 CheckpointConfig.builder().checkpointMode(properties.getExtension().getCheckpointMode())
                                 .checkpointCount(properties.getExtension().getCheckpointCount())
                                 .checkpointInterval(properties.getExtension().getCheckpointInterval())
+                                .flushTimeout(properties.getExtension().getCheckpointFlushTimeout())
                                 .build();
         this.eventHubOperation.setCheckpointConfig(checkpointConfig);
+        this.eventHubOperation.setBatchConsumerConfig(
+                BatchConsumerConfig.builder().maxBatchSize(properties.getExtension().getMaxBatchSize())
+                                   .maxWaitTime(properties.getExtension().getMaxWaitTime())
+                                   .build());
+        this.eventHubOperation.setDispatchConfig(properties.getConcurrency() > 1
+                ? DispatchConfig.builder().concurrency(properties.getConcurrency()).build() : null);
+        this.eventHubOperation.setDeduplicationConfig(properties.getExtension().isDeduplicate()
+                ? DeduplicationConfig.builder().messageIdProperty(
+                        properties.getExtension().getDeduplicationMessageIdProperty()).build() : null);
 
         boolean anonymous = !StringUtils.hasText(group);
         if (anonymous) {
@@ -87,6 +106,7 @@ public class EventHubMessageChannelBinder extends
         EventHubInboundChannelAdapter inboundAdapter =
                 new EventHubInboundChannelAdapter(destination.getName(), this.eventHubOperation, group);
         inboundAdapter.setBeanFactory(getBeanFactory());
+        inboundAdapter.setListenerMode(properties.isBatchMode() ? ListenerMode.BATCH : ListenerMode.RECORD);
         ErrorInfrastructure errorInfrastructure = registerErrorInfrastructure(destination, group, properties);
         inboundAdapter.setErrorChannel(errorInfrastructure.getErrorChannel());
         return inboundAdapter;
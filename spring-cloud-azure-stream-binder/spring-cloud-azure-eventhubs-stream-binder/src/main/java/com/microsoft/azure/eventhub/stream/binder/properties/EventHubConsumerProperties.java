@@ -6,10 +6,12 @@
 
 package com.microsoft.azure.eventhub.stream.binder.properties;
 
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
 
 import java.time.Duration;
+import java.time.Instant;
 
 /**
  * @author Warren Zhu
@@ -23,6 +25,12 @@ public class EventHubConsumerProperties {
      */
     private StartPosition startPosition = StartPosition.LATEST;
 
+    /**
+     * Start partitions without checkpoint from the first event enqueued at or after this time, e.g.
+     * {@code 2020-05-01T08:00:00Z}. Takes precedence over {@link #startPosition} when set.
+     */
+    private Instant startEnqueuedTime;
+
     /**
      * Checkpoint mode used when consumer decide how to checkpoint message
      * <p>
@@ -48,6 +56,47 @@ public class EventHubConsumerProperties {
      */
     private Duration checkpointInterval = Duration.ofSeconds(5);
 
+    /**
+     * How long to wait for outstanding checkpoints of a partition to be written when the partition is closed, e.g.
+     * taken by another instance. Zero means not waiting.
+     *
+     * <p>
+     * Default : 10s
+     */
+    private Duration checkpointFlushTimeout = CheckpointConfig.DEFAULT_FLUSH_TIMEOUT;
+
+    /**
+     * Effectively only when batch mode is enabled for the consumer.
+     * Decides the max number of events delivered in one batch
+     *
+     * <p>
+     * Default : 100
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * Effectively only when batch mode is enabled for the consumer.
+     * Decides the max time to wait for a batch to fill up
+     *
+     * <p>
+     * Default : 1s
+     */
+    private Duration maxWaitTime = Duration.ofSeconds(1);
+
+    /**
+     * Whether events already processed by this consumer, e.g. replayed after a partition comes back, are dropped
+     *
+     * <p>
+     * Default : false
+     */
+    private boolean deduplicate = false;
+
+    /**
+     * Effectively only when {@link #deduplicate} is enabled.
+     * The application property holding a producer assigned message id, to also drop events sent more than once
+     */
+    private String deduplicationMessageIdProperty;
+
     public StartPosition getStartPosition() {
         return startPosition;
     }
@@ -56,6 +105,14 @@ public class EventHubConsumerProperties {
         this.startPosition = startPosition;
     }
 
+    public Instant getStartEnqueuedTime() {
+        return startEnqueuedTime;
+    }
+
+    public void setStartEnqueuedTime(Instant startEnqueuedTime) {
+        this.startEnqueuedTime = startEnqueuedTime;
+    }
+
     public CheckpointMode getCheckpointMode() {
         return checkpointMode;
     }
@@ -79,4 +136,44 @@ public class EventHubConsumerProperties {
     public void setCheckpointInterval(Duration checkpointInterval) {
         this.checkpointInterval = checkpointInterval;
     }
+
+    public Duration getCheckpointFlushTimeout() {
+        return checkpointFlushTimeout;
+    }
+
+    public void setCheckpointFlushTimeout(Duration checkpointFlushTimeout) {
+        this.checkpointFlushTimeout = checkpointFlushTimeout;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void setMaxWaitTime(Duration maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicate;
+    }
+
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    public String getDeduplicationMessageIdProperty() {
+        return deduplicationMessageIdProperty;
+    }
+
+    public void setDeduplicationMessageIdProperty(String deduplicationMessageIdProperty) {
+        this.deduplicationMessageIdProperty = deduplicationMessageIdProperty;
+    }
 }
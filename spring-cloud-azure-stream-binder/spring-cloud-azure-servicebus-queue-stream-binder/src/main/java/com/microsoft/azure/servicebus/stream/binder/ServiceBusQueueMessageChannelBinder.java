@@ -44,6 +44,7 @@ public class ServiceBusQueueMessageChannelBinder extends
 
         this.serviceBusQueueOperation.setCheckpointConfig(buildCheckpointConfig(properties));
         this.serviceBusQueueOperation.setClientConfig(buildClientConfig(properties));
+        this.serviceBusQueueOperation.setLockRenewalConfig(buildLockRenewalConfig(properties));
         ServiceBusQueueInboundChannelAdapter inboundAdapter =
                 new ServiceBusQueueInboundChannelAdapter(destination.getName(), this.serviceBusQueueOperation);
         inboundAdapter.setBeanFactory(getBeanFactory());
@@ -14,6 +14,7 @@ import com.microsoft.azure.spring.integration.core.DefaultMessageHandler;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalConfig;
 import org.springframework.cloud.stream.binder.*;
 import org.springframework.cloud.stream.provisioning.ProducerDestination;
 import org.springframework.integration.expression.FunctionExpression;
@@ -101,7 +102,17 @@ public abstract class ServiceBusMessageChannelBinder<T extends ServiceBusExtende
         ServiceBusConsumerProperties consumerProperties = properties.getExtension();
         return ServiceBusClientConfig.builder().setPrefetchCount(consumerProperties.getPrefetchCount())
                 .setConcurrency(consumerProperties.getConcurrency())
-                .setSessionsEnabled(consumerProperties.isSessionsEnabled()).build();
+                .setSessionsEnabled(consumerProperties.isSessionsEnabled())
+                .setMaxConcurrentSessions(consumerProperties.getMaxConcurrentSessions())
+                .setMaxConcurrentCallsPerSession(consumerProperties.getMaxConcurrentCallsPerSession())
+                .setSessionIdleTimeout(consumerProperties.getSessionIdleTimeout())
+                .setSessionPrefetchCount(consumerProperties.getSessionPrefetchCount()).build();
+    }
+
+    protected LockRenewalConfig buildLockRenewalConfig(
+            ExtendedConsumerProperties<ServiceBusConsumerProperties> properties) {
+        return LockRenewalConfig.builder().maxRenewalDuration(properties.getExtension().getMaxLockRenewalDuration())
+                                .build();
     }
 
     abstract SendOperation getSendOperation();
@@ -7,6 +7,10 @@
 package com.microsoft.azure.servicebus.stream.binder.properties;
 
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalConfig;
+
+import java.time.Duration;
 
 /**
  * @author Warren Zhu
@@ -16,7 +20,12 @@ public class ServiceBusConsumerProperties {
     private int prefetchCount = 1;
     private int concurrency = 1;
     private boolean sessionsEnabled = false;
+    private Integer maxConcurrentSessions;
+    private int maxConcurrentCallsPerSession = 1;
+    private Duration sessionIdleTimeout = ServiceBusClientConfig.DEFAULT_SESSION_IDLE_TIMEOUT;
+    private Integer sessionPrefetchCount;
     private boolean requeueRejected = false;
+    private Duration maxLockRenewalDuration = LockRenewalConfig.DEFAULT_MAX_RENEWAL_DURATION;
 
     private CheckpointMode checkpointMode = CheckpointMode.RECORD;
 
@@ -44,7 +53,7 @@ public class ServiceBusConsumerProperties {
 
     /**
      * Controls the max concurrent calls of service bus message handler and
-     * the size of fixed thread pool that handles user's business logic
+     * how many threads of the shared handler thread pool are used at most to handle user's business logic
      *
      * <p>
      * Default : 1
@@ -71,6 +80,65 @@ public class ServiceBusConsumerProperties {
         this.sessionsEnabled = sessionsEnabled;
     }
 
+    /**
+     * Max number of sessions handled at the same time. Only effective if sessions are enabled. Not set means the
+     * concurrency is used
+     *
+     * <p>
+     * Default : null
+     */
+    public Integer getMaxConcurrentSessions() {
+        return maxConcurrentSessions;
+    }
+
+    public void setMaxConcurrentSessions(Integer maxConcurrentSessions) {
+        this.maxConcurrentSessions = maxConcurrentSessions;
+    }
+
+    /**
+     * Max number of messages of one session handled at the same time. Only effective if sessions are enabled
+     *
+     * <p>
+     * Default : 1
+     */
+    public int getMaxConcurrentCallsPerSession() {
+        return maxConcurrentCallsPerSession;
+    }
+
+    public void setMaxConcurrentCallsPerSession(int maxConcurrentCallsPerSession) {
+        this.maxConcurrentCallsPerSession = maxConcurrentCallsPerSession;
+    }
+
+    /**
+     * How long an accepted session waits for its next message before it's closed, so another session can be
+     * accepted. Only effective if sessions are enabled
+     *
+     * <p>
+     * Default : 1 minute
+     */
+    public Duration getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+    public void setSessionIdleTimeout(Duration sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+    /**
+     * Prefetch count of the receiver of each accepted session. Only effective if sessions are enabled. Not set means
+     * the prefetch count is used
+     *
+     * <p>
+     * Default : null
+     */
+    public Integer getSessionPrefetchCount() {
+        return sessionPrefetchCount;
+    }
+
+    public void setSessionPrefetchCount(Integer sessionPrefetchCount) {
+        this.sessionPrefetchCount = sessionPrefetchCount;
+    }
+
     /**
      * Controls if the failed messages are routed to the DLQ
      *
@@ -84,4 +152,19 @@ public class ServiceBusConsumerProperties {
     public void setRequeueRejected(boolean requeueRejected) {
         this.requeueRejected = requeueRejected;
     }
+
+    /**
+     * The max time the lock of a received message is renewed. In MANUAL mode the lock is renewed until the message is
+     * checkpointed, even after the handler returns
+     *
+     * <p>
+     * Default : 5 minutes
+     */
+    public Duration getMaxLockRenewalDuration() {
+        return maxLockRenewalDuration;
+    }
+
+    public void setMaxLockRenewalDuration(Duration maxLockRenewalDuration) {
+        this.maxLockRenewalDuration = maxLockRenewalDuration;
+    }
 }
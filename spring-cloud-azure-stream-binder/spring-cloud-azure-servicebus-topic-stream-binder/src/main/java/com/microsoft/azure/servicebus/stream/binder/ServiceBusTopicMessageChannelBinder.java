@@ -42,6 +42,7 @@ public class ServiceBusTopicMessageChannelBinder extends
 
         this.serviceBusTopicOperation.setCheckpointConfig(buildCheckpointConfig(properties));
         this.serviceBusTopicOperation.setClientConfig(buildClientConfig(properties));
+        this.serviceBusTopicOperation.setLockRenewalConfig(buildLockRenewalConfig(properties));
         boolean anonymous = !StringUtils.hasText(group);
         if (anonymous) {
             group = "anonymous." + UUID.randomUUID().toString();
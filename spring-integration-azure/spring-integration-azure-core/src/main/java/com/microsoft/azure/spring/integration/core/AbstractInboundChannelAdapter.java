@@ -19,7 +19,7 @@ import java.util.Map;
 
 public abstract class AbstractInboundChannelAdapter extends MessageProducerSupport {
     private final String destination;
-    private final ListenerMode listenerMode = ListenerMode.RECORD;
+    private ListenerMode listenerMode = ListenerMode.RECORD;
     protected String consumerGroup;
     protected SubscribeOperation subscribeOperation;
     protected SubscribeByGroupOperation subscribeByGroupOperation;
@@ -64,8 +64,21 @@ public abstract class AbstractInboundChannelAdapter extends MessageProducerSuppo
         Map<String, Object> properties = new HashMap<>();
         properties.put("consumerGroup", consumerGroup);
         properties.put("destination", destination);
+        properties.put("listenerMode", listenerMode);
 
         return properties;
     }
 
+    public ListenerMode getListenerMode() {
+        return listenerMode;
+    }
+
+    /**
+     * Only effective when the underlying subscribe operation supports delivering records in batch
+     */
+    public void setListenerMode(ListenerMode listenerMode) {
+        Assert.notNull(listenerMode, "listenerMode can't be null");
+        this.listenerMode = listenerMode;
+    }
+
 }
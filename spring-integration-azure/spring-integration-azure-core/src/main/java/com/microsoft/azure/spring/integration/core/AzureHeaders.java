@@ -20,15 +20,35 @@ public class AzureHeaders {
 
     public static final String PARTITION_KEY = PREFIX + "partition_key";
 
+    /**
+     * The {@value SEQUENCE_NUMBER} header holds the sequence number of a received event within its partition.
+     */
+    public static final String SEQUENCE_NUMBER = PREFIX + "sequence_number";
+
+    /**
+     * The {@value OFFSET} header holds the offset of a received event within its partition.
+     */
+    public static final String OFFSET = PREFIX + "offset";
+
     public static final String NAME = PREFIX + "name";
 
     public static final String SCHEDULED_ENQUEUE_MESSAGE = "x-delay";
 
+    /**
+     * The {@value CONTENT_ENCODING} header names the compression applied to the payload on the wire.
+     */
+    public static final String CONTENT_ENCODING = "content-encoding";
+
     /**
      * The {@value CHECKPOINTER} header for checkpoint the specific message.
      */
     public static final String CHECKPOINTER = PREFIX + "checkpointer";
 
+    /**
+     * The {@value BATCH_CONVERTED_HEADERS} header holds the list of headers of each record in a batch message.
+     */
+    public static final String BATCH_CONVERTED_HEADERS = PREFIX + "batch_converted_headers";
+
     public static final String LOCK_TOKEN = PREFIX + "locktoken";
 
     public static final String MESSAGE_SESSION = PREFIX + "message_session";
@@ -14,6 +14,8 @@ import java.time.Duration;
  * @author Warren Zhu
  */
 public class CheckpointConfig {
+    public static final Duration DEFAULT_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
     private final CheckpointMode checkpointMode;
     /**
      * The count of message to trigger checkpoint. Only used when {@link CheckpointMode#PARTITION_COUNT}
@@ -25,10 +27,21 @@ public class CheckpointConfig {
      */
     private final Duration checkpointInterval;
 
+    /**
+     * How long to wait for outstanding checkpoints of a partition to be written when the partition is closed
+     */
+    private final Duration flushTimeout;
+
     public CheckpointConfig(CheckpointMode checkpointMode, int checkpointCount, Duration checkpointInterval) {
+        this(checkpointMode, checkpointCount, checkpointInterval, DEFAULT_FLUSH_TIMEOUT);
+    }
+
+    public CheckpointConfig(CheckpointMode checkpointMode, int checkpointCount, Duration checkpointInterval,
+                            Duration flushTimeout) {
         this.checkpointMode = checkpointMode;
         this.checkpointCount = checkpointCount;
         this.checkpointInterval = checkpointInterval;
+        this.flushTimeout = flushTimeout;
     }
 
     public static CheckpointConfigBuilder builder() {
@@ -47,16 +60,21 @@ public class CheckpointConfig {
         return checkpointInterval;
     }
 
+    public Duration getFlushTimeout() {
+        return flushTimeout;
+    }
+
     @Override
     public String toString() {
         return "CheckpointConfig{" + "checkpointMode=" + checkpointMode + ", checkpointCount=" + checkpointCount +
-                ", checkpointInterval=" + checkpointInterval + '}';
+                ", checkpointInterval=" + checkpointInterval + ", flushTimeout=" + flushTimeout + '}';
     }
 
     public static class CheckpointConfigBuilder {
         private CheckpointMode checkpointMode;
         private int checkpointCount;
         private Duration checkpointInterval;
+        private Duration flushTimeout = DEFAULT_FLUSH_TIMEOUT;
 
         public CheckpointConfigBuilder checkpointMode(CheckpointMode checkpointMode) {
             this.checkpointMode = checkpointMode;
@@ -73,8 +91,13 @@ public class CheckpointConfig {
             return this;
         }
 
+        public CheckpointConfigBuilder flushTimeout(Duration flushTimeout) {
+            this.flushTimeout = flushTimeout;
+            return this;
+        }
+
         public CheckpointConfig build() {
-            return new CheckpointConfig(checkpointMode, checkpointCount, checkpointInterval);
+            return new CheckpointConfig(checkpointMode, checkpointCount, checkpointInterval, flushTimeout);
         }
     }
 
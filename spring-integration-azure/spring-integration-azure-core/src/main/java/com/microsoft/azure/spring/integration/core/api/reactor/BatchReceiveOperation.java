@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.api.reactor;
+
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Operations for receiving a {@link List<Message>} from a destination at once.
+ * Received messages contain payload of type specified by {@link ReceiveOperation#setMessagePayloadType(Class)}
+ */
+public interface BatchReceiveOperation {
+
+    /**
+     * Receive up to {@code maxMessageCount} messages from destination async.
+     *
+     * @param maxWaitTime how long to wait for the first message to arrive
+     * @return {@link Mono} of received messages, or an empty list if none arrived within {@code maxWaitTime}
+     */
+    Mono<List<Message<?>>> receiveBatchAsync(String destination, int maxMessageCount, Duration maxWaitTime);
+}
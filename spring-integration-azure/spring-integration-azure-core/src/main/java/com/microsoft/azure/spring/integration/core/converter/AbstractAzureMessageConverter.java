@@ -6,19 +6,31 @@
 
 package com.microsoft.azure.spring.integration.core.converter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.compression.DeflateCompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.GzipCompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.Lz4CompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.integration.support.MessageBuilder;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Abstract class handles common conversion logic between <T> and {@link Message}
@@ -27,32 +39,73 @@ import java.util.Map;
  */
 public abstract class AbstractAzureMessageConverter<T> implements AzureMessageConverter<T> {
 
+    /**
+     * Large enough for the biggest message of any azure messaging service, small enough not to exhaust the heap
+     */
+    public static final int DEFAULT_MAX_DECOMPRESSED_SIZE_IN_BYTES = 100 * 1024 * 1024;
+
     private static final Logger log = LoggerFactory.getLogger(AbstractAzureMessageConverter.class);
 
+    private static final String IDENTITY_ENCODING = "identity";
+
+    private static final boolean LZ4_PRESENT = ClassUtils.isPresent("net.jpountz.lz4.LZ4FrameOutputStream",
+            AbstractAzureMessageConverter.class.getClassLoader());
+
     private static ObjectMapper objectMapper = new ObjectMapper();
 
-    protected static byte[] toPayload(Object object) {
-        try {
-            return objectMapper.writeValueAsBytes(object);
-        } catch (JsonProcessingException e) {
-            throw new ConversionException("Failed to write JSON: " + object, e);
-        }
-    }
+    private PayloadCodecRegistry payloadCodecRegistry = new PayloadCodecRegistry();
 
-    private static <U> U fromPayload(byte[] payload, Class<U> payloadType) {
-        try {
-            return objectMapper.readerFor(payloadType).readValue(payload);
-        } catch (IOException e) {
-            throw new ConversionException("Failed to read JSON: " + Arrays.toString(payload), e);
+    private final Map<String, CompressionCodec> compressionCodecs = new ConcurrentHashMap<>();
+
+    private CompressionConfig compressionConfig;
+
+    private boolean decompressionEnabled = false;
+
+    private int maxDecompressedSizeInBytes = DEFAULT_MAX_DECOMPRESSED_SIZE_IN_BYTES;
+
+    private AzureHeaderMapper headerMapper = new DefaultAzureHeaderMapper();
+
+    public AbstractAzureMessageConverter() {
+        registerCompressionCodec(new GzipCompressionCodec());
+        registerCompressionCodec(new DeflateCompressionCodec());
+
+        if (LZ4_PRESENT) {
+            registerCompressionCodec(new Lz4CompressionCodec());
         }
     }
 
     @Override
     public T fromMessage(@NonNull Message<?> message, @NonNull Class<T> targetClass) {
-        T azureMessage = internalFromMessage(message, targetClass);
+        if (targetClass.isInstance(message.getPayload())) {
+            T azureMessage = targetClass.cast(message.getPayload());
+            setCustomHeaders(message.getHeaders(), azureMessage);
+            return azureMessage;
+        }
+
+        T azureMessage;
+        String contentEncoding = null;
+
+        if (this.compressionConfig == null) {
+            azureMessage = internalFromMessage(message, targetClass);
+        } else {
+            byte[] payload = toBytes(message);
+            CompressionCodec codec = this.compressionConfig.getCodec();
+
+            if (payload.length >= this.compressionConfig.getThresholdInBytes()) {
+                contentEncoding = codec.getEncoding();
+                azureMessage = fromCompressedByte(codec.compress(payload), contentEncoding);
+            } else if (message.getPayload() instanceof String) {
+                azureMessage = fromString((String) message.getPayload());
+            } else {
+                azureMessage = fromByte(payload);
+            }
+        }
 
         setCustomHeaders(message.getHeaders(), azureMessage);
 
+        // Overwrite the encoding copied from headers of a received message, whose payload is already decompressed
+        setContentEncoding(azureMessage, contentEncoding);
+
         return azureMessage;
     }
 
@@ -60,23 +113,109 @@ public abstract class AbstractAzureMessageConverter<T> implements AzureMessageCo
     @SuppressWarnings("unchecked")
     public <U> Message<U> toMessage(@NonNull T azureMessage, Map<String, Object> headers,
                                     @NonNull Class<U> targetPayloadClass) {
-        Map<String, Object> mergedHeaders = new HashMap<>();
-        mergedHeaders.putAll(buildCustomHeaders(azureMessage));
-        mergedHeaders.putAll(headers);
-        return (Message<U>) internalToMessage(azureMessage, mergedHeaders, targetPayloadClass);
+        MessageHeaders messageHeaders = new AzureMessageHeaders(headers, buildCustomHeaders(azureMessage),
+                this.headerMapper.toHeaders(getNativeProperties(azureMessage)), this::resolveNativeProperty);
+        return (Message<U>) internalToMessage(azureMessage, messageHeaders, targetPayloadClass);
     }
 
     protected abstract byte[] getPayload(T azureMessage);
 
+    /**
+     * Serialize an object found in the azure message body with the default payload codec
+     */
+    protected byte[] toPayload(Object object) {
+        return object == null ? null : this.payloadCodecRegistry.getDefaultCodec().encode(object);
+    }
+
     protected abstract T fromString(String payload);
 
     protected abstract T fromByte(byte[] payload);
 
+    /**
+     * Payload as UTF-8 string. Override if the azure message can decode its body without copying it first.
+     */
+    protected String getPayloadAsString(T azureMessage) {
+        return new String(getPayload(azureMessage), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Payload as a {@link ByteBuffer} view. Override if the azure message exposes its body without copying.
+     */
+    protected ByteBuffer getPayloadAsByteBuffer(T azureMessage) {
+        return ByteBuffer.wrap(getPayload(azureMessage));
+    }
+
+    /**
+     * Payload as a stream over {@link #getPayload(Object)} without copying it again
+     */
+    protected InputStream getPayloadAsStream(T azureMessage) {
+        return new ByteArrayInputStream(getPayload(azureMessage));
+    }
+
+    /**
+     * Avoid copying the buffer when it's backed by an array with exactly the remaining bytes
+     */
+    protected T fromByteBuffer(ByteBuffer payload) {
+        if (payload.hasArray() && payload.arrayOffset() == 0 && payload.position() == 0
+                && payload.remaining() == payload.array().length) {
+            return fromByte(payload.array());
+        }
+
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return fromByte(bytes);
+    }
+
     protected void setCustomHeaders(MessageHeaders headers, T azureMessage) {
     }
 
+    /**
+     * Content encoding of a received message, {@code null} if not compressed
+     */
+    protected String getContentEncoding(T azureMessage, MessageHeaders headers) {
+        Object contentEncoding = headers.get(AzureHeaders.CONTENT_ENCODING);
+        return contentEncoding == null ? null : contentEncoding.toString();
+    }
+
+    /**
+     * Record the content encoding on the azure message, or remove it if {@code contentEncoding} is {@code null}
+     */
+    protected void setContentEncoding(T azureMessage, String contentEncoding) {
+    }
+
+    /**
+     * Create the azure message carrying compressed bytes. Override if the azure message can't hold arbitrary bytes.
+     */
+    protected T fromCompressedByte(byte[] payload, String contentEncoding) {
+        return fromByte(payload);
+    }
+
+    /**
+     * Compressed bytes of a message created by {@link #fromCompressedByte(byte[], String)}
+     */
+    protected byte[] getCompressedPayload(T azureMessage) {
+        return getPayload(azureMessage);
+    }
+
+    /**
+     * Headers derived from the azure message itself, which take precedence over {@link #getNativeProperties(Object)}
+     */
     protected Map<String, Object> buildCustomHeaders(T azureMessage) {
-        return new HashMap<>();
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Application properties of the azure message exposed as headers through a read-only view, without copying
+     */
+    protected Map<String, ?> getNativeProperties(T azureMessage) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Convert the raw value of a native property, only called when the header is read
+     */
+    protected Object resolveNativeProperty(String key, Object value) {
+        return this.headerMapper.toHeaderValue(key, value);
     }
 
     private T internalFromMessage(Message<?> message, Class<T> targetClass) {
@@ -94,25 +233,189 @@ public abstract class AbstractAzureMessageConverter<T> implements AzureMessageCo
             return fromByte((byte[]) payload);
         }
 
-        return fromByte(toPayload(payload));
+        if (payload instanceof ByteBuffer) {
+            return fromByteBuffer((ByteBuffer) payload);
+        }
+
+        if (payload instanceof InputStream) {
+            try {
+                return fromByte(StreamUtils.copyToByteArray((InputStream) payload));
+            } catch (IOException e) {
+                throw new ConversionException("Failed to read payload stream", e);
+            }
+        }
+
+        PayloadCodec codec = this.payloadCodecRegistry.getCodec(message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        return fromByte(codec.encode(payload));
     }
 
-    private <U> Message<?> internalToMessage(T azureMessage, Map<String, Object> headers, Class<U> targetPayloadClass) {
-        byte[] payload = getPayload(azureMessage);
+    private byte[] toBytes(Message<?> message) {
+        Object payload = message.getPayload();
+
+        if (payload instanceof String) {
+            return ((String) payload).getBytes(StandardCharsets.UTF_8);
+        }
+
+        if (payload instanceof byte[]) {
+            return (byte[]) payload;
+        }
 
+        if (payload instanceof ByteBuffer) {
+            ByteBuffer buffer = (ByteBuffer) payload;
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return bytes;
+        }
+
+        if (payload instanceof InputStream) {
+            try {
+                return StreamUtils.copyToByteArray((InputStream) payload);
+            } catch (IOException e) {
+                throw new ConversionException("Failed to read payload stream", e);
+            }
+        }
+
+        return this.payloadCodecRegistry.getCodec(message.getHeaders().get(MessageHeaders.CONTENT_TYPE))
+                                        .encode(payload);
+    }
+
+    /**
+     * Only materialize the payload in the form asked by {@code targetPayloadClass}, so that no extra copy is made
+     */
+    private <U> Message<?> internalToMessage(T azureMessage, MessageHeaders headers, Class<U> targetPayloadClass) {
         if (targetPayloadClass.isInstance(azureMessage)) {
-            return MessageBuilder.withPayload(azureMessage).copyHeaders(headers).build();
+            return new GenericMessage<>(azureMessage, headers);
+        }
+
+        String contentEncoding = this.decompressionEnabled ? getContentEncoding(azureMessage, headers) : null;
+
+        if (contentEncoding != null && !IDENTITY_ENCODING.equals(contentEncoding)) {
+            return decompressToMessage(azureMessage, contentEncoding, headers, targetPayloadClass);
         }
 
         if (targetPayloadClass == String.class) {
-            return MessageBuilder.withPayload(new String(payload)).copyHeaders(headers).build();
+            return new GenericMessage<>(getPayloadAsString(azureMessage), headers);
         }
 
         if (targetPayloadClass == byte[].class) {
-            return MessageBuilder.withPayload(payload).copyHeaders(headers).build();
+            return new GenericMessage<>(getPayload(azureMessage), headers);
         }
 
-        return MessageBuilder.withPayload(fromPayload(payload, targetPayloadClass)).copyHeaders(headers).build();
+        if (targetPayloadClass == ByteBuffer.class) {
+            return new GenericMessage<>(getPayloadAsByteBuffer(azureMessage), headers);
+        }
+
+        if (targetPayloadClass == InputStream.class) {
+            return new GenericMessage<>(getPayloadAsStream(azureMessage), headers);
+        }
+
+        PayloadCodec codec = this.payloadCodecRegistry.getCodec(headers.get(MessageHeaders.CONTENT_TYPE));
+        return new GenericMessage<>(codec.decode(getPayload(azureMessage), targetPayloadClass), headers);
+    }
+
+    private <U> Message<?> decompressToMessage(T azureMessage, String contentEncoding, MessageHeaders headers,
+                                               Class<U> targetPayloadClass) {
+        CompressionCodec codec = this.compressionCodecs.get(contentEncoding);
+
+        if (codec == null) {
+            throw new ConversionException("Unsupported content encoding: " + contentEncoding);
+        }
+
+        byte[] payload = codec.decompress(getCompressedPayload(azureMessage), this.maxDecompressedSizeInBytes);
+
+        if (targetPayloadClass == String.class) {
+            return new GenericMessage<>(new String(payload, StandardCharsets.UTF_8), headers);
+        }
+
+        if (targetPayloadClass == byte[].class) {
+            return new GenericMessage<>(payload, headers);
+        }
+
+        if (targetPayloadClass == ByteBuffer.class) {
+            return new GenericMessage<>(ByteBuffer.wrap(payload), headers);
+        }
+
+        if (targetPayloadClass == InputStream.class) {
+            return new GenericMessage<>(new ByteArrayInputStream(payload), headers);
+        }
+
+        PayloadCodec payloadCodec = this.payloadCodecRegistry.getCodec(headers.get(MessageHeaders.CONTENT_TYPE));
+        return new GenericMessage<>(payloadCodec.decode(payload, targetPayloadClass), headers);
+    }
+
+    /**
+     * Register a codec used to decompress received messages whose content encoding is {@code codec.getEncoding()}.
+     * gzip, deflate and, if {@code lz4-java} is on the classpath, lz4 are registered by default.
+     */
+    public void registerCompressionCodec(@NonNull CompressionCodec codec) {
+        Assert.notNull(codec, "codec can't be null");
+        this.compressionCodecs.put(codec.getEncoding(), codec);
+    }
+
+    public CompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    /**
+     * Compress payloads of sent messages, {@code null} to disable. Also enables decompression, so that a converter
+     * both sending and receiving reads back what it sends.
+     */
+    public void setCompressionConfig(CompressionConfig compressionConfig) {
+        if (compressionConfig != null) {
+            registerCompressionCodec(compressionConfig.getCodec());
+            this.decompressionEnabled = true;
+        }
+
+        this.compressionConfig = compressionConfig;
+    }
+
+    public boolean isDecompressionEnabled() {
+        return decompressionEnabled;
+    }
+
+    /**
+     * Decompress received messages according to their content encoding. Otherwise payloads are received as they are,
+     * along with their content encoding header. Enable on receivers before enabling compression on senders.
+     */
+    public void setDecompressionEnabled(boolean decompressionEnabled) {
+        this.decompressionEnabled = decompressionEnabled;
+    }
+
+    public int getMaxDecompressedSizeInBytes() {
+        return maxDecompressedSizeInBytes;
+    }
+
+    /**
+     * Received payloads inflating beyond this size fail with {@link ConversionException} instead of exhausting the
+     * heap. Defaults to {@link #DEFAULT_MAX_DECOMPRESSED_SIZE_IN_BYTES}.
+     */
+    public void setMaxDecompressedSizeInBytes(int maxDecompressedSizeInBytes) {
+        Assert.isTrue(maxDecompressedSizeInBytes > 0, "maxDecompressedSizeInBytes should be positive");
+        this.maxDecompressedSizeInBytes = maxDecompressedSizeInBytes;
+    }
+
+    public PayloadCodecRegistry getPayloadCodecRegistry() {
+        return payloadCodecRegistry;
+    }
+
+    /**
+     * Codecs used to serialize payloads which are neither String nor bytes, chosen by the {@code contentType} header
+     */
+    public void setPayloadCodecRegistry(@NonNull PayloadCodecRegistry payloadCodecRegistry) {
+        Assert.notNull(payloadCodecRegistry, "payloadCodecRegistry can't be null");
+        this.payloadCodecRegistry = payloadCodecRegistry;
+    }
+
+    public AzureHeaderMapper getHeaderMapper() {
+        return headerMapper;
+    }
+
+    /**
+     * Decide which headers are sent as application properties and how, see {@link DefaultAzureHeaderMapper}
+     */
+    public void setHeaderMapper(@NonNull AzureHeaderMapper headerMapper) {
+        Assert.notNull(headerMapper, "headerMapper can't be null");
+        this.headerMapper = headerMapper;
     }
 
     /**
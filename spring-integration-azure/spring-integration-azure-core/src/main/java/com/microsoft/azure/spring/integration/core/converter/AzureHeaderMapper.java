@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.MessageHeaders;
+
+import java.util.Map;
+
+/**
+ * Map {@link MessageHeaders} to the application properties of an azure message and back. See
+ * {@link DefaultAzureHeaderMapper} for the default implementation.
+ */
+public interface AzureHeaderMapper {
+
+    /**
+     * Write the headers worth sending into the application properties of an outgoing azure message
+     *
+     * @param headers    headers of the message being sent
+     * @param properties application properties of the azure message
+     */
+    void fromHeaders(@NonNull MessageHeaders headers, @NonNull Map<String, Object> properties);
+
+    /**
+     * Application properties of a received azure message keyed by header name. Implementations should avoid copying
+     * the properties, since their values are only resolved when read.
+     *
+     * @param properties application properties of the azure message, never modified
+     */
+    Map<String, ?> toHeaders(@NonNull Map<String, ?> properties);
+
+    /**
+     * Convert the raw value of a property into the header value, only called when the header is read
+     */
+    default Object toHeaderValue(String header, Object value) {
+        return value;
+    }
+}
@@ -40,7 +40,8 @@ public interface AzureMessageConverter<T> {
      * may contain additional headers to be added to the message.
      *
      * @param azureMessage       the Object to convert
-     * @param headers            optional headers for the message
+     * @param headers            optional headers for the message, which may be held rather
+     *                           than copied, so they must not be modified afterwards
      * @param targetPayloadClass the target payload class for the conversion
      * @return the new message, or {@code null} if the converter does not support the
      * Object type or the target media type
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.MessageHeaders;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * {@link MessageHeaders} backed by a read-only view of the native properties of an azure message.
+ *
+ * <p>
+ * Native properties are neither copied nor converted when the message is created. A property is resolved only when
+ * it's read, and the resolved value is cached. Bulk operations such as {@link #entrySet()} resolve all properties
+ * once. Headers passed explicitly take precedence over headers derived from the azure message, which take precedence
+ * over native properties with the same name, while {@link #ID} and {@link #TIMESTAMP} are always generated for this
+ * message. None of them is copied until a bulk operation.
+ */
+public class AzureMessageHeaders extends MessageHeaders {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, Object> headers;
+
+    private final transient Map<String, Object> derivedHeaders;
+
+    private final transient Map<String, ?> properties;
+
+    private final transient BiFunction<String, Object, Object> propertyResolver;
+
+    private transient Map<String, Object> resolvedProperties;
+
+    private transient Map<String, Object> materialized;
+
+    /**
+     * @param headers          headers which take precedence over native properties
+     * @param properties       native properties of the azure message, never modified
+     * @param propertyResolver convert the raw value of a native property when it's read
+     */
+    public AzureMessageHeaders(@NonNull Map<String, Object> headers, @NonNull Map<String, ?> properties,
+                               @NonNull BiFunction<String, Object, Object> propertyResolver) {
+        this(headers, Collections.emptyMap(), properties, propertyResolver);
+    }
+
+    /**
+     * @param headers          headers which take precedence over all others
+     * @param derivedHeaders   headers derived from the azure message, which take precedence over native properties
+     * @param properties       native properties of the azure message, never modified
+     * @param propertyResolver convert the raw value of a native property when it's read
+     */
+    public AzureMessageHeaders(@NonNull Map<String, Object> headers, @NonNull Map<String, Object> derivedHeaders,
+                               @NonNull Map<String, ?> properties,
+                               @NonNull BiFunction<String, Object, Object> propertyResolver) {
+        super(null);
+        this.headers = headers;
+        this.derivedHeaders = derivedHeaders;
+        this.properties = properties;
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (isGenerated(key)) {
+            return super.get(key);
+        }
+
+        if (this.headers.containsKey(key)) {
+            return this.headers.get(key);
+        }
+
+        if (this.derivedHeaders.containsKey(key)) {
+            return this.derivedHeaders.get(key);
+        }
+
+        return key instanceof String ? resolveProperty((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (isGenerated(key)) {
+            return super.containsKey(key);
+        }
+
+        return this.headers.containsKey(key) || this.derivedHeaders.containsKey(key)
+                || this.properties.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return materialize().containsValue(value);
+    }
+
+    @Override
+    public int size() {
+        return materialize().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return materialize().isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return materialize().keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return materialize().values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    @Override
+    protected Map<String, Object> getRawHeaders() {
+        return materialize();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof Map && materialize().equals(other));
+    }
+
+    @Override
+    public int hashCode() {
+        return materialize().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return materialize().toString();
+    }
+
+    private synchronized Object resolveProperty(String key) {
+        if (this.resolvedProperties != null && this.resolvedProperties.containsKey(key)) {
+            return this.resolvedProperties.get(key);
+        }
+
+        if (!this.properties.containsKey(key)) {
+            return null;
+        }
+
+        if (this.resolvedProperties == null) {
+            this.resolvedProperties = new HashMap<>();
+        }
+
+        Object value = this.propertyResolver.apply(key, this.properties.get(key));
+        this.resolvedProperties.put(key, value);
+        return value;
+    }
+
+    private synchronized Map<String, Object> materialize() {
+        if (this.materialized == null) {
+            Map<String, Object> all = new HashMap<>(
+                    this.properties.size() + this.derivedHeaders.size() + this.headers.size() + 2);
+            this.properties.keySet().forEach(key -> all.put(key, resolveProperty(key)));
+            all.putAll(this.derivedHeaders);
+            all.putAll(this.headers);
+            all.put(ID, super.get(ID));
+            all.put(TIMESTAMP, super.get(TIMESTAMP));
+            this.materialized = Collections.unmodifiableMap(all);
+        }
+
+        return this.materialized;
+    }
+
+    private static boolean isGenerated(Object key) {
+        return ID.equals(key) || TIMESTAMP.equals(key);
+    }
+
+    /**
+     * Serialize all resolved headers as plain {@link MessageHeaders}
+     */
+    private Object writeReplace() {
+        return new ResolvedMessageHeaders(materialize(), getId(), getTimestamp());
+    }
+
+    private static final class ResolvedMessageHeaders extends MessageHeaders {
+
+        private static final long serialVersionUID = 1L;
+
+        ResolvedMessageHeaders(Map<String, Object> headers, UUID id, Long timestamp) {
+            super(headers, id, timestamp);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MimeType;
+import org.springframework.util.PatternMatchUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Default {@link AzureHeaderMapper}, which sends only the headers worth sending, in their own type, under the
+ * shortest name both sides know.
+ *
+ * <p>
+ * A header is sent if its name matches one of {@link #setAllowedPatterns(String...)} and none of
+ * {@link #setDeniedPatterns(String...)}. Patterns support simple wildcards such as {@code "azure_*"}. By default all
+ * headers except {@link #DEFAULT_DENIED_PATTERNS} are sent.
+ *
+ * <p>
+ * Values are sent in a type native to AMQP application properties, instead of {@code toString()}: strings, booleans,
+ * numbers, characters, {@link UUID} and {@link Date} are kept as they are, {@link Instant} becomes {@link Date},
+ * {@link MimeType}, enums and other char sequences become strings, and maps and collections such as
+ * {@link NativeMessageHeaderAccessor#NATIVE_HEADERS} become JSON. Headers of any other type, such as checkpointers or
+ * channels, are skipped.
+ *
+ * <p>
+ * With {@link #setAliasesEnabled(boolean)}, well-known headers are sent under the short names in
+ * {@link #DEFAULT_ALIASES}. Aliases are only resolved back when receiving if enabled, or if
+ * {@link #setAliasesResolved(boolean)} is set on receivers which don't send aliases themselves, and never when the
+ * full name is present as well. Otherwise properties such as {@code ct} are received under their own name.
+ */
+public class DefaultAzureHeaderMapper implements AzureHeaderMapper {
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultAzureHeaderMapper.class);
+
+    private static final String MATCH_ALL = "*";
+
+    public static final String[] DEFAULT_DENIED_PATTERNS =
+            {MessageHeaders.ID, MessageHeaders.TIMESTAMP, AzureHeaders.CHECKPOINTER, AzureHeaders.LOCK_TOKEN,
+                    AzureHeaders.MESSAGE_SESSION, AzureHeaders.BATCH_CONVERTED_HEADERS};
+
+    /**
+     * Short names of well-known headers, keyed by header name
+     */
+    public static final Map<String, String> DEFAULT_ALIASES;
+
+    private static final Map<String, String> HEADERS_BY_ALIAS = new HashMap<>();
+
+    static {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put(MessageHeaders.CONTENT_TYPE, "ct");
+        aliases.put(NativeMessageHeaderAccessor.NATIVE_HEADERS, "nh");
+        aliases.put(AzureHeaders.PARTITION_KEY, "pk");
+        aliases.put(AzureHeaders.PARTITION_ID, "pid");
+        aliases.put(AzureHeaders.RAW_PARTITION_ID, "rpid");
+        DEFAULT_ALIASES = Collections.unmodifiableMap(aliases);
+        DEFAULT_ALIASES.forEach((header, alias) -> HEADERS_BY_ALIAS.put(alias, header));
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String[] allowedPatterns = {MATCH_ALL};
+
+    private String[] deniedPatterns = DEFAULT_DENIED_PATTERNS.clone();
+
+    private boolean aliasesEnabled = false;
+
+    private boolean aliasesResolved = false;
+
+    @Override
+    public void fromHeaders(@NonNull MessageHeaders headers, @NonNull Map<String, Object> properties) {
+        headers.forEach((name, value) -> {
+            if (value == null || !isSent(name)) {
+                return;
+            }
+
+            Object encoded = encode(name, value);
+
+            if (encoded == null) {
+                log.debug("Header {} of type {} isn't sent", name, value.getClass().getName());
+                return;
+            }
+
+            properties.put(this.aliasesEnabled ? DEFAULT_ALIASES.getOrDefault(name, name) : name, encoded);
+        });
+    }
+
+    /**
+     * Properties are only copied if aliases are resolved and some of them are sent under an alias
+     */
+    @Override
+    public Map<String, ?> toHeaders(@NonNull Map<String, ?> properties) {
+        if (!this.aliasesResolved) {
+            return properties;
+        }
+
+        Map<String, Object> resolved = null;
+
+        for (Map.Entry<String, String> alias : HEADERS_BY_ALIAS.entrySet()) {
+            if (!properties.containsKey(alias.getKey()) || properties.containsKey(alias.getValue())) {
+                continue;
+            }
+
+            if (resolved == null) {
+                resolved = new HashMap<>(properties);
+            }
+
+            resolved.put(alias.getValue(), resolved.remove(alias.getKey()));
+        }
+
+        return resolved == null ? properties : resolved;
+    }
+
+    /**
+     * Native headers sent as JSON are read back as a map
+     */
+    @Override
+    public Object toHeaderValue(String header, Object value) {
+        if (NativeMessageHeaderAccessor.NATIVE_HEADERS.equals(header) && value instanceof String) {
+            try {
+                return this.objectMapper.readValue((String) value, LinkedMultiValueMap.class);
+            } catch (IOException e) {
+                return value;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * @return the value sent as application property, {@code null} if the value can't be sent
+     */
+    protected Object encode(String name, Object value) {
+        if (value instanceof String || value instanceof Boolean || value instanceof Byte || value instanceof Short
+                || value instanceof Integer || value instanceof Long || value instanceof Float
+                || value instanceof Double || value instanceof Character || value instanceof UUID
+                || value instanceof Date) {
+            return value;
+        }
+
+        if (value instanceof Instant) {
+            return Date.from((Instant) value);
+        }
+
+        if (value instanceof MimeType || value instanceof CharSequence || value instanceof Enum) {
+            return value.toString();
+        }
+
+        if (value instanceof Map || value instanceof Collection) {
+            try {
+                return this.objectMapper.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                log.debug("Failed to write header " + name + " as JSON", e);
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean isSent(String name) {
+        if (this.allowedPatterns.length == 0) {
+            return false;
+        }
+
+        boolean allowed = MATCH_ALL.equals(this.allowedPatterns[0])
+                || PatternMatchUtils.simpleMatch(this.allowedPatterns, name);
+        return allowed && !PatternMatchUtils.simpleMatch(this.deniedPatterns, name);
+    }
+
+    public String[] getAllowedPatterns() {
+        return allowedPatterns.clone();
+    }
+
+    /**
+     * Names of headers sent, with simple wildcards. Defaults to all headers.
+     */
+    public void setAllowedPatterns(@NonNull String... allowedPatterns) {
+        Assert.noNullElements(allowedPatterns, "allowedPatterns can't contain null");
+        this.allowedPatterns = allowedPatterns.clone();
+    }
+
+    public String[] getDeniedPatterns() {
+        return deniedPatterns.clone();
+    }
+
+    /**
+     * Names of headers never sent, with simple wildcards, which take precedence over allowed patterns. Defaults to
+     * {@link #DEFAULT_DENIED_PATTERNS}, which are replaced rather than extended.
+     */
+    public void setDeniedPatterns(@NonNull String... deniedPatterns) {
+        Assert.noNullElements(deniedPatterns, "deniedPatterns can't contain null");
+        this.deniedPatterns = deniedPatterns.clone();
+    }
+
+    public boolean isAliasesEnabled() {
+        return aliasesEnabled;
+    }
+
+    /**
+     * Send well-known headers under their short names, and resolve them when receiving. Only enable once all
+     * receivers resolve aliases.
+     */
+    public void setAliasesEnabled(boolean aliasesEnabled) {
+        this.aliasesEnabled = aliasesEnabled;
+
+        if (aliasesEnabled) {
+            this.aliasesResolved = true;
+        }
+    }
+
+    public boolean isAliasesResolved() {
+        return aliasesResolved;
+    }
+
+    /**
+     * Resolve well-known headers received under their short names without sending them so. Set on receivers before
+     * enabling aliases on senders.
+     */
+    public void setAliasesResolved(boolean aliasesResolved) {
+        this.aliasesResolved = aliasesResolved;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultAzureHeaderMapper{" + "allowedPatterns=" + Arrays.toString(allowedPatterns) +
+                ", deniedPatterns=" + Arrays.toString(deniedPatterns) + ", aliasesEnabled=" + aliasesEnabled +
+                ", aliasesResolved=" + aliasesResolved + '}';
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PayloadCodec} backed by a Jackson {@link ObjectMapper}, with an {@link ObjectReader} and an
+ * {@link ObjectWriter} cached per payload class.
+ *
+ * <p>
+ * Any Jackson data format works, e.g. Smile with {@code new JacksonPayloadCodec(new ObjectMapper(new SmileFactory()),
+ * MimeType.valueOf("application/x-jackson-smile"))}, or CBOR with {@code CBORFactory}.
+ */
+public class JacksonPayloadCodec implements PayloadCodec {
+
+    public static final MimeType APPLICATION_JSON = MimeType.valueOf("application/json");
+
+    private static final MimeType APPLICATION_ANY_JSON = MimeType.valueOf("application/*+json");
+
+    private static final int MAX_REPORTED_BYTES = 64;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<MimeType> supportedContentTypes;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * JSON codec supporting {@code application/json} and {@code application/*+json}
+     */
+    public JacksonPayloadCodec(@NonNull ObjectMapper objectMapper) {
+        this(objectMapper, APPLICATION_JSON, APPLICATION_ANY_JSON);
+    }
+
+    public JacksonPayloadCodec(@NonNull ObjectMapper objectMapper, @NonNull MimeType... supportedContentTypes) {
+        Assert.notNull(objectMapper, "objectMapper can't be null");
+        Assert.notEmpty(supportedContentTypes, "supportedContentTypes can't be empty");
+        this.objectMapper = objectMapper;
+        this.supportedContentTypes = Collections.unmodifiableList(Arrays.asList(supportedContentTypes));
+    }
+
+    @Override
+    public boolean supports(@NonNull MimeType contentType) {
+        return this.supportedContentTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    @Override
+    public byte[] encode(@NonNull Object payload) {
+        try {
+            return this.writers.computeIfAbsent(payload.getClass(), this.objectMapper::writerFor)
+                               .writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to write " + this.supportedContentTypes.get(0) + " of "
+                    + payload.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public <U> U decode(@NonNull byte[] payload, @NonNull Class<U> targetType) {
+        try {
+            return this.readers.computeIfAbsent(targetType, this.objectMapper::readerFor).readValue(payload);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to read " + this.supportedContentTypes.get(0) + " of "
+                    + payload.length + " bytes starting with: " + prefix(payload), e);
+        }
+    }
+
+    /**
+     * Only a short prefix of the payload goes into exception messages, so that neither large nor sensitive bodies
+     * end up in logs
+     */
+    private static String prefix(byte[] payload) {
+        int length = Math.min(payload.length, MAX_REPORTED_BYTES);
+        String prefix = new String(payload, 0, length, StandardCharsets.UTF_8);
+        return length < payload.length ? prefix + "..." : prefix;
+    }
+
+    public List<MimeType> getSupportedContentTypes() {
+        return supportedContentTypes;
+    }
+}
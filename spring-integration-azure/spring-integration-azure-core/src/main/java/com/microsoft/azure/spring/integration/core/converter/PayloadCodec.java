@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import org.springframework.lang.NonNull;
+import org.springframework.util.MimeType;
+
+/**
+ * Serialize payload objects to bytes and back for the content types it supports. Implementations should be thread
+ * safe, since one instance is shared by all messages converted by a {@link PayloadCodecRegistry}.
+ *
+ * @see JacksonPayloadCodec
+ */
+public interface PayloadCodec {
+
+    /**
+     * @param contentType content type of the message, never {@code null}
+     * @return whether payloads of this content type are handled by this codec
+     */
+    boolean supports(@NonNull MimeType contentType);
+
+    /**
+     * @throws ConversionException if the payload can't be serialized
+     */
+    byte[] encode(@NonNull Object payload);
+
+    /**
+     * @throws ConversionException if the payload can't be deserialized into {@code targetType}
+     */
+    <U> U decode(@NonNull byte[] payload, @NonNull Class<U> targetType);
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Choose the {@link PayloadCodec} of a message from its {@code contentType} header.
+ *
+ * <p>
+ * Registered codecs are checked in registration order. Messages without content type, or with a content type no
+ * codec supports, use the default codec, which is JSON unless configured otherwise. The lookup result is cached per
+ * content type value.
+ */
+public class PayloadCodecRegistry {
+
+    /**
+     * Bound the lookup cache, since content type values come from received messages
+     */
+    private static final int MAX_CACHED_CONTENT_TYPES = 64;
+
+    private final PayloadCodec defaultCodec;
+
+    private final List<PayloadCodec> codecs = new CopyOnWriteArrayList<>();
+
+    private final Map<Object, PayloadCodec> codecsByContentType = new ConcurrentHashMap<>();
+
+    public PayloadCodecRegistry() {
+        this(new JacksonPayloadCodec(new ObjectMapper()));
+    }
+
+    public PayloadCodecRegistry(@NonNull PayloadCodec defaultCodec) {
+        Assert.notNull(defaultCodec, "defaultCodec can't be null");
+        this.defaultCodec = defaultCodec;
+    }
+
+    /**
+     * Register a codec which takes precedence over the default one for the content types it supports
+     */
+    public void register(@NonNull PayloadCodec codec) {
+        Assert.notNull(codec, "codec can't be null");
+        this.codecs.add(codec);
+        this.codecsByContentType.clear();
+    }
+
+    /**
+     * @param contentType value of the {@code contentType} header, either a {@link MimeType} or its string form
+     */
+    public PayloadCodec getCodec(@Nullable Object contentType) {
+        if (contentType == null || this.codecs.isEmpty()) {
+            return this.defaultCodec;
+        }
+
+        PayloadCodec codec = this.codecsByContentType.get(contentType);
+
+        if (codec == null) {
+            codec = resolve(contentType);
+
+            if (this.codecsByContentType.size() < MAX_CACHED_CONTENT_TYPES) {
+                this.codecsByContentType.put(contentType, codec);
+            }
+        }
+
+        return codec;
+    }
+
+    private PayloadCodec resolve(Object contentType) {
+        MimeType mimeType;
+
+        try {
+            mimeType = contentType instanceof MimeType ? (MimeType) contentType
+                    : MimeType.valueOf(contentType.toString());
+        } catch (InvalidMimeTypeException e) {
+            return this.defaultCodec;
+        }
+
+        return this.codecs.stream().filter(codec -> codec.supports(mimeType)).findFirst().orElse(this.defaultCodec);
+    }
+
+    public PayloadCodec getDefaultCodec() {
+        return defaultCodec;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+
+/**
+ * Compress payload bytes. The {@link #getEncoding()} is written to the {@link AzureHeaders#CONTENT_ENCODING} header
+ * of compressed messages, so the receiver can find the codec to decompress them.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return name of the content encoding, e.g. {@code gzip}
+     */
+    String getEncoding();
+
+    byte[] compress(byte[] payload);
+
+    byte[] decompress(byte[] payload);
+
+    /**
+     * Decompress a received payload, failing once it inflates beyond {@code maxSizeInBytes}. Override to stop
+     * inflating as soon as the limit is exceeded, the default only checks the result.
+     *
+     * @throws ConversionException if the decompressed payload is larger than {@code maxSizeInBytes}
+     */
+    default byte[] decompress(byte[] payload, int maxSizeInBytes) {
+        byte[] decompressed = decompress(payload);
+
+        if (decompressed.length > maxSizeInBytes) {
+            throw new ConversionException("Payload decompressed with " + getEncoding() + " exceeds " + maxSizeInBytes
+                    + " bytes");
+        }
+
+        return decompressed;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import org.springframework.util.Assert;
+
+/**
+ * Compression related config used by azure message converters when sending
+ */
+public class CompressionConfig {
+
+    /**
+     * Smaller payloads rarely shrink enough to pay for the header and the CPU
+     */
+    public static final int DEFAULT_THRESHOLD_IN_BYTES = 1024;
+
+    /**
+     * The codec to compress payloads with
+     */
+    private final CompressionCodec codec;
+
+    /**
+     * Only payloads of at least this size in bytes are compressed
+     */
+    private final int thresholdInBytes;
+
+    public CompressionConfig(CompressionCodec codec, int thresholdInBytes) {
+        Assert.notNull(codec, "codec can't be null");
+        Assert.isTrue(thresholdInBytes >= 0, "thresholdInBytes can't be negative");
+        this.codec = codec;
+        this.thresholdInBytes = thresholdInBytes;
+    }
+
+    public static CompressionConfigBuilder builder() {
+        return new CompressionConfigBuilder();
+    }
+
+    public CompressionCodec getCodec() {
+        return codec;
+    }
+
+    public int getThresholdInBytes() {
+        return thresholdInBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionConfig{" + "codec=" + codec + ", thresholdInBytes=" + thresholdInBytes + '}';
+    }
+
+    public static class CompressionConfigBuilder {
+        private CompressionCodec codec = new GzipCompressionCodec();
+        private int thresholdInBytes = DEFAULT_THRESHOLD_IN_BYTES;
+
+        public CompressionConfigBuilder codec(CompressionCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        public CompressionConfigBuilder thresholdInBytes(int thresholdInBytes) {
+            this.thresholdInBytes = thresholdInBytes;
+            return this;
+        }
+
+        public CompressionConfig build() {
+            return new CompressionConfig(codec, thresholdInBytes);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * zlib wrapped deflate, as the {@code deflate} content encoding of HTTP
+ */
+public class DeflateCompressionCodec extends StreamCompressionCodec {
+
+    public static final String ENCODING = "deflate";
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    protected OutputStream compressingStream(OutputStream out) {
+        return new DeflaterOutputStream(out);
+    }
+
+    @Override
+    protected InputStream decompressingStream(InputStream in) {
+        return new InflaterInputStream(in);
+    }
+}
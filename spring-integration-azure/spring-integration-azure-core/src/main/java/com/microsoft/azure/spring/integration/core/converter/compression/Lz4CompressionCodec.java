@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * LZ4 frame format. Requires the optional {@code org.lz4:lz4-java} dependency.
+ */
+public class Lz4CompressionCodec extends StreamCompressionCodec {
+
+    public static final String ENCODING = "lz4";
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    protected OutputStream compressingStream(OutputStream out) throws IOException {
+        return new LZ4FrameOutputStream(out);
+    }
+
+    @Override
+    protected InputStream decompressingStream(InputStream in) throws IOException {
+        return new LZ4FrameInputStream(in);
+    }
+}
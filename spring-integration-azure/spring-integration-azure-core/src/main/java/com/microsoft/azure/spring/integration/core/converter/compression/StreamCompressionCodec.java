@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link CompressionCodec} based on a pair of compressing and decompressing streams
+ */
+abstract class StreamCompressionCodec implements CompressionCodec {
+
+    @Override
+    public byte[] compress(byte[] payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, payload.length / 2));
+
+        try (OutputStream out = compressingStream(bytes)) {
+            out.write(payload);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to compress payload with " + getEncoding(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] payload) {
+        try (InputStream in = decompressingStream(new ByteArrayInputStream(payload))) {
+            return StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to decompress payload with " + getEncoding(), e);
+        }
+    }
+
+    /**
+     * Stop inflating as soon as the limit is exceeded, so that a small malicious payload can't exhaust the heap
+     */
+    @Override
+    public byte[] decompress(byte[] payload, int maxSizeInBytes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(maxSizeInBytes, payload.length * 4) + 1);
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+
+        try (InputStream in = decompressingStream(new ByteArrayInputStream(payload))) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (bytes.size() + read > maxSizeInBytes) {
+                    throw new ConversionException("Payload decompressed with " + getEncoding() + " exceeds "
+                            + maxSizeInBytes + " bytes");
+                }
+                bytes.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new ConversionException("Failed to decompress payload with " + getEncoding(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    protected abstract OutputStream compressingStream(OutputStream out) throws IOException;
+
+    protected abstract InputStream decompressingStream(InputStream in) throws IOException;
+
+    @Override
+    public String toString() {
+        return getEncoding();
+    }
+}
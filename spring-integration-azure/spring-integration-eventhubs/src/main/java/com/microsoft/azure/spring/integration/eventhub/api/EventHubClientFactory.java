@@ -11,8 +11,10 @@ import com.azure.messaging.eventhubs.EventHubConsumerAsyncClient;
 import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
 import com.azure.messaging.eventhubs.EventProcessorClient;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubProcessor;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * @author Warren Zhu
@@ -25,6 +27,14 @@ public interface EventHubClientFactory {
 
     EventHubProducerAsyncClient getOrCreateProducerClient(String eventHubName);
 
+    /**
+     * Run a send against a producer client of the given event hub. Implementations pooling producer clients pick one
+     * for each call and may track it as busy until the returned {@link Mono} terminates.
+     */
+    default <T> Mono<T> withProducerClient(String eventHubName, Function<EventHubProducerAsyncClient, Mono<T>> send) {
+        return Mono.defer(() -> send.apply(getOrCreateProducerClient(eventHubName)));
+    }
+
     EventProcessorClient createEventProcessorClient(String eventHubName, String consumerGroup,
                                                     EventHubProcessor eventHubProcessor);
 
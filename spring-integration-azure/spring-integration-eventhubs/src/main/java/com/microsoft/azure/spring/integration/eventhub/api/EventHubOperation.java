@@ -6,10 +6,21 @@
 
 package com.microsoft.azure.spring.integration.eventhub.api;
 
+import com.azure.messaging.eventhubs.models.EventPosition;
+import com.azure.messaging.eventhubs.models.ReceiveOptions;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
 import com.microsoft.azure.spring.integration.core.api.reactor.BatchSendOperation;
 import com.microsoft.azure.spring.integration.core.api.reactor.SendOperation;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
+import com.microsoft.azure.spring.integration.eventhub.batch.BatchConsumerConfig;
+import com.microsoft.azure.spring.integration.eventhub.dedup.DeduplicationConfig;
+import com.microsoft.azure.spring.integration.eventhub.metrics.EventHubMetrics;
+import com.microsoft.azure.spring.integration.eventhub.routing.PartitionRoutingConfig;
+import com.microsoft.azure.spring.integration.eventhub.dispatch.DispatchConfig;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
 
 /**
  * Azure event hub operation to support send data asynchronously and subscribe
@@ -19,4 +30,64 @@ import com.microsoft.azure.spring.integration.core.api.reactor.SendOperation;
 public interface EventHubOperation extends SendOperation, BatchSendOperation, SubscribeByGroupOperation {
 
     void setStartPosition(StartPosition startPosition);
+
+    /**
+     * Override the start position per partition, e.g. to replay from a sequence number or an enqueued time
+     */
+    void setEventPositionProvider(EventPositionProvider eventPositionProvider);
+
+    /**
+     * In {@link ListenerMode#BATCH}, each consumed message carries a list of payloads
+     */
+    void setListenerMode(ListenerMode listenerMode);
+
+    void setBatchConsumerConfig(BatchConsumerConfig batchConsumerConfig);
+
+    /**
+     * Handle events of one partition in parallel while keeping events with the same key in order
+     */
+    void setDispatchConfig(DispatchConfig dispatchConfig);
+
+    /**
+     * Drop events already processed in this process, e.g. replays after a partition comes back, before conversion
+     */
+    void setDeduplicationConfig(DeduplicationConfig deduplicationConfig);
+
+    /**
+     * Record consumer side metrics such as partition ownership changes
+     */
+    void setMetrics(EventHubMetrics metrics);
+
+    /**
+     * Resolve the partition of each message on the client, so that buffered sends are batched per partition
+     */
+    void setPartitionRoutingConfig(PartitionRoutingConfig partitionRoutingConfig);
+
+    /**
+     * Decide which headers are sent as event properties and how, see
+     * {@link com.microsoft.azure.spring.integration.core.converter.DefaultAzureHeaderMapper}
+     */
+    void setHeaderMapper(AzureHeaderMapper headerMapper);
+
+    /**
+     * Subscribe as a {@link Flux} which pulls from partitions only as fast as downstream requests. Checkpoints only
+     * cover messages emitted downstream.
+     */
+    Flux<Message<?>> receive(String destination, String consumerGroup, Class<?> messagePayloadType);
+
+    /**
+     * Read one partition directly from {@code startingPosition} with default {@link ReceiveOptions}, see
+     * {@link #receiveFromPartition(String, String, String, EventPosition, ReceiveOptions, Class)}
+     */
+    Flux<Message<?>> receiveFromPartition(String eventHubName, String consumerGroup, String partitionId,
+                                          EventPosition startingPosition, Class<?> messagePayloadType);
+
+    /**
+     * Read one partition directly through a consumer client, without load balancing, ownership or checkpoints.
+     * Each message carries its sequence number and offset headers, so callers can track their own position. Set an
+     * owner level in {@code receiveOptions} to make this the exclusive reader of the partition in the consumer group.
+     */
+    Flux<Message<?>> receiveFromPartition(String eventHubName, String consumerGroup, String partitionId,
+                                          EventPosition startingPosition, ReceiveOptions receiveOptions,
+                                          Class<?> messagePayloadType);
 }
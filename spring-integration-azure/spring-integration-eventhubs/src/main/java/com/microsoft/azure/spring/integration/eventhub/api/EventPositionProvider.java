@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.api;
+
+import com.azure.messaging.eventhubs.models.EventPosition;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provide the position to start receiving from for each partition of an event hub.
+ *
+ * <p>
+ * The position only applies to partitions without checkpoint in the checkpoint store. To replay a partition which has
+ * been checkpointed, use a new consumer group or clear its checkpoint first.
+ */
+@FunctionalInterface
+public interface EventPositionProvider {
+
+    /**
+     * @param partitionId id of the partition
+     * @return position to start from, or {@code null} to use the configured start position
+     */
+    @Nullable
+    EventPosition getEventPosition(String partitionId);
+
+    /**
+     * Start every partition from the first event enqueued at or after {@code enqueuedTime}
+     */
+    static EventPositionProvider fromEnqueuedTime(@NonNull Instant enqueuedTime) {
+        Assert.notNull(enqueuedTime, "enqueuedTime can't be null");
+        EventPosition position = EventPosition.fromEnqueuedTime(enqueuedTime);
+        return partitionId -> position;
+    }
+
+    /**
+     * Start each listed partition from the event after the given sequence number
+     */
+    static EventPositionProvider fromSequenceNumbers(@NonNull Map<String, Long> sequenceNumbers) {
+        Map<String, EventPosition> positions = new HashMap<>();
+        sequenceNumbers.forEach((partitionId, sequenceNumber) -> positions.put(partitionId,
+                EventPosition.fromSequenceNumber(sequenceNumber)));
+        return of(positions);
+    }
+
+    /**
+     * Start each listed partition from the event after the given offset
+     */
+    static EventPositionProvider fromOffsets(@NonNull Map<String, Long> offsets) {
+        Map<String, EventPosition> positions = new HashMap<>();
+        offsets.forEach((partitionId, offset) -> positions.put(partitionId, EventPosition.fromOffset(offset)));
+        return of(positions);
+    }
+
+    /**
+     * Start each listed partition from the given position, and others from the configured start position
+     */
+    static EventPositionProvider of(@NonNull Map<String, EventPosition> positions) {
+        Map<String, EventPosition> copy = new HashMap<>(positions);
+        return copy::get;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.batch;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Batch related config used by {@link EventHubBatchProducer}
+ */
+public class BatchConfig {
+
+    /**
+     * 256KB is the max message size of basic tier, so it's safe for all tiers
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE_IN_BYTES = 256 * 1024;
+
+    public static final Duration DEFAULT_LINGER_TIME = Duration.ofMillis(10);
+
+    /**
+     * The max size in bytes of one batch. Pending events will be sent once exceeded
+     */
+    private final int maxBatchSizeInBytes;
+
+    /**
+     * The max time an event waits in buffer for more events to join its batch
+     */
+    private final Duration lingerTime;
+
+    public BatchConfig(int maxBatchSizeInBytes, Duration lingerTime) {
+        Assert.isTrue(maxBatchSizeInBytes > 0, "maxBatchSizeInBytes should be positive");
+        Assert.isTrue(lingerTime != null && !lingerTime.isNegative(), "lingerTime can't be null or negative");
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+        this.lingerTime = lingerTime;
+    }
+
+    public static BatchConfigBuilder builder() {
+        return new BatchConfigBuilder();
+    }
+
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    public Duration getLingerTime() {
+        return lingerTime;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConfig{" + "maxBatchSizeInBytes=" + maxBatchSizeInBytes + ", lingerTime=" + lingerTime + '}';
+    }
+
+    public static class BatchConfigBuilder {
+        private int maxBatchSizeInBytes = DEFAULT_MAX_BATCH_SIZE_IN_BYTES;
+        private Duration lingerTime = DEFAULT_LINGER_TIME;
+
+        public BatchConfigBuilder maxBatchSizeInBytes(int maxBatchSizeInBytes) {
+            this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+            return this;
+        }
+
+        public BatchConfigBuilder lingerTime(Duration lingerTime) {
+            this.lingerTime = lingerTime;
+            return this;
+        }
+
+        public BatchConfig build() {
+            return new BatchConfig(maxBatchSizeInBytes, lingerTime);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.batch;
+
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Batch related config used when consuming in {@link ListenerMode#BATCH}
+ */
+public class BatchConsumerConfig {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    public static final Duration DEFAULT_MAX_WAIT_TIME = Duration.ofSeconds(1);
+
+    /**
+     * The max number of events delivered in one batch
+     */
+    private final int maxBatchSize;
+
+    /**
+     * The max time to wait for a batch to fill up. {@code null} means waiting until the batch is full
+     */
+    private final Duration maxWaitTime;
+
+    public BatchConsumerConfig(int maxBatchSize, Duration maxWaitTime) {
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize should be positive");
+        Assert.isTrue(maxWaitTime == null || (!maxWaitTime.isNegative() && !maxWaitTime.isZero()),
+                "maxWaitTime should be positive");
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public static BatchConsumerConfigBuilder builder() {
+        return new BatchConsumerConfigBuilder();
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Duration getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConsumerConfig{" + "maxBatchSize=" + maxBatchSize + ", maxWaitTime=" + maxWaitTime + '}';
+    }
+
+    public static class BatchConsumerConfigBuilder {
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private Duration maxWaitTime = DEFAULT_MAX_WAIT_TIME;
+
+        public BatchConsumerConfigBuilder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public BatchConsumerConfigBuilder maxWaitTime(Duration maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+            return this;
+        }
+
+        public BatchConsumerConfig build() {
+            return new BatchConsumerConfig(maxBatchSize, maxWaitTime);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.batch;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventDataBatch;
+import com.azure.messaging.eventhubs.models.CreateBatchOptions;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.routing.EventHubPartitionRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Buffer events per (event hub, partition id, partition key) and send them as one {@link EventDataBatch} once the
+ * buffered size reaches {@link BatchConfig#getMaxBatchSizeInBytes()} or the first buffered event has waited for
+ * {@link BatchConfig#getLingerTime()}.
+ *
+ * <p>
+ * Each event gets its own {@link Mono} which completes or fails when the batch containing it is sent. With an
+ * {@link EventHubPartitionRouter}, each event is routed to a partition first, so batches are per partition id only.
+ *
+ * <p>
+ * Batches of the same key are sent one after another in the order they're filled, so events of one partition or
+ * partition key keep their order. Batches of different keys are sent in parallel.
+ */
+public class EventHubBatchProducer implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventHubBatchProducer.class);
+
+    /**
+     * Rough AMQP encoding overhead of one event inside a batch
+     */
+    private static final int EVENT_OVERHEAD_IN_BYTES = 64;
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final EventHubClientFactory clientFactory;
+
+    private final BatchConfig batchConfig;
+
+    private final EventHubBatchSender batchSender;
+
+    private final EventHubPartitionRouter partitionRouter;
+
+    private final Scheduler scheduler = Schedulers.newSingle("eventhub-batch-producer");
+
+    private final Map<BatchKey, Accumulator> accumulators = new ConcurrentHashMap<>();
+
+    /**
+     * Completes when the last flush started for a key is done, removed once no flush of the key is pending
+     */
+    private final Map<BatchKey, CompletableFuture<Void>> lastFlushes = new ConcurrentHashMap<>();
+
+    public EventHubBatchProducer(@NonNull EventHubClientFactory clientFactory, @NonNull BatchConfig batchConfig) {
+        this(clientFactory, batchConfig, new EventHubBatchSender());
+    }
+
+    public EventHubBatchProducer(@NonNull EventHubClientFactory clientFactory, @NonNull BatchConfig batchConfig,
+                                 @NonNull EventHubBatchSender batchSender) {
+        this(clientFactory, batchConfig, batchSender, null);
+    }
+
+    /**
+     * @param partitionRouter route each event to a partition before buffering, {@code null} means no routing
+     */
+    public EventHubBatchProducer(@NonNull EventHubClientFactory clientFactory, @NonNull BatchConfig batchConfig,
+                                 @NonNull EventHubBatchSender batchSender, EventHubPartitionRouter partitionRouter) {
+        this.clientFactory = clientFactory;
+        this.batchConfig = batchConfig;
+        this.batchSender = batchSender;
+        this.partitionRouter = partitionRouter;
+    }
+
+    public Mono<Void> send(String eventHubName, @NonNull EventData event, PartitionSupplier partitionSupplier) {
+        if (this.partitionRouter == null) {
+            return Mono.defer(() -> Mono.fromFuture(enqueue(BatchKey.of(eventHubName, partitionSupplier), event)));
+        }
+
+        return this.partitionRouter.route(eventHubName, partitionSupplier).flatMap(
+                routed -> Mono.fromFuture(enqueue(BatchKey.of(eventHubName, routed), event)));
+    }
+
+    private CompletableFuture<Void> enqueue(BatchKey key, EventData event) {
+        PendingEvent pending = new PendingEvent(event, estimateSize(event));
+
+        while (true) {
+            Accumulator accumulator = this.accumulators.computeIfAbsent(key, Accumulator::new);
+            Mono<Void> previous = null;
+            Mono<Void> current = null;
+
+            synchronized (accumulator) {
+                if (accumulator.removed) {
+                    // Removed by linger flush concurrently, retry with a new accumulator
+                    continue;
+                }
+
+                if (!accumulator.isEmpty() && accumulator.sizeInBytes + pending.sizeInBytes > maxBatchSizeInBytes()) {
+                    previous = flushInOrder(key, accumulator.drain());
+                }
+
+                accumulator.add(pending);
+
+                if (accumulator.sizeInBytes >= maxBatchSizeInBytes()) {
+                    current = flushInOrder(key, accumulator.drain());
+                } else if (accumulator.events.size() == 1) {
+                    long generation = accumulator.generation;
+                    this.scheduler.schedule(() -> onLingerExpired(accumulator, generation),
+                            this.batchConfig.getLingerTime().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+
+            if (previous != null) {
+                previous.subscribe();
+            }
+
+            if (current != null) {
+                current.subscribe();
+            }
+
+            return pending.future;
+        }
+    }
+
+    private void onLingerExpired(Accumulator accumulator, long generation) {
+        Mono<Void> flush;
+
+        synchronized (accumulator) {
+            if (accumulator.generation != generation) {
+                // Already flushed because of size
+                return;
+            }
+
+            flush = flushInOrder(accumulator.key, accumulator.drain());
+            accumulator.removed = true;
+            this.accumulators.remove(accumulator.key, accumulator);
+        }
+
+        flush.subscribe();
+    }
+
+    /**
+     * Queue the flush behind the previous flush of the same key. Must be called while holding the lock of the
+     * accumulator the events are drained from, so flushes are queued in the order batches are filled. The returned
+     * {@link Mono} must be subscribed, otherwise later flushes of the key never start.
+     */
+    private Mono<Void> flushInOrder(BatchKey key, List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = this.lastFlushes.put(key, done);
+        Mono<Void> afterPrevious = previous == null ? Mono.empty() : Mono.fromFuture(previous);
+
+        return afterPrevious.then(Mono.defer(() -> flush(key, events))).doFinally(signal -> {
+            done.complete(null);
+            this.lastFlushes.remove(key, done);
+        });
+    }
+
+    private Mono<Void> flush(BatchKey key, List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+
+        if (this.partitionRouter != null) {
+            this.partitionRouter.onBatchSent(key.eventHubName, key.partitionId);
+        }
+
+        List<EventData> eventData = events.stream().map(e -> e.event).collect(Collectors.toList());
+        EventHubBatchSender.BatchResultHandler resultHandler = (from, to, error) -> {
+            for (int i = from; i < to; i++) {
+                if (error == null) {
+                    events.get(i).future.complete(null);
+                } else {
+                    events.get(i).future.completeExceptionally(error);
+                }
+            }
+        };
+
+        return this.clientFactory.withProducerClient(key.eventHubName,
+                producer -> this.batchSender.send(producer, buildCreateBatchOptions(key), eventData, resultHandler))
+                                 // Fail events the sender never reached, e.g. if no producer client could be created
+                                 .doOnError(t -> events.forEach(event -> event.future.completeExceptionally(t)))
+                                 .onErrorResume(t -> Mono.empty());
+    }
+
+    private CreateBatchOptions buildCreateBatchOptions(BatchKey key) {
+        return new CreateBatchOptions().setPartitionId(key.partitionId).setPartitionKey(key.partitionKey)
+                                       .setMaximumSizeInBytes(maxBatchSizeInBytes());
+    }
+
+    private int maxBatchSizeInBytes() {
+        return this.batchConfig.getMaxBatchSizeInBytes();
+    }
+
+    private static int estimateSize(EventData event) {
+        int size = EVENT_OVERHEAD_IN_BYTES + event.getBody().length;
+
+        for (Map.Entry<String, Object> property : event.getProperties().entrySet()) {
+            size += property.getKey().getBytes(StandardCharsets.UTF_8).length;
+            size += String.valueOf(property.getValue()).getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        return size;
+    }
+
+    /**
+     * Flush all buffered events and wait for them to be sent
+     */
+    @Override
+    public void destroy() {
+        List<Mono<Void>> flushes = new ArrayList<>();
+
+        this.accumulators.values().forEach(accumulator -> {
+            synchronized (accumulator) {
+                flushes.add(flushInOrder(accumulator.key, accumulator.drain()));
+                accumulator.removed = true;
+            }
+        });
+        this.accumulators.clear();
+
+        try {
+            Mono.when(flushes).block(CLOSE_TIMEOUT);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to flush buffered events before closing", e);
+        } finally {
+            this.scheduler.dispose();
+        }
+    }
+
+    public BatchConfig getBatchConfig() {
+        return batchConfig;
+    }
+
+    private static final class PendingEvent {
+        private final EventData event;
+        private final int sizeInBytes;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingEvent(EventData event, int sizeInBytes) {
+            this.event = event;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    private static final class Accumulator {
+        private final BatchKey key;
+        private List<PendingEvent> events = new ArrayList<>();
+        private long sizeInBytes;
+        private long generation;
+        private boolean removed;
+
+        Accumulator(BatchKey key) {
+            this.key = key;
+        }
+
+        boolean isEmpty() {
+            return this.events.isEmpty();
+        }
+
+        void add(PendingEvent event) {
+            this.events.add(event);
+            this.sizeInBytes += event.sizeInBytes;
+        }
+
+        List<PendingEvent> drain() {
+            List<PendingEvent> drained = this.events;
+            this.events = new ArrayList<>();
+            this.sizeInBytes = 0;
+            this.generation++;
+            return drained;
+        }
+    }
+
+    private static final class BatchKey {
+        private final String eventHubName;
+        private final String partitionId;
+        private final String partitionKey;
+
+        private BatchKey(String eventHubName, String partitionId, String partitionKey) {
+            this.eventHubName = eventHubName;
+            this.partitionId = partitionId;
+            this.partitionKey = partitionKey;
+        }
+
+        static BatchKey of(String eventHubName, PartitionSupplier partitionSupplier) {
+            if (partitionSupplier == null) {
+                return new BatchKey(eventHubName, null, null);
+            }
+
+            return new BatchKey(eventHubName, partitionSupplier.getPartitionId(), partitionSupplier.getPartitionKey());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey that = (BatchKey) o;
+            return Objects.equals(eventHubName, that.eventHubName) && Objects.equals(partitionId, that.partitionId)
+                    && Objects.equals(partitionKey, that.partitionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventHubName, partitionId, partitionKey);
+        }
+    }
+}
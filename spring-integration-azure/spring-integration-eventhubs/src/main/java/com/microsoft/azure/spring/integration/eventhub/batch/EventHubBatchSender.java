@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.batch;
+
+import com.azure.core.amqp.exception.AmqpException;
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventDataBatch;
+import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import com.azure.messaging.eventhubs.models.CreateBatchOptions;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Split events into as many size bounded {@link EventDataBatch} as needed and send them with bounded concurrency.
+ *
+ * <p>
+ * The returned {@link Mono} completes after all batches are sent and fails if any batch failed. Events larger than
+ * the max batch size are reported as failure instead of being dropped. Batches are only sent concurrently when
+ * {@link CreateBatchOptions} has neither partition id nor partition key, since the service doesn't keep the order of
+ * such events anyway. Otherwise they are sent one after another to keep the order of events.
+ */
+public class EventHubBatchSender {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventHubBatchSender.class);
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    private static final BatchResultHandler NO_OP_HANDLER = (from, to, error) -> {
+    };
+
+    private final int maxConcurrency;
+
+    public EventHubBatchSender() {
+        this(DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public EventHubBatchSender(int maxConcurrency) {
+        Assert.isTrue(maxConcurrency > 0, "maxConcurrency should be positive");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Mono<Void> send(EventHubProducerAsyncClient producer, CreateBatchOptions options, List<EventData> events) {
+        return send(producer, options, events, NO_OP_HANDLER);
+    }
+
+    /**
+     * Send events and report the result of each range of events through {@code handler}
+     */
+    public Mono<Void> send(EventHubProducerAsyncClient producer, CreateBatchOptions options, List<EventData> events,
+                           BatchResultHandler handler) {
+        int concurrency = isOrdered(options) ? 1 : this.maxConcurrency;
+        return split(producer, options, events, 0)
+                .flatMapDelayError(batch -> send(producer, batch, handler), concurrency, 1)
+                .then();
+    }
+
+    private static boolean isOrdered(CreateBatchOptions options) {
+        return options != null && (options.getPartitionId() != null || options.getPartitionKey() != null);
+    }
+
+    private static Mono<Void> send(EventHubProducerAsyncClient producer, PreparedBatch batch,
+                                   BatchResultHandler handler) {
+        if (batch.error != null) {
+            handler.onResult(batch.from, batch.to, batch.error);
+            return Mono.error(batch.error);
+        }
+
+        return producer.send(batch.batch)
+                       .doOnSuccess(v -> handler.onResult(batch.from, batch.to, null))
+                       .doOnError(t -> handler.onResult(batch.from, batch.to, t));
+    }
+
+    /**
+     * Fill batches one after another, so the next batch is prepared while previous ones are being sent
+     */
+    private static Flux<PreparedBatch> split(EventHubProducerAsyncClient producer, CreateBatchOptions options,
+                                             List<EventData> events, int from) {
+        if (from >= events.size()) {
+            return Flux.empty();
+        }
+
+        return producer.createBatch(options).flatMapMany(batch -> {
+            int next = fill(batch, events, from);
+
+            if (next == from) {
+                EventHubRuntimeException error = new EventHubRuntimeException(
+                        "Event is larger than maximum allowed size " + batch.getMaxSizeInBytes());
+                return Flux.just(PreparedBatch.failed(from, from + 1, error))
+                           .concatWith(split(producer, options, events, from + 1));
+            }
+
+            return Flux.just(new PreparedBatch(batch, from, next, null))
+                       .concatWith(split(producer, options, events, next));
+        }).onErrorResume(t -> Flux.just(PreparedBatch.failed(from, events.size(), t)));
+    }
+
+    private static int fill(EventDataBatch batch, List<EventData> events, int from) {
+        int index = from;
+
+        while (index < events.size()) {
+            try {
+                if (!batch.tryAdd(events.get(index))) {
+                    break;
+                }
+            } catch (AmqpException e) {
+                LOGGER.warn("Event is larger than maximum allowed size. Exception: " + e);
+                break;
+            }
+            index++;
+        }
+
+        return index;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Callback of the send result of events in range [from, to)
+     */
+    @FunctionalInterface
+    public interface BatchResultHandler {
+
+        /**
+         * @param from  index of the first event in this batch, inclusive
+         * @param to    index of the last event in this batch, exclusive
+         * @param error the failure, or {@code null} if sent successfully
+         */
+        void onResult(int from, int to, Throwable error);
+    }
+
+    private static final class PreparedBatch {
+        private final EventDataBatch batch;
+        private final int from;
+        private final int to;
+        private final Throwable error;
+
+        private PreparedBatch(EventDataBatch batch, int from, int to, Throwable error) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.error = error;
+        }
+
+        static PreparedBatch failed(int from, int to, Throwable error) {
+            return new PreparedBatch(null, from, to, error);
+        }
+    }
+}
@@ -6,7 +6,7 @@
 
 package com.microsoft.azure.spring.integration.eventhub.checkpoint;
 
-import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
 import com.azure.messaging.eventhubs.models.EventContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
@@ -14,8 +14,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Do checkpoint after each batch. Effective when {@link CheckpointMode#BATCH}
  *
@@ -25,7 +23,6 @@ import java.util.concurrent.ConcurrentHashMap;
 @Deprecated
 class BatchCheckpointManager extends CheckpointManager {
     private static final Logger log = LoggerFactory.getLogger(BatchCheckpointManager.class);
-    private final ConcurrentHashMap<String, EventData> lastEventByPartition = new ConcurrentHashMap<>();
 
     BatchCheckpointManager(CheckpointConfig checkpointConfig) {
         super(checkpointConfig);
@@ -34,18 +31,13 @@ class BatchCheckpointManager extends CheckpointManager {
     }
 
     @Override
-    public void onMessage(EventContext context, EventData eventData) {
-        this.lastEventByPartition.put(context.getPartitionContext().getPartitionId(), eventData);
+    public void onMessages(EventBatchContext context) {
+        this.checkpointEngine.checkpoint(context);
     }
 
     @Override
     public void completeBatch(EventContext context) {
-        EventData eventData = this.lastEventByPartition.get(context.getPartitionContext().getPartitionId());
-
-        context.updateCheckpointAsync()
-                .doOnError(t -> logCheckpointFail(context, eventData, t))
-                .doOnSuccess(v -> logCheckpointSuccess(context, eventData))
-                .subscribe();
+        this.checkpointEngine.checkpoint(context);
     }
 
     @Override
@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce checkpoint requests so that at most one checkpoint write is outstanding per partition.
+ *
+ * <p>
+ * While a write is in flight, newer requested positions of the same partition replace each other and only the latest
+ * one is written once the in-flight write completes. Positions passed to {@link #track(EventContext)} but never
+ * requested are written by a timer once the partition has been idle for the configured interval, so count or time
+ * based checkpointing doesn't leave the tail of a partition unchecked. The same timer retries failed writes which
+ * no newer request has superseded.
+ */
+public class CheckpointEngine {
+
+    public static final Duration DEFAULT_IDLE_FLUSH_INTERVAL = Duration.ofSeconds(5);
+
+    private final Duration idleFlushInterval;
+
+    private final ResultHandler resultHandler;
+
+    private final Map<String, PartitionState> statesByPartition = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private volatile Disposable idleFlushTask;
+
+    private WriteListener writeListener;
+
+    /**
+     * @param idleFlushInterval how long a partition should stay idle before its tracked position is written
+     * @param resultHandler     called with the written position and the failure, or {@code null} if succeeded
+     */
+    public CheckpointEngine(@NonNull Duration idleFlushInterval,
+                            @NonNull ResultHandler resultHandler) {
+        Assert.isTrue(!idleFlushInterval.isNegative() && !idleFlushInterval.isZero(),
+                "idleFlushInterval should be positive");
+        this.idleFlushInterval = idleFlushInterval;
+        this.resultHandler = resultHandler;
+    }
+
+    /**
+     * Record the latest consumed position of a partition without requesting a checkpoint. The position will be
+     * written if the partition stays idle for the idle flush interval.
+     */
+    public void track(EventContext context) {
+        track(Position.of(context));
+    }
+
+    /**
+     * Record the last event of a batch as the latest consumed position, see {@link #track(EventContext)}
+     */
+    public void track(EventBatchContext context) {
+        if (!context.getEvents().isEmpty()) {
+            track(Position.of(context));
+        }
+    }
+
+    /**
+     * Request a checkpoint of the given position without waiting for the result
+     */
+    public void checkpoint(EventContext context) {
+        Position position = Position.of(context);
+        request(getOrCreateState(position), position, null);
+    }
+
+    /**
+     * Request a checkpoint of the last event of a batch without waiting for the result
+     */
+    public void checkpoint(EventBatchContext context) {
+        if (!context.getEvents().isEmpty()) {
+            Position position = Position.of(context);
+            request(getOrCreateState(position), position, null);
+        }
+    }
+
+    /**
+     * Request a checkpoint of the given position. The returned {@link Mono} completes once a write covering this
+     * position completes.
+     */
+    public Mono<Void> checkpointAsync(EventContext context) {
+        return Mono.defer(() -> checkpointAsync(Position.of(context)));
+    }
+
+    /**
+     * Request a checkpoint of the last event of a batch, see {@link #checkpointAsync(EventContext)}
+     */
+    public Mono<Void> checkpointAsync(EventBatchContext context) {
+        return Mono.defer(() -> context.getEvents().isEmpty() ? Mono.empty() : checkpointAsync(Position.of(context)));
+    }
+
+    private void track(Position position) {
+        PartitionState state = getOrCreateState(position);
+
+        synchronized (state) {
+            state.tracked = position;
+            state.lastTrackedNanos = System.nanoTime();
+        }
+
+        // Checked without the lock first, since this is called for every event
+        if (this.idleFlushTask == null) {
+            startIdleFlushTaskIfNeeded();
+        }
+    }
+
+    private Mono<Void> checkpointAsync(Position position) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        request(getOrCreateState(position), position, future);
+        return Mono.fromFuture(future);
+    }
+
+    /**
+     * Request a checkpoint of the latest tracked or requested position of a partition. The returned {@link Mono}
+     * completes once that position has been written, or immediately if nothing was consumed from the partition.
+     */
+    public Mono<Void> flush(String partitionId) {
+        return Mono.defer(() -> {
+            PartitionState state = this.statesByPartition.get(partitionId);
+
+            if (state == null) {
+                return Mono.empty();
+            }
+
+            Position position;
+            synchronized (state) {
+                position = state.tracked != null && !state.tracked.isSameAs(state.lastRequested) ? state.tracked :
+                        state.lastRequested;
+            }
+
+            if (position == null) {
+                return Mono.empty();
+            }
+
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            request(state, position, future);
+            return Mono.fromFuture(future);
+        });
+    }
+
+    /**
+     * Forget the state of a partition which is no longer owned
+     */
+    public void onPartitionClose(String partitionId) {
+        this.statesByPartition.remove(partitionId);
+
+        if (this.statesByPartition.isEmpty()) {
+            stopIdleFlushTask();
+        }
+    }
+
+    private void request(PartitionState state, Position position, CompletableFuture<Void> waiter) {
+        this.requestCount.incrementAndGet();
+        Write write;
+
+        synchronized (state) {
+            state.requestsSinceWrite++;
+            state.lastRequested = position;
+
+            if (state.pending != null && !isNewer(position, state.pending)) {
+                state.addPendingWaiter(waiter);
+                return;
+            }
+
+            if (state.pending == null && state.inFlight != null && !isNewer(position, state.inFlight.position)) {
+                state.inFlight.addWaiter(waiter);
+                return;
+            }
+
+            if (state.pending == null && state.inFlight == null && state.written != null
+                    && !isNewer(position, state.written)) {
+                if (waiter != null) {
+                    waiter.complete(null);
+                }
+                return;
+            }
+
+            state.pending = position;
+            state.addPendingWaiter(waiter);
+            write = state.nextWrite();
+        }
+
+        if (write != null) {
+            write(state, write);
+        }
+    }
+
+    private void write(PartitionState state, Write write) {
+        this.writeCount.incrementAndGet();
+
+        if (this.writeListener != null) {
+            this.writeListener.onWrite(write.position.partitionContext, write.requestCount);
+        }
+
+        write.position.writer.get().subscribe(null, t -> onWriteComplete(state, write, t),
+                () -> onWriteComplete(state, write, null));
+    }
+
+    private void onWriteComplete(PartitionState state, Write write, Throwable error) {
+        Write next;
+
+        synchronized (state) {
+            if (error == null) {
+                state.written = write.position;
+            } else if (state.pending == null) {
+                markForRetry(state, write.position);
+            }
+            state.inFlight = null;
+            next = state.nextWrite();
+        }
+
+        this.resultHandler.onResult(write.position.partitionContext, write.position.eventData, error);
+        write.complete(error);
+
+        if (error != null && this.idleFlushTask == null) {
+            startIdleFlushTaskIfNeeded();
+        }
+
+        if (next != null) {
+            write(state, next);
+        }
+    }
+
+    /**
+     * Let the idle flush write the failed position again, unless a newer position is tracked, which is then written
+     * instead
+     */
+    private static void markForRetry(PartitionState state, Position failed) {
+        if (state.tracked == null || isNewer(failed, state.tracked)) {
+            state.tracked = failed;
+        }
+        state.lastRequested = null;
+    }
+
+    private void flushIdlePartitions() {
+        long now = System.nanoTime();
+
+        this.statesByPartition.values().forEach(state -> {
+            Position idle = null;
+
+            synchronized (state) {
+                if (state.tracked != null && !state.tracked.isSameAs(state.lastRequested)
+                        && now - state.lastTrackedNanos >= this.idleFlushInterval.toNanos()) {
+                    idle = state.tracked;
+                }
+            }
+
+            if (idle != null) {
+                request(state, idle, null);
+            }
+        });
+    }
+
+    private PartitionState getOrCreateState(Position position) {
+        return this.statesByPartition.computeIfAbsent(position.partitionContext.getPartitionId(),
+                k -> new PartitionState());
+    }
+
+    private synchronized void startIdleFlushTaskIfNeeded() {
+        if (this.idleFlushTask == null) {
+            long interval = this.idleFlushInterval.toNanos();
+            this.idleFlushTask = Schedulers.parallel()
+                                           .schedulePeriodically(this::flushIdlePartitions, interval, interval,
+                                                   TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void stopIdleFlushTask() {
+        if (this.idleFlushTask != null) {
+            this.idleFlushTask.dispose();
+            this.idleFlushTask = null;
+        }
+    }
+
+    /**
+     * Positions without sequence number can't be compared, so they are always treated as newer unless they are the
+     * same position
+     */
+    private static boolean isNewer(Position position, Position other) {
+        if (position.isSameAs(other)) {
+            return false;
+        }
+
+        Long sequenceNumber = position.sequenceNumber();
+        Long otherSequenceNumber = other.sequenceNumber();
+
+        return sequenceNumber == null || otherSequenceNumber == null || sequenceNumber > otherSequenceNumber;
+    }
+
+    /**
+     * @return how many checkpoint requests have been made, including idle flushes
+     */
+    public long getRequestCount() {
+        return this.requestCount.get();
+    }
+
+    /**
+     * @return how many checkpoint writes have been issued to the checkpoint store
+     */
+    public long getWriteCount() {
+        return this.writeCount.get();
+    }
+
+    /**
+     * @return how many checkpoint writes were saved by coalescing requests
+     */
+    public long getSavedWriteCount() {
+        return Math.max(0, getRequestCount() - getWriteCount());
+    }
+
+    public WriteListener getWriteListener() {
+        return writeListener;
+    }
+
+    /**
+     * Called each time a checkpoint write is issued, {@code null} means no listener
+     */
+    public void setWriteListener(WriteListener writeListener) {
+        this.writeListener = writeListener;
+    }
+
+    /**
+     * Callback of each checkpoint write issued to the checkpoint store
+     */
+    @FunctionalInterface
+    public interface WriteListener {
+
+        /**
+         * @param partitionContext the partition checkpointed
+         * @param requestCount     how many checkpoint requests of the partition since the previous write are covered
+         *                         by this write, so {@code requestCount - 1} writes were saved by coalescing
+         */
+        void onWrite(PartitionContext partitionContext, int requestCount);
+    }
+
+    /**
+     * Callback of the result of each checkpoint write
+     */
+    @FunctionalInterface
+    public interface ResultHandler {
+
+        /**
+         * @param partitionContext the partition checkpointed
+         * @param eventData        the event checkpointed
+         * @param error            the failure, or {@code null} if written successfully
+         */
+        void onResult(PartitionContext partitionContext, EventData eventData, Throwable error);
+    }
+
+    /**
+     * The checkpoint position of one event, or the last event of a batch
+     */
+    private static final class Position {
+        private final Object source;
+        private final PartitionContext partitionContext;
+        private final EventData eventData;
+        private final Supplier<Mono<Void>> writer;
+
+        private Position(Object source, PartitionContext partitionContext, EventData eventData,
+                         Supplier<Mono<Void>> writer) {
+            this.source = source;
+            this.partitionContext = partitionContext;
+            this.eventData = eventData;
+            this.writer = writer;
+        }
+
+        static Position of(EventContext context) {
+            return new Position(context, context.getPartitionContext(), context.getEventData(),
+                    context::updateCheckpointAsync);
+        }
+
+        static Position of(EventBatchContext context) {
+            List<EventData> events = context.getEvents();
+            return new Position(context, context.getPartitionContext(), events.get(events.size() - 1),
+                    context::updateCheckpointAsync);
+        }
+
+        boolean isSameAs(Position other) {
+            return other != null && this.source == other.source;
+        }
+
+        Long sequenceNumber() {
+            return this.eventData == null ? null : this.eventData.getSequenceNumber();
+        }
+    }
+
+    private static final class PartitionState {
+        private Position pending;
+        private List<CompletableFuture<Void>> pendingWaiters;
+        private Write inFlight;
+        private Position written;
+        private Position tracked;
+        private Position lastRequested;
+        private long lastTrackedNanos;
+        private int requestsSinceWrite;
+
+        void addPendingWaiter(CompletableFuture<Void> waiter) {
+            if (waiter != null) {
+                if (this.pendingWaiters == null) {
+                    this.pendingWaiters = new ArrayList<>();
+                }
+                this.pendingWaiters.add(waiter);
+            }
+        }
+
+        /**
+         * Move the pending position to in flight if no write is outstanding
+         */
+        Write nextWrite() {
+            if (this.inFlight != null || this.pending == null) {
+                return null;
+            }
+
+            this.inFlight = new Write(this.pending, this.pendingWaiters, this.requestsSinceWrite);
+            this.pending = null;
+            this.pendingWaiters = null;
+            this.requestsSinceWrite = 0;
+            return this.inFlight;
+        }
+    }
+
+    private static final class Write {
+        private final Position position;
+        private final int requestCount;
+        private List<CompletableFuture<Void>> waiters;
+
+        Write(Position position, List<CompletableFuture<Void>> waiters, int requestCount) {
+            this.position = position;
+            this.waiters = waiters;
+            this.requestCount = requestCount;
+        }
+
+        void addWaiter(CompletableFuture<Void> waiter) {
+            if (waiter != null) {
+                if (this.waiters == null) {
+                    this.waiters = new ArrayList<>();
+                }
+                this.waiters.add(waiter);
+            }
+        }
+
+        void complete(Throwable error) {
+            if (this.waiters == null) {
+                return;
+            }
+
+            for (CompletableFuture<Void> waiter : this.waiters) {
+                if (error == null) {
+                    waiter.complete(null);
+                } else {
+                    waiter.completeExceptionally(error);
+                }
+            }
+        }
+    }
+}
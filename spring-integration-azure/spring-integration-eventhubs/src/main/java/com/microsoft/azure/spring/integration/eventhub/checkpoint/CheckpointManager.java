@@ -7,10 +7,17 @@
 package com.microsoft.azure.spring.integration.eventhub.checkpoint;
 
 import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
 import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
+import com.microsoft.azure.spring.integration.eventhub.metrics.EventHubMetrics;
 import com.microsoft.azure.spring.integration.eventhub.util.EventDataHelper;
 import org.slf4j.Logger;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 
 /**
  * @author Warren Zhu
@@ -20,7 +27,10 @@ public abstract class CheckpointManager {
     private static final String CHECKPOINT_FAIL_MSG = "Consumer group '%s' failed to checkpoint %s on partition %s";
     private static final String CHECKPOINT_SUCCESS_MSG =
             "Consumer group '%s' checkpointed %s on partition %s in %s " + "mode";
+    private static final String FLUSH_FAIL_MSG =
+            "Failed to flush checkpoint in %s mode on partition %s within %s before closing it";
     final CheckpointConfig checkpointConfig;
+    final CheckpointEngine checkpointEngine;
 
     public static CheckpointManager of(CheckpointConfig checkpointConfig) {
         switch (checkpointConfig.getCheckpointMode()) {
@@ -41,32 +51,112 @@ public abstract class CheckpointManager {
 
     CheckpointManager(CheckpointConfig checkpointConfig) {
         this.checkpointConfig = checkpointConfig;
+        this.checkpointEngine = new CheckpointEngine(idleFlushInterval(checkpointConfig), this::onCheckpointResult);
     }
 
     public void onMessage(EventContext context, EventData eventData) {
         // no-op
     }
 
+    /**
+     * Checkpoint the given position through {@link CheckpointEngine}, used by manual checkpointer
+     */
+    public Mono<Void> checkpoint(EventContext context) {
+        return this.checkpointEngine.checkpointAsync(context);
+    }
+
+    /**
+     * Checkpoint the last event of the batch through {@link CheckpointEngine}, used by manual checkpointer
+     */
+    public Mono<Void> checkpoint(EventBatchContext context) {
+        return this.checkpointEngine.checkpointAsync(context);
+    }
+
+    /**
+     * Write outstanding checkpoints of the partition, waiting up to {@link CheckpointConfig#getFlushTimeout()}, so the
+     * next owner doesn't receive again events already processed here. Then forget the partition.
+     */
+    public void onPartitionClose(String partitionId) {
+        try {
+            flush(partitionId);
+        } finally {
+            this.checkpointEngine.onPartitionClose(partitionId);
+        }
+    }
+
+    void flush(String partitionId) {
+        Duration timeout = this.checkpointConfig.getFlushTimeout();
+
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return;
+        }
+
+        try {
+            this.checkpointEngine.flush(partitionId).block(timeout);
+        } catch (RuntimeException e) {
+            if (getLogger().isWarnEnabled()) {
+                getLogger().warn(String.format(FLUSH_FAIL_MSG, this.checkpointConfig.getCheckpointMode(),
+                        partitionId, timeout), e);
+            }
+        }
+    }
+
+    public CheckpointEngine getCheckpointEngine() {
+        return checkpointEngine;
+    }
+
+    /**
+     * Report checkpoint writes and how many of them were saved by coalescing, {@code null} means no metrics
+     */
+    public void setMetrics(EventHubMetrics metrics) {
+        this.checkpointEngine.setWriteListener(metrics == null ? null : metrics::onCheckpointWrite);
+    }
+
+    private void onCheckpointResult(PartitionContext partitionContext, EventData eventData, Throwable t) {
+        if (t == null) {
+            logCheckpointSuccess(partitionContext, eventData);
+        } else {
+            logCheckpointFail(partitionContext, eventData, t);
+        }
+    }
+
+    private static Duration idleFlushInterval(CheckpointConfig checkpointConfig) {
+        Duration interval = checkpointConfig.getCheckpointInterval();
+
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return CheckpointEngine.DEFAULT_IDLE_FLUSH_INTERVAL;
+        }
+
+        return interval;
+    }
+
+    /**
+     * Called after a batch of events delivered in {@link ListenerMode#BATCH}
+     */
+    public void onMessages(EventBatchContext context) {
+        // no-op
+    }
+
     @Deprecated
     public void completeBatch(EventContext context) {
         // no-op
     }
 
-    void logCheckpointFail(EventContext context, EventData eventData, Throwable t) {
+    void logCheckpointFail(PartitionContext partitionContext, EventData eventData, Throwable t) {
         if (getLogger().isWarnEnabled()) {
             getLogger().warn(String
-                    .format(CHECKPOINT_FAIL_MSG, context.getPartitionContext().getConsumerGroup(),
+                    .format(CHECKPOINT_FAIL_MSG, partitionContext.getConsumerGroup(),
                             EventDataHelper.toString(eventData),
-                            context.getPartitionContext().getPartitionId()), t);
+                            partitionContext.getPartitionId()), t);
         }
     }
 
-    void logCheckpointSuccess(EventContext context, EventData eventData) {
+    void logCheckpointSuccess(PartitionContext partitionContext, EventData eventData) {
         if (getLogger().isDebugEnabled()) {
             getLogger().debug(String
-                    .format(CHECKPOINT_SUCCESS_MSG, context.getPartitionContext().getConsumerGroup(),
+                    .format(CHECKPOINT_SUCCESS_MSG, partitionContext.getConsumerGroup(),
                             EventDataHelper.toString(eventData),
-                            context.getPartitionContext().getPartitionId(),
+                            partitionContext.getPartitionId(),
                             this.checkpointConfig.getCheckpointMode()));
         }
     }
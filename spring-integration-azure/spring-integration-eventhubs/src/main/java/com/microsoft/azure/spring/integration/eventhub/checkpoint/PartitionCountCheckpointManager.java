@@ -7,6 +7,7 @@
 package com.microsoft.azure.spring.integration.eventhub.checkpoint;
 
 import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
 import com.azure.messaging.eventhubs.models.EventContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
@@ -19,7 +20,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Do checkpoint when uncheckpointed count exceeds {@link CheckpointConfig#getCheckpointCount()} for one partition.
- * Effective when {@link CheckpointMode#PARTITION_COUNT}
+ * The tail of an idle partition is written by {@link CheckpointEngine}. Effective when
+ * {@link CheckpointMode#PARTITION_COUNT}
  *
  * @author Warren Zhu
  */
@@ -34,18 +36,40 @@ class PartitionCountCheckpointManager extends CheckpointManager {
     }
 
     public void onMessage(EventContext context, EventData eventData) {
-        String partitionId = context.getPartitionContext().getPartitionId();
-        this.countByPartition.computeIfAbsent(partitionId, (k) -> new AtomicInteger(0));
-        AtomicInteger count = this.countByPartition.get(partitionId);
-        if (count.incrementAndGet() >= checkpointConfig.getCheckpointCount()) {
-            context.updateCheckpointAsync()
-                    .doOnError(t -> logCheckpointFail(context, eventData, t))
-                    .doOnSuccess(v -> {
-                        logCheckpointSuccess(context, eventData);
-                        count.set(0);
-                    })
-                    .subscribe();
+        this.checkpointEngine.track(context);
+
+        if (isCheckpointDue(context.getPartitionContext().getPartitionId(), 1)) {
+            this.checkpointEngine.checkpoint(context);
+        }
+    }
+
+    @Override
+    public void onMessages(EventBatchContext context) {
+        this.checkpointEngine.track(context);
+
+        if (isCheckpointDue(context.getPartitionContext().getPartitionId(), context.getEvents().size())) {
+            this.checkpointEngine.checkpoint(context);
+        }
+    }
+
+    /**
+     * Reset when requested instead of when written, otherwise every event arriving during the write requests again
+     */
+    private boolean isCheckpointDue(String partitionId, int delta) {
+        AtomicInteger count = this.countByPartition.computeIfAbsent(partitionId, (k) -> new AtomicInteger(0));
+
+        if (count.addAndGet(delta) >= checkpointConfig.getCheckpointCount()) {
+            count.set(0);
+            return true;
         }
+
+        return false;
+    }
+
+    @Override
+    public void onPartitionClose(String partitionId) {
+        this.countByPartition.remove(partitionId);
+        super.onPartitionClose(partitionId);
     }
 
     @Override
@@ -7,6 +7,7 @@
 package com.microsoft.azure.spring.integration.eventhub.checkpoint;
 
 import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
 import com.azure.messaging.eventhubs.models.EventContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
@@ -15,8 +16,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 /**
- * Do checkpoint after each message successfully processed.
- * Effective when {@link CheckpointMode#RECORD}
+ * Do checkpoint after each message successfully processed. Positions arriving while the previous checkpoint is still
+ * being written are coalesced by {@link CheckpointEngine}. Effective when {@link CheckpointMode#RECORD}
  *
  * @author Warren Zhu
  */
@@ -30,10 +31,12 @@ class RecordCheckpointManager extends CheckpointManager {
     }
 
     public void onMessage(EventContext context, EventData eventData) {
-        context.updateCheckpointAsync()
-                .doOnError(t -> logCheckpointFail(context, eventData, t))
-                .doOnSuccess(v -> logCheckpointSuccess(context, eventData))
-                .subscribe();
+        this.checkpointEngine.checkpoint(context);
+    }
+
+    @Override
+    public void onMessages(EventBatchContext context) {
+        this.checkpointEngine.checkpoint(context);
     }
 
     @Override
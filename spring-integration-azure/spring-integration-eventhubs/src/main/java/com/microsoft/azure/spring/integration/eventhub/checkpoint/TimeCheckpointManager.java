@@ -7,6 +7,7 @@
 package com.microsoft.azure.spring.integration.eventhub.checkpoint;
 
 import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
 import com.azure.messaging.eventhubs.models.EventContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
@@ -14,19 +15,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Do checkpoint when the time since last successful checkpoint exceeds {@link CheckpointConfig#getCheckpointInterval()}
- * for one partition. Effective when {@link CheckpointMode#PARTITION_COUNT}
+ * Do checkpoint when the time since last checkpoint request exceeds {@link CheckpointConfig#getCheckpointInterval()}
+ * for one partition. The tail of an idle partition is written by {@link CheckpointEngine}. Effective when
+ * {@link CheckpointMode#TIME}
  *
  * @author Warren Zhu
  */
 class TimeCheckpointManager extends CheckpointManager {
     private static final Logger log = LoggerFactory.getLogger(TimeCheckpointManager.class);
-    private final AtomicReference<LocalDateTime> lastCheckpointTime = new AtomicReference<>(LocalDateTime.now());
+    private final ConcurrentHashMap<String, AtomicLong> lastCheckpointNanosByPartition = new ConcurrentHashMap<>();
 
     TimeCheckpointManager(CheckpointConfig checkpointConfig) {
         super(checkpointConfig);
@@ -35,19 +36,38 @@ class TimeCheckpointManager extends CheckpointManager {
     }
 
     public void onMessage(EventContext context, EventData eventData) {
-        LocalDateTime now = LocalDateTime.now();
-        if (Duration.between(now, this.lastCheckpointTime.get())
-                    .compareTo(this.checkpointConfig.getCheckpointInterval()) > 0) {
-            context.updateCheckpointAsync()
-                    .doOnError(t -> logCheckpointFail(context, eventData, t))
-                    .doOnSuccess(v -> {
-                        logCheckpointSuccess(context, eventData);
-                        lastCheckpointTime.set(now);
-                    })
-                    .subscribe();
+        this.checkpointEngine.track(context);
+
+        if (isCheckpointDue(context.getPartitionContext().getPartitionId())) {
+            this.checkpointEngine.checkpoint(context);
+        }
+    }
+
+    @Override
+    public void onMessages(EventBatchContext context) {
+        this.checkpointEngine.track(context);
+
+        if (isCheckpointDue(context.getPartitionContext().getPartitionId())) {
+            this.checkpointEngine.checkpoint(context);
         }
     }
 
+    private boolean isCheckpointDue(String partitionId) {
+        long now = System.nanoTime();
+        AtomicLong lastCheckpointNanos = this.lastCheckpointNanosByPartition
+                .computeIfAbsent(partitionId, k -> new AtomicLong(now));
+        long last = lastCheckpointNanos.get();
+
+        return now - last >= this.checkpointConfig.getCheckpointInterval().toNanos()
+                && lastCheckpointNanos.compareAndSet(last, now);
+    }
+
+    @Override
+    public void onPartitionClose(String partitionId) {
+        this.lastCheckpointNanosByPartition.remove(partitionId);
+        super.onPartitionClose(partitionId);
+    }
+
     @Override
     protected Logger getLogger() {
         return log;
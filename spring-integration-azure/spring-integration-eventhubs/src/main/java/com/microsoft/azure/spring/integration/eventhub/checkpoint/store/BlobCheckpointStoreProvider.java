@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.core.http.policy.HttpLogOptions;
+import com.azure.messaging.eventhubs.CheckpointStore;
+import com.azure.messaging.eventhubs.checkpointstore.blob.BlobCheckpointStore;
+import com.azure.storage.blob.BlobContainerAsyncClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.microsoft.azure.spring.cloud.context.core.util.Constants.SPRING_EVENT_HUB_APPLICATION_ID;
+
+/**
+ * Provide {@link BlobCheckpointStore} cached per storage container. The container is created if not exists when the
+ * store is first used, instead of blocking when the store is created.
+ */
+public class BlobCheckpointStoreProvider implements CheckpointStoreProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlobCheckpointStoreProvider.class);
+
+    private static final int CONFLICT = 409;
+
+    private final String connectionString;
+
+    private final String containerName;
+
+    private final Map<String, CheckpointStore> storesByContainer = new ConcurrentHashMap<>();
+
+    /**
+     * @param connectionString connection string of the storage account
+     * @param containerName    the container of all event hubs, or {@code null} to use one container per event hub
+     *                         named after the event hub
+     */
+    public BlobCheckpointStoreProvider(String connectionString, String containerName) {
+        Assert.hasText(connectionString, "connectionString can't be null or empty");
+        this.connectionString = connectionString;
+        this.containerName = containerName;
+    }
+
+    @Override
+    public CheckpointStore getOrCreate(String eventHubName) {
+        // We set eventHubName as the container name when we use track1 library, and the EventHubProcessor will create
+        // the container automatically if not exists
+        String container = this.containerName == null ? eventHubName : this.containerName;
+        return this.storesByContainer.computeIfAbsent(container, this::createCheckpointStore);
+    }
+
+    private CheckpointStore createCheckpointStore(String container) {
+        BlobContainerAsyncClient blobClient = new BlobContainerClientBuilder()
+                .connectionString(this.connectionString)
+                .containerName(container)
+                .httpLogOptions(new HttpLogOptions().setApplicationId(SPRING_EVENT_HUB_APPLICATION_ID))
+                .buildAsyncClient();
+
+        return new ProvisionedCheckpointStore(new BlobCheckpointStore(blobClient), createIfNotExists(blobClient,
+                container));
+    }
+
+    private static Mono<Void> createIfNotExists(BlobContainerAsyncClient blobClient, String container) {
+        return blobClient.exists().flatMap(exists -> {
+            if (Boolean.TRUE.equals(exists)) {
+                return Mono.empty();
+            }
+
+            LOGGER.warn("Will create storage blob {}, the auto creation might be deprecated in later versions.",
+                    container);
+
+            // Created concurrently by another processor is fine
+            return blobClient.create().onErrorResume(e -> e instanceof BlobStorageException
+                    && ((BlobStorageException) e).getStatusCode() == CONFLICT, e -> Mono.empty());
+        });
+    }
+}
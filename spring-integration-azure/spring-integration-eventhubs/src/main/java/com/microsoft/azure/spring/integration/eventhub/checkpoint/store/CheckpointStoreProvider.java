@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.CheckpointStore;
+
+/**
+ * Provide the {@link CheckpointStore} holding partition ownership and checkpoints of event processor clients.
+ *
+ * <p>
+ * Creating a store must not block. Any provisioning of the underlying storage should happen asynchronously, at most
+ * once per storage location, when the store is first used.
+ *
+ * @see BlobCheckpointStoreProvider
+ * @see InMemoryCheckpointStore
+ * @see FileCheckpointStore
+ * @see RedisCheckpointStore
+ */
+@FunctionalInterface
+public interface CheckpointStoreProvider {
+
+    /**
+     * @param eventHubName name of the event hub consumed by the event processor client
+     * @return the store used by the event processor client, may be shared between event hubs
+     */
+    CheckpointStore getOrCreate(String eventHubName);
+
+    /**
+     * Use one store for all event hubs
+     */
+    static CheckpointStoreProvider of(CheckpointStore checkpointStore) {
+        return eventHubName -> checkpointStore;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.models.Checkpoint;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * {@link InMemoryCheckpointStore} which also appends every changed checkpoint to a local file, so checkpoints survive
+ * restarts. The file is replayed on creation and compacted once it holds mostly outdated checkpoints.
+ *
+ * <p>
+ * Partition ownership is still kept in memory, so the file should only be used by one process, e.g. on an edge
+ * device or a developer machine.
+ */
+public class FileCheckpointStore extends InMemoryCheckpointStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCheckpointStore.class);
+
+    private static final String SEPARATOR = "\t";
+
+    private static final int MIN_LINES_TO_COMPACT = 1000;
+
+    private final Path file;
+
+    private int lineCount;
+
+    public FileCheckpointStore(@NonNull Path file) {
+        Assert.notNull(file, "file can't be null");
+        this.file = file;
+        load();
+    }
+
+    @Override
+    public Mono<Void> updateCheckpoint(Checkpoint checkpoint) {
+        return Mono.<Void>fromRunnable(() -> write(checkpoint)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private synchronized void write(Checkpoint checkpoint) {
+        if (!putCheckpoint(checkpoint)) {
+            return;
+        }
+
+        try {
+            if (this.lineCount >= Math.max(MIN_LINES_TO_COMPACT, 4 * getCheckpoints().size())) {
+                compact();
+            } else {
+                Files.write(this.file, (toLine(checkpoint) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                this.lineCount++;
+            }
+        } catch (IOException e) {
+            throw new EventHubRuntimeException("Failed to write checkpoint to " + this.file, e);
+        }
+    }
+
+    /**
+     * Rewrite the file with only the latest checkpoint of each partition
+     */
+    private void compact() throws IOException {
+        Path temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        getCheckpoints().values().forEach(c -> content.append(toLine(c)).append(System.lineSeparator()));
+
+        Files.write(temp, content.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.lineCount = getCheckpoints().size();
+    }
+
+    private synchronized void load() {
+        if (!Files.exists(this.file)) {
+            return;
+        }
+
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(this.file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new EventHubRuntimeException("Failed to read checkpoints from " + this.file, e);
+        }
+
+        boolean malformed = false;
+
+        for (String line : lines) {
+            Checkpoint checkpoint = fromLine(line);
+
+            if (checkpoint == null) {
+                // Last line may be partially written if the process crashed
+                LOGGER.warn("Skipped malformed checkpoint line in {}: {}", this.file, line);
+                malformed = true;
+            } else {
+                putCheckpoint(checkpoint);
+            }
+        }
+
+        this.lineCount = lines.size();
+
+        if (malformed) {
+            // Don't append after a partial line
+            try {
+                compact();
+            } catch (IOException e) {
+                throw new EventHubRuntimeException("Failed to compact checkpoints of " + this.file, e);
+            }
+        }
+    }
+
+    private static String toLine(Checkpoint checkpoint) {
+        return String.join(SEPARATOR, checkpoint.getFullyQualifiedNamespace(), checkpoint.getEventHubName(),
+                checkpoint.getConsumerGroup(), checkpoint.getPartitionId(), toString(checkpoint.getOffset()),
+                toString(checkpoint.getSequenceNumber()));
+    }
+
+    private static Checkpoint fromLine(String line) {
+        String[] fields = line.split(SEPARATOR, -1);
+
+        if (fields.length != 6) {
+            return null;
+        }
+
+        try {
+            return new Checkpoint().setFullyQualifiedNamespace(fields[0]).setEventHubName(fields[1])
+                                   .setConsumerGroup(fields[2]).setPartitionId(fields[3])
+                                   .setOffset(toLong(fields[4])).setSequenceNumber(toLong(fields[5]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String toString(Long value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static Long toLong(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.CheckpointStore;
+import com.azure.messaging.eventhubs.models.Checkpoint;
+import com.azure.messaging.eventhubs.models.PartitionOwnership;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link CheckpointStore} keeping partition ownership and checkpoints in memory. Only event processor clients of the
+ * same JVM share ownership, and checkpoints are lost on restart, so it's meant for development, tests and single
+ * instance deployments.
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<PartitionKey, PartitionOwnership> ownerships = new ConcurrentHashMap<>();
+
+    private final Map<PartitionKey, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public Flux<PartitionOwnership> listOwnership(String fullyQualifiedNamespace, String eventHubName,
+                                                  String consumerGroup) {
+        return Flux.defer(() -> Flux.fromIterable(this.ownerships.entrySet()))
+                   .filter(e -> e.getKey().belongsTo(fullyQualifiedNamespace, eventHubName, consumerGroup))
+                   .map(Map.Entry::getValue);
+    }
+
+    /**
+     * A claim succeeds if its eTag matches the current one, or if both are {@code null} for a partition never owned
+     */
+    @Override
+    public Flux<PartitionOwnership> claimOwnership(List<PartitionOwnership> requestedPartitionOwnerships) {
+        return Flux.defer(() -> Flux.fromIterable(requestedPartitionOwnerships))
+                   .flatMap(requested -> Mono.justOrEmpty(claim(requested)));
+    }
+
+    private PartitionOwnership claim(PartitionOwnership requested) {
+        AtomicReference<PartitionOwnership> claimed = new AtomicReference<>();
+
+        this.ownerships.compute(PartitionKey.of(requested), (key, current) -> {
+            String currentETag = current == null ? null : current.getETag();
+
+            if (!Objects.equals(currentETag, requested.getETag())) {
+                return current;
+            }
+
+            PartitionOwnership next = new PartitionOwnership()
+                    .setFullyQualifiedNamespace(requested.getFullyQualifiedNamespace())
+                    .setEventHubName(requested.getEventHubName())
+                    .setConsumerGroup(requested.getConsumerGroup())
+                    .setPartitionId(requested.getPartitionId())
+                    .setOwnerId(requested.getOwnerId())
+                    .setLastModifiedTime(System.currentTimeMillis())
+                    .setETag(UUID.randomUUID().toString());
+            claimed.set(next);
+            return next;
+        });
+
+        return claimed.get();
+    }
+
+    @Override
+    public Flux<Checkpoint> listCheckpoints(String fullyQualifiedNamespace, String eventHubName,
+                                            String consumerGroup) {
+        return Flux.defer(() -> Flux.fromIterable(this.checkpoints.entrySet()))
+                   .filter(e -> e.getKey().belongsTo(fullyQualifiedNamespace, eventHubName, consumerGroup))
+                   .map(Map.Entry::getValue);
+    }
+
+    @Override
+    public Mono<Void> updateCheckpoint(Checkpoint checkpoint) {
+        return Mono.fromRunnable(() -> putCheckpoint(checkpoint));
+    }
+
+    /**
+     * Store the checkpoint, returning {@code true} if it changed the stored one
+     */
+    protected boolean putCheckpoint(Checkpoint checkpoint) {
+        Assert.notNull(checkpoint, "checkpoint can't be null");
+        Assert.isTrue(checkpoint.getSequenceNumber() != null || checkpoint.getOffset() != null,
+                "Both sequence number and offset can't be null");
+
+        Checkpoint previous = this.checkpoints.put(PartitionKey.of(checkpoint), checkpoint);
+        return previous == null || !Objects.equals(previous.getSequenceNumber(), checkpoint.getSequenceNumber())
+                || !Objects.equals(previous.getOffset(), checkpoint.getOffset());
+    }
+
+    protected Map<PartitionKey, Checkpoint> getCheckpoints() {
+        return this.checkpoints;
+    }
+
+    /**
+     * Identity of a partition within a consumer group
+     */
+    protected static final class PartitionKey {
+        private final String fullyQualifiedNamespace;
+        private final String eventHubName;
+        private final String consumerGroup;
+        private final String partitionId;
+
+        PartitionKey(String fullyQualifiedNamespace, String eventHubName, String consumerGroup, String partitionId) {
+            this.fullyQualifiedNamespace = fullyQualifiedNamespace;
+            this.eventHubName = eventHubName;
+            this.consumerGroup = consumerGroup;
+            this.partitionId = partitionId;
+        }
+
+        static PartitionKey of(PartitionOwnership ownership) {
+            return new PartitionKey(ownership.getFullyQualifiedNamespace(), ownership.getEventHubName(),
+                    ownership.getConsumerGroup(), ownership.getPartitionId());
+        }
+
+        static PartitionKey of(Checkpoint checkpoint) {
+            return new PartitionKey(checkpoint.getFullyQualifiedNamespace(), checkpoint.getEventHubName(),
+                    checkpoint.getConsumerGroup(), checkpoint.getPartitionId());
+        }
+
+        boolean belongsTo(String fullyQualifiedNamespace, String eventHubName, String consumerGroup) {
+            return Objects.equals(this.fullyQualifiedNamespace, fullyQualifiedNamespace)
+                    && Objects.equals(this.eventHubName, eventHubName)
+                    && Objects.equals(this.consumerGroup, consumerGroup);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PartitionKey that = (PartitionKey) o;
+            return Objects.equals(fullyQualifiedNamespace, that.fullyQualifiedNamespace)
+                    && Objects.equals(eventHubName, that.eventHubName)
+                    && Objects.equals(consumerGroup, that.consumerGroup)
+                    && Objects.equals(partitionId, that.partitionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fullyQualifiedNamespace, eventHubName, consumerGroup, partitionId);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.CheckpointStore;
+import com.azure.messaging.eventhubs.models.Checkpoint;
+import com.azure.messaging.eventhubs.models.PartitionOwnership;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Run the provisioning of the underlying storage once before the first operation of the delegate. A failed
+ * provisioning is retried by the next operation.
+ */
+class ProvisionedCheckpointStore implements CheckpointStore {
+
+    private final CheckpointStore delegate;
+
+    private final Mono<Void> provisioning;
+
+    private final AtomicReference<Mono<Void>> provisioned = new AtomicReference<>();
+
+    ProvisionedCheckpointStore(CheckpointStore delegate, Mono<Void> provisioning) {
+        this.delegate = delegate;
+        this.provisioning = provisioning;
+    }
+
+    @Override
+    public Flux<PartitionOwnership> listOwnership(String fullyQualifiedNamespace, String eventHubName,
+                                                  String consumerGroup) {
+        return ensureProvisioned().thenMany(Flux.defer(() -> this.delegate.listOwnership(fullyQualifiedNamespace,
+                eventHubName, consumerGroup)));
+    }
+
+    @Override
+    public Flux<PartitionOwnership> claimOwnership(List<PartitionOwnership> requestedPartitionOwnerships) {
+        return ensureProvisioned().thenMany(Flux.defer(() -> this.delegate.claimOwnership(
+                requestedPartitionOwnerships)));
+    }
+
+    @Override
+    public Flux<Checkpoint> listCheckpoints(String fullyQualifiedNamespace, String eventHubName,
+                                            String consumerGroup) {
+        return ensureProvisioned().thenMany(Flux.defer(() -> this.delegate.listCheckpoints(fullyQualifiedNamespace,
+                eventHubName, consumerGroup)));
+    }
+
+    @Override
+    public Mono<Void> updateCheckpoint(Checkpoint checkpoint) {
+        return ensureProvisioned().then(Mono.defer(() -> this.delegate.updateCheckpoint(checkpoint)));
+    }
+
+    private Mono<Void> ensureProvisioned() {
+        Mono<Void> current = this.provisioned.get();
+
+        if (current == null) {
+            Mono<Void> attempt = this.provisioning.cache();
+            current = this.provisioned.compareAndSet(null, attempt) ? attempt : this.provisioned.get();
+
+            if (current == null) {
+                current = attempt;
+            }
+        }
+
+        Mono<Void> cached = current;
+        return cached.doOnError(e -> this.provisioned.compareAndSet(cached, null));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.CheckpointStore;
+import com.azure.messaging.eventhubs.models.Checkpoint;
+import com.azure.messaging.eventhubs.models.PartitionOwnership;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link CheckpointStore} backed by Redis, through the optional {@code spring-data-redis} dependency.
+ *
+ * <p>
+ * Ownership and checkpoints of one consumer group are kept in two hashes keyed by partition id. Ownership claims are
+ * compare-and-set on the eTag through a Lua script, so event processor clients of different processes can share
+ * partitions safely.
+ */
+public class RedisCheckpointStore implements CheckpointStore {
+
+    public static final String DEFAULT_KEY_PREFIX = "eventhub";
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * KEYS[1]: ownership hash, ARGV[1]: partition id, ARGV[2]: expected eTag or empty, ARGV[3]: new value
+     */
+    private static final RedisScript<String> CLAIM_SCRIPT = RedisScript.of(
+            "local current = redis.call('HGET', KEYS[1], ARGV[1]) "
+                    + "local etag = '' "
+                    + "if current then etag = string.match(current, '^([^|]*)|') end "
+                    + "if etag ~= ARGV[2] then return false end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) "
+                    + "return ARGV[3]", String.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    public RedisCheckpointStore(@NonNull ReactiveStringRedisTemplate redisTemplate) {
+        this(redisTemplate, DEFAULT_KEY_PREFIX);
+    }
+
+    public RedisCheckpointStore(@NonNull ReactiveStringRedisTemplate redisTemplate, @NonNull String keyPrefix) {
+        Assert.notNull(redisTemplate, "redisTemplate can't be null");
+        Assert.hasText(keyPrefix, "keyPrefix can't be null or empty");
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Flux<PartitionOwnership> listOwnership(String fullyQualifiedNamespace, String eventHubName,
+                                                  String consumerGroup) {
+        String key = key("ownership", fullyQualifiedNamespace, eventHubName, consumerGroup);
+        return this.redisTemplate.<String, String>opsForHash().entries(key)
+                                 .map(e -> toOwnership(fullyQualifiedNamespace, eventHubName, consumerGroup,
+                                         e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public Flux<PartitionOwnership> claimOwnership(List<PartitionOwnership> requestedPartitionOwnerships) {
+        return Flux.fromIterable(requestedPartitionOwnerships).flatMap(this::claim);
+    }
+
+    private Flux<PartitionOwnership> claim(PartitionOwnership requested) {
+        String key = key("ownership", requested.getFullyQualifiedNamespace(), requested.getEventHubName(),
+                requested.getConsumerGroup());
+        String expectedETag = requested.getETag() == null ? "" : requested.getETag();
+        String value = String.join(SEPARATOR, UUID.randomUUID().toString(),
+                String.valueOf(System.currentTimeMillis()), requested.getOwnerId());
+
+        return this.redisTemplate.execute(CLAIM_SCRIPT, Collections.singletonList(key),
+                Arrays.asList(requested.getPartitionId(), expectedETag, value))
+                                 .filter(claimed -> !claimed.isEmpty())
+                                 .map(claimed -> toOwnership(requested.getFullyQualifiedNamespace(),
+                                         requested.getEventHubName(), requested.getConsumerGroup(),
+                                         requested.getPartitionId(), claimed));
+    }
+
+    @Override
+    public Flux<Checkpoint> listCheckpoints(String fullyQualifiedNamespace, String eventHubName,
+                                            String consumerGroup) {
+        String key = key("checkpoint", fullyQualifiedNamespace, eventHubName, consumerGroup);
+        return this.redisTemplate.<String, String>opsForHash().entries(key)
+                                 .map(e -> toCheckpoint(fullyQualifiedNamespace, eventHubName, consumerGroup,
+                                         e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public Mono<Void> updateCheckpoint(Checkpoint checkpoint) {
+        Assert.notNull(checkpoint, "checkpoint can't be null");
+        String key = key("checkpoint", checkpoint.getFullyQualifiedNamespace(), checkpoint.getEventHubName(),
+                checkpoint.getConsumerGroup());
+        String value = toString(checkpoint.getOffset()) + SEPARATOR + toString(checkpoint.getSequenceNumber());
+
+        return this.redisTemplate.<String, String>opsForHash().put(key, checkpoint.getPartitionId(), value).then();
+    }
+
+    private String key(String type, String fullyQualifiedNamespace, String eventHubName, String consumerGroup) {
+        return String.join(":", this.keyPrefix, type, fullyQualifiedNamespace, eventHubName, consumerGroup);
+    }
+
+    /**
+     * @param value eTag, last modified time and owner id joined by {@value SEPARATOR}
+     */
+    private static PartitionOwnership toOwnership(String fullyQualifiedNamespace, String eventHubName,
+                                                  String consumerGroup, String partitionId, String value) {
+        String[] fields = value.split("\\|", 3);
+
+        return new PartitionOwnership().setFullyQualifiedNamespace(fullyQualifiedNamespace)
+                                       .setEventHubName(eventHubName)
+                                       .setConsumerGroup(consumerGroup)
+                                       .setPartitionId(partitionId)
+                                       .setETag(fields[0])
+                                       .setLastModifiedTime(Long.valueOf(fields[1]))
+                                       .setOwnerId(fields.length > 2 ? fields[2] : null);
+    }
+
+    /**
+     * @param value offset and sequence number joined by {@value SEPARATOR}
+     */
+    private static Checkpoint toCheckpoint(String fullyQualifiedNamespace, String eventHubName, String consumerGroup,
+                                           String partitionId, String value) {
+        String[] fields = value.split("\\|", -1);
+
+        return new Checkpoint().setFullyQualifiedNamespace(fullyQualifiedNamespace)
+                               .setEventHubName(eventHubName)
+                               .setConsumerGroup(consumerGroup)
+                               .setPartitionId(partitionId)
+                               .setOffset(toLong(fields[0]))
+                               .setSequenceNumber(fields.length > 1 ? toLong(fields[1]) : null);
+    }
+
+    private static String toString(Long value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static Long toLong(String value) {
+        return value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
@@ -7,13 +7,11 @@
 package com.microsoft.azure.spring.integration.eventhub.converter;
 
 import com.azure.messaging.eventhubs.EventData;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.converter.AbstractAzureMessageConverter;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
-import org.springframework.messaging.support.NativeMessageHeaderAccessor;
-import org.springframework.util.LinkedMultiValueMap;
 
-import java.nio.charset.Charset;
 import java.util.Map;
 
 /**
@@ -28,9 +26,20 @@ public class EventHubMessageConverter extends AbstractAzureMessageConverter<Even
         return azureMessage.getBody();
     }
 
+    /**
+     * Decode the body directly instead of going through the copy made by {@link EventData#getBody()}
+     */
+    @Override
+    protected String getPayloadAsString(EventData azureMessage) {
+        return azureMessage.getBodyAsString();
+    }
+
+    /**
+     * Encoded in UTF-8
+     */
     @Override
     protected EventData fromString(String payload) {
-        return new EventData(payload.getBytes(Charset.defaultCharset()));
+        return new EventData(payload);
     }
 
     @Override
@@ -41,27 +50,20 @@ public class EventHubMessageConverter extends AbstractAzureMessageConverter<Even
     @Override
     protected void setCustomHeaders(MessageHeaders headers, EventData azureMessage) {
         super.setCustomHeaders(headers, azureMessage);
-        headers.forEach((key, value) -> {
-            if (key.equals(NativeMessageHeaderAccessor.NATIVE_HEADERS)
-                    && value instanceof LinkedMultiValueMap) {
-                azureMessage.getProperties().put(key, toJson(value));
-            } else {
-                azureMessage.getProperties().put(key, value.toString());
-            }
-        });
+        getHeaderMapper().fromHeaders(headers, azureMessage.getProperties());
     }
 
     @Override
-    protected Map<String, Object> buildCustomHeaders(EventData azureMessage) {
-        Map<String, Object> headers = super.buildCustomHeaders(azureMessage);
-        Map<String, Object> properties = azureMessage.getProperties();
-        if (properties.containsKey(NativeMessageHeaderAccessor.NATIVE_HEADERS)
-                && isValidJson(properties.get(NativeMessageHeaderAccessor.NATIVE_HEADERS))) {
-            String nativeHeader = (String) properties.remove(NativeMessageHeaderAccessor.NATIVE_HEADERS);
-            properties.put(NativeMessageHeaderAccessor.NATIVE_HEADERS,
-                    readValue(nativeHeader, LinkedMultiValueMap.class));
+    protected void setContentEncoding(EventData azureMessage, String contentEncoding) {
+        if (contentEncoding == null) {
+            azureMessage.getProperties().remove(AzureHeaders.CONTENT_ENCODING);
+        } else {
+            azureMessage.getProperties().put(AzureHeaders.CONTENT_ENCODING, contentEncoding);
         }
-        headers.putAll(azureMessage.getProperties());
-        return headers;
+    }
+
+    @Override
+    protected Map<String, ?> getNativeProperties(EventData azureMessage) {
+        return azureMessage.getProperties();
     }
 }
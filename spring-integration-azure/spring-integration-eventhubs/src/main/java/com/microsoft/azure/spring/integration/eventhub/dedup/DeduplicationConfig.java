@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dedup;
+
+import org.springframework.util.Assert;
+
+/**
+ * Deduplication related config used by {@link EventDeduplicator}
+ */
+public class DeduplicationConfig {
+
+    public static final int DEFAULT_WINDOW_SIZE = 4096;
+
+    /**
+     * The number of recently processed message ids remembered per partition
+     */
+    private final int windowSize;
+
+    /**
+     * The application property holding the message id set by the producer. {@code null} means only replays detected
+     * by sequence number are dropped
+     */
+    private final String messageIdProperty;
+
+    public DeduplicationConfig(int windowSize, String messageIdProperty) {
+        Assert.isTrue(windowSize > 0, "windowSize should be positive");
+        this.windowSize = windowSize;
+        this.messageIdProperty = messageIdProperty;
+    }
+
+    public static DeduplicationConfigBuilder builder() {
+        return new DeduplicationConfigBuilder();
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public String getMessageIdProperty() {
+        return messageIdProperty;
+    }
+
+    @Override
+    public String toString() {
+        return "DeduplicationConfig{" + "windowSize=" + windowSize + ", messageIdProperty='" + messageIdProperty
+                + '\'' + '}';
+    }
+
+    public static class DeduplicationConfigBuilder {
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+        private String messageIdProperty;
+
+        public DeduplicationConfigBuilder windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        public DeduplicationConfigBuilder messageIdProperty(String messageIdProperty) {
+            this.messageIdProperty = messageIdProperty;
+            return this;
+        }
+
+        public DeduplicationConfig build() {
+            return new DeduplicationConfig(windowSize, messageIdProperty);
+        }
+    }
+}
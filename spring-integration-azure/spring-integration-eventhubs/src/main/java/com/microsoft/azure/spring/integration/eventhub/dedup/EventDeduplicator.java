@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dedup;
+
+import com.azure.messaging.eventhubs.EventData;
+import org.springframework.lang.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detect events already processed in this process, so replays after a partition is handed back or a producer retry
+ * can be dropped before conversion.
+ *
+ * <p>
+ * Per partition, an event is a duplicate if its sequence number isn't above the highest processed one, or if its
+ * message id, see {@link DeduplicationConfig#getMessageIdProperty()}, is among the recently processed ones. Message
+ * ids are remembered as 64-bit hashes. State is kept when a partition is closed, since the partition often comes back
+ * to the same processor during rebalancing, but it isn't shared with other processes or kept across restarts.
+ */
+public class EventDeduplicator {
+
+    private final DeduplicationConfig deduplicationConfig;
+
+    private final Map<String, PartitionState> statesByPartition = new ConcurrentHashMap<>();
+
+    private final AtomicLong duplicateCount = new AtomicLong();
+
+    public EventDeduplicator(@NonNull DeduplicationConfig deduplicationConfig) {
+        this.deduplicationConfig = deduplicationConfig;
+    }
+
+    /**
+     * Check an event before it's handled. Duplicates are counted in {@link #getDuplicateCount()}.
+     */
+    public boolean isDuplicate(String partitionId, EventData event) {
+        PartitionState state = this.statesByPartition.get(partitionId);
+        if (state == null) {
+            return false;
+        }
+
+        boolean duplicate;
+        synchronized (state) {
+            duplicate = isProcessed(state, event);
+        }
+
+        if (duplicate) {
+            this.duplicateCount.incrementAndGet();
+        }
+
+        return duplicate;
+    }
+
+    /**
+     * Remember an event once it has been handled, events of one partition are expected in sequence order
+     */
+    public void onProcessed(String partitionId, EventData event) {
+        PartitionState state = this.statesByPartition.computeIfAbsent(partitionId, k -> new PartitionState(
+                this.deduplicationConfig.getMessageIdProperty() == null ? null
+                        : new LongWindow(this.deduplicationConfig.getWindowSize())));
+
+        synchronized (state) {
+            Long sequenceNumber = event.getSequenceNumber();
+            if (sequenceNumber != null && sequenceNumber > state.highestSequenceNumber) {
+                state.highestSequenceNumber = sequenceNumber;
+            }
+
+            if (state.recentIds != null && hasMessageId(event)) {
+                state.recentIds.add(hashMessageId(event));
+            }
+        }
+    }
+
+    private boolean isProcessed(PartitionState state, EventData event) {
+        Long sequenceNumber = event.getSequenceNumber();
+        if (sequenceNumber != null && sequenceNumber <= state.highestSequenceNumber) {
+            return true;
+        }
+
+        return state.recentIds != null && hasMessageId(event) && state.recentIds.contains(hashMessageId(event));
+    }
+
+    private boolean hasMessageId(EventData event) {
+        return event.getProperties().get(this.deduplicationConfig.getMessageIdProperty()) != null;
+    }
+
+    /**
+     * 64-bit FNV-1a of the message id as text
+     */
+    private long hashMessageId(EventData event) {
+        String messageId = event.getProperties().get(this.deduplicationConfig.getMessageIdProperty()).toString();
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < messageId.length(); i++) {
+            hash ^= messageId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return how many events have been detected as duplicates
+     */
+    public long getDuplicateCount() {
+        return this.duplicateCount.get();
+    }
+
+    public DeduplicationConfig getDeduplicationConfig() {
+        return deduplicationConfig;
+    }
+
+    private static final class PartitionState {
+        private final LongWindow recentIds;
+        private long highestSequenceNumber = -1;
+
+        PartitionState(LongWindow recentIds) {
+            this.recentIds = recentIds;
+        }
+    }
+}
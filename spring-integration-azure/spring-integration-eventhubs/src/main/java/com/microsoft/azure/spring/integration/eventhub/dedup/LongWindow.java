@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dedup;
+
+/**
+ * The last {@code capacity} distinct {@code long} values added, without boxing. Values are kept in insertion order in
+ * a ring, and indexed by an open addressing table with linear probing. Once full, adding a value evicts the oldest.
+ *
+ * <p>
+ * Not thread safe.
+ */
+final class LongWindow {
+
+    private final long[] ring;
+
+    /**
+     * Slots hold index in {@link #ring} plus one, zero means empty
+     */
+    private final int[] table;
+
+    private final int mask;
+
+    private int head;
+
+    private int size;
+
+    LongWindow(int capacity) {
+        this.ring = new long[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    boolean contains(long value) {
+        return findSlot(value) >= 0;
+    }
+
+    /**
+     * @return {@code false} if the value is already in the window
+     */
+    boolean add(long value) {
+        if (contains(value)) {
+            return false;
+        }
+
+        if (this.size == this.ring.length) {
+            removeFromTable(this.ring[this.head]);
+        } else {
+            this.size++;
+        }
+
+        this.ring[this.head] = value;
+        insertIntoTable(value, this.head);
+        this.head = (this.head + 1) % this.ring.length;
+        return true;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private int findSlot(long value) {
+        for (int slot = indexOf(value); this.table[slot] != 0; slot = (slot + 1) & this.mask) {
+            if (this.ring[this.table[slot] - 1] == value) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    private void insertIntoTable(long value, int ringIndex) {
+        int slot = indexOf(value);
+        while (this.table[slot] != 0) {
+            slot = (slot + 1) & this.mask;
+        }
+        this.table[slot] = ringIndex + 1;
+    }
+
+    /**
+     * Backward shift deletion, so that probing never needs tombstones
+     */
+    private void removeFromTable(long value) {
+        int slot = findSlot(value);
+        if (slot < 0) {
+            return;
+        }
+
+        int next = (slot + 1) & this.mask;
+        while (this.table[next] != 0) {
+            int home = indexOf(this.ring[this.table[next] - 1]);
+            // Move the entry back if its home slot isn't within (slot, next]
+            if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+                this.table[slot] = this.table[next];
+                slot = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+
+        this.table[slot] = 0;
+    }
+
+    private int indexOf(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dispatch;
+
+import com.azure.messaging.eventhubs.EventData;
+import org.springframework.util.Assert;
+
+import java.util.function.Function;
+
+/**
+ * Dispatch related config used by {@link KeyOrderedEventDispatcher}
+ */
+public class DispatchConfig {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_PARTITION = 1000;
+
+    /**
+     * Events with the same partition key are processed in order. Events without partition key have no ordering.
+     */
+    public static final Function<EventData, Object> PARTITION_KEY_EXTRACTOR = EventData::getPartitionKey;
+
+    /**
+     * The number of worker threads events of one processor are dispatched to
+     */
+    private final int concurrency;
+
+    /**
+     * The max number of dispatched but not yet processed events of one partition. The partition stops receiving
+     * once exceeded
+     */
+    private final int maxInFlightPerPartition;
+
+    /**
+     * Extract the ordering key of an event. Events with the same key are processed in order, events with
+     * {@code null} key have no ordering
+     */
+    private final Function<EventData, Object> keyExtractor;
+
+    public DispatchConfig(int concurrency, int maxInFlightPerPartition, Function<EventData, Object> keyExtractor) {
+        Assert.isTrue(concurrency > 0, "concurrency should be positive");
+        Assert.isTrue(maxInFlightPerPartition > 0, "maxInFlightPerPartition should be positive");
+        Assert.notNull(keyExtractor, "keyExtractor can't be null");
+        this.concurrency = concurrency;
+        this.maxInFlightPerPartition = maxInFlightPerPartition;
+        this.keyExtractor = keyExtractor;
+    }
+
+    public static DispatchConfigBuilder builder() {
+        return new DispatchConfigBuilder();
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getMaxInFlightPerPartition() {
+        return maxInFlightPerPartition;
+    }
+
+    public Function<EventData, Object> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchConfig{" + "concurrency=" + concurrency + ", maxInFlightPerPartition="
+                + maxInFlightPerPartition + '}';
+    }
+
+    public static class DispatchConfigBuilder {
+        private int concurrency = Runtime.getRuntime().availableProcessors();
+        private int maxInFlightPerPartition = DEFAULT_MAX_IN_FLIGHT_PER_PARTITION;
+        private Function<EventData, Object> keyExtractor = PARTITION_KEY_EXTRACTOR;
+
+        public DispatchConfigBuilder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public DispatchConfigBuilder maxInFlightPerPartition(int maxInFlightPerPartition) {
+            this.maxInFlightPerPartition = maxInFlightPerPartition;
+            return this;
+        }
+
+        public DispatchConfigBuilder keyExtractor(Function<EventData, Object> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            return this;
+        }
+
+        public DispatchConfig build() {
+            return new DispatchConfig(concurrency, maxInFlightPerPartition, keyExtractor);
+        }
+    }
+}
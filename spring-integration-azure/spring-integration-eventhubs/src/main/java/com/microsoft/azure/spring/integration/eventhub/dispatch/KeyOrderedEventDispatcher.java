@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dispatch;
+
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fan events of one partition out to a bounded number of worker threads while keeping events with the same key in
+ * order.
+ *
+ * <p>
+ * Each key is always handled by the same single threaded lane. Completed events are reported in sequence order,
+ * only once all earlier events of the partition have completed, so checkpoints never skip an unprocessed event.
+ * Once an event fails, no later event of the partition is reported until the partition is closed, so the failed
+ * event is received again by the next owner of the partition. Dispatching blocks the partition once
+ * {@link DispatchConfig#getMaxInFlightPerPartition()} events are in flight.
+ */
+public class KeyOrderedEventDispatcher implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyOrderedEventDispatcher.class);
+
+    private final DispatchConfig dispatchConfig;
+
+    private final ExecutorService[] lanes;
+
+    private final AtomicInteger nextUnkeyedLane = new AtomicInteger();
+
+    private final Map<String, PartitionTracker> trackersByPartition = new ConcurrentHashMap<>();
+
+    public KeyOrderedEventDispatcher(@NonNull DispatchConfig dispatchConfig) {
+        this.dispatchConfig = dispatchConfig;
+        this.lanes = new ExecutorService[dispatchConfig.getConcurrency()];
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("eventhub-dispatcher-%d").build();
+        for (int i = 0; i < this.lanes.length; i++) {
+            this.lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+    }
+
+    /**
+     * Run {@code handler} on a worker thread and call {@code onCompleted} with each event whose earlier events in
+     * the partition have all completed successfully, in sequence order.
+     */
+    public void dispatch(EventContext context, Runnable handler, Consumer<EventContext> onCompleted) {
+        String partitionId = context.getPartitionContext().getPartitionId();
+        PartitionTracker tracker = this.trackersByPartition.computeIfAbsent(partitionId,
+                k -> new PartitionTracker(this.dispatchConfig.getMaxInFlightPerPartition()));
+
+        try {
+            tracker.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventHubRuntimeException("Interrupted while waiting to dispatch event", e);
+        }
+
+        Entry entry = tracker.add(context);
+
+        laneOf(context).execute(() -> {
+            boolean succeeded = false;
+            try {
+                handler.run();
+                succeeded = true;
+            } catch (Exception e) {
+                LOGGER.error("Error occurred when handling event on partition: {}", partitionId, e);
+            } finally {
+                tracker.permits.release();
+                tracker.complete(entry, succeeded, onCompleted);
+            }
+        });
+    }
+
+    /**
+     * Forget a partition which is no longer owned, completions of its in-flight events are no longer reported
+     */
+    public void onPartitionClose(String partitionId) {
+        PartitionTracker tracker = this.trackersByPartition.remove(partitionId);
+
+        if (tracker != null) {
+            tracker.clear();
+        }
+    }
+
+    private ExecutorService laneOf(EventContext context) {
+        Object key = this.dispatchConfig.getKeyExtractor().apply(context.getEventData());
+        int index = key == null ? this.nextUnkeyedLane.getAndIncrement() : key.hashCode();
+        return this.lanes[Math.floorMod(index, this.lanes.length)];
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService lane : this.lanes) {
+            lane.shutdown();
+        }
+    }
+
+    public DispatchConfig getDispatchConfig() {
+        return dispatchConfig;
+    }
+
+    private static final class Entry {
+        private final EventContext context;
+        private boolean completed;
+        private boolean failed;
+
+        Entry(EventContext context) {
+            this.context = context;
+        }
+    }
+
+    private static final class PartitionTracker {
+        private final Semaphore permits;
+        private final Deque<Entry> inFlight = new ArrayDeque<>();
+        private boolean cleared;
+        private boolean held;
+
+        PartitionTracker(int maxInFlight) {
+            this.permits = new Semaphore(maxInFlight);
+        }
+
+        synchronized Entry add(EventContext context) {
+            Entry entry = new Entry(context);
+
+            // Nothing after a failed event is reported, so there's no need to track it
+            if (!this.held) {
+                this.inFlight.addLast(entry);
+            }
+            return entry;
+        }
+
+        /**
+         * Report events completed in sequence order after this one completes. Reported while holding the lock so
+         * that reports from different lanes don't interleave out of order. Reporting stops for good at the first
+         * failed event.
+         */
+        synchronized void complete(Entry entry, boolean succeeded, Consumer<EventContext> onCompleted) {
+            entry.completed = true;
+            entry.failed = !succeeded;
+
+            if (this.cleared || this.held) {
+                return;
+            }
+
+            while (!this.inFlight.isEmpty() && this.inFlight.peekFirst().completed) {
+                Entry first = this.inFlight.pollFirst();
+
+                if (first.failed) {
+                    LOGGER.warn("Checkpoint of partition: {} held before failed event with sequence number: {}",
+                            first.context.getPartitionContext().getPartitionId(),
+                            first.context.getEventData().getSequenceNumber());
+                    this.held = true;
+                    this.inFlight.clear();
+                    return;
+                }
+
+                onCompleted.accept(first.context);
+            }
+        }
+
+        synchronized void clear() {
+            this.cleared = true;
+            this.inFlight.clear();
+        }
+    }
+}
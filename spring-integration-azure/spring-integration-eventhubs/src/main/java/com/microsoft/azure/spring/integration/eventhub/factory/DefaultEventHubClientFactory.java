@@ -6,26 +6,31 @@
 
 package com.microsoft.azure.spring.integration.eventhub.factory;
 
-import com.azure.core.http.policy.HttpLogOptions;
 import com.azure.messaging.eventhubs.EventHubClientBuilder;
 import com.azure.messaging.eventhubs.EventHubConsumerAsyncClient;
 import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
 import com.azure.messaging.eventhubs.EventProcessorClient;
 import com.azure.messaging.eventhubs.EventProcessorClientBuilder;
-import com.azure.messaging.eventhubs.checkpointstore.blob.BlobCheckpointStore;
-import com.azure.storage.blob.BlobContainerAsyncClient;
-import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.messaging.eventhubs.models.EventPosition;
 import com.microsoft.azure.spring.cloud.context.core.util.Memoizer;
 import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.batch.BatchConsumerConfig;
+import com.microsoft.azure.spring.integration.eventhub.checkpoint.store.BlobCheckpointStoreProvider;
+import com.microsoft.azure.spring.integration.eventhub.checkpoint.store.CheckpointStoreProvider;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubProcessor;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,11 +38,15 @@ import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-import static com.microsoft.azure.spring.cloud.context.core.util.Constants.SPRING_EVENT_HUB_APPLICATION_ID;
-
 /**
  * Default implementation of {@link EventHubClientFactory}.
  *
+ * <p>
+ * Producer clients are pooled per event hub, see {@link #setProducerPoolConfig(ProducerPoolConfig)}. With
+ * {@link #setShareConnection(boolean)} enabled, consumer clients and the producer client of an event hub share one
+ * AMQP connection. A shared connection of the event hub client library is bound to the event hub it was opened for,
+ * so shared connections are keyed by connection string, which identifies namespace and credentials, and event hub.
+ *
  * @author Warren Zhu
  * @author Xiaolu Dai
  */
@@ -45,75 +54,180 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultEventHubClientFactory.class);
 
+    private static final Duration PARTITION_IDS_TIMEOUT = Duration.ofMinutes(1);
+
     // Maps used for cache and clean up clients
     // (eventHubName, consumerGroup) -> consumerClient
     private final Map<Tuple<String, String>, EventHubConsumerAsyncClient> consumerClientMap = new ConcurrentHashMap<>();
-    // eventHubName -> producerClient
-    private final Map<String, EventHubProducerAsyncClient> producerClientMap = new ConcurrentHashMap<>();
+    // eventHubName -> producerPool
+    private final Map<String, EventHubProducerPool> producerPoolMap = new ConcurrentHashMap<>();
+    // (connectionString, eventHubName) -> builder whose clients share one connection
+    private final Map<Tuple<String, String>, EventHubClientBuilder> sharedClientBuilderMap =
+            new ConcurrentHashMap<>();
     // (eventHubName, consumerGroup) -> eventProcessorClient
     private final Map<Tuple<String, String>, EventProcessorClient> processorClientMap = new ConcurrentHashMap<>();
 
     // Memoized functional client creator
     private final BiFunction<String, String, EventHubConsumerAsyncClient> eventHubConsumerClientCreator =
             Memoizer.memoize(consumerClientMap, this::createEventHubClient);
-    private final Function<String, EventHubProducerAsyncClient> producerClientCreator =
-            Memoizer.memoize(producerClientMap, this::createProducerClient);
+    private final Function<String, EventHubProducerPool> producerPoolCreator =
+            Memoizer.memoize(producerPoolMap, this::createProducerPool);
 
-    private final String checkpointStorageConnectionString;
-    private final String checkpointStorageContainer;
+    private final CheckpointStoreProvider checkpointStoreProvider;
     private final EventHubConnectionStringProvider connectionStringProvider;
 
+    private volatile boolean shareConnection = false;
+    private volatile ProducerPoolConfig producerPoolConfig = ProducerPoolConfig.builder().build();
+    private volatile Integer consumerPrefetchCount;
+    private volatile boolean trackLastEnqueuedEventProperties = false;
+
     public DefaultEventHubClientFactory(@NonNull EventHubConnectionStringProvider connectionStringProvider,
             String checkpointConnectionString, String checkpointStorageContainer) {
-        Assert.hasText(checkpointConnectionString, "checkpointConnectionString can't be null or empty");
+        this(connectionStringProvider, new BlobCheckpointStoreProvider(checkpointConnectionString,
+                checkpointStorageContainer));
+    }
+
+    public DefaultEventHubClientFactory(@NonNull EventHubConnectionStringProvider connectionStringProvider,
+            @NonNull CheckpointStoreProvider checkpointStoreProvider) {
+        Assert.notNull(checkpointStoreProvider, "checkpointStoreProvider can't be null");
         this.connectionStringProvider = connectionStringProvider;
-        this.checkpointStorageConnectionString = checkpointConnectionString;
-        this.checkpointStorageContainer = checkpointStorageContainer;
+        this.checkpointStoreProvider = checkpointStoreProvider;
     }
 
     private EventHubConsumerAsyncClient createEventHubClient(String eventHubName, String consumerGroup) {
-        return new EventHubClientBuilder()
-                .connectionString(connectionStringProvider.getConnectionString(), eventHubName)
-                .consumerGroup(consumerGroup)
-                .buildAsyncConsumerClient();
+        if (this.shareConnection) {
+            // The shared builder is mutable, so configuring and building happen under one lock
+            EventHubClientBuilder builder = getOrCreateSharedClientBuilder(eventHubName);
+            synchronized (builder) {
+                return configureConsumer(builder, consumerGroup).buildAsyncConsumerClient();
+            }
+        }
+
+        EventHubClientBuilder builder = new EventHubClientBuilder()
+                .connectionString(connectionStringProvider.getConnectionString(), eventHubName);
+        return configureConsumer(builder, consumerGroup).buildAsyncConsumerClient();
+    }
+
+    private EventHubClientBuilder configureConsumer(EventHubClientBuilder builder, String consumerGroup) {
+        builder.consumerGroup(consumerGroup);
+
+        if (this.consumerPrefetchCount != null) {
+            builder.prefetchCount(this.consumerPrefetchCount);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Producer clients built from one shared builder all reuse the same send link, since the link is named after the
+     * event hub, so a pool on a shared connection would be N clients over one link. The pool is therefore limited to
+     * the single shared producer client when sharing the connection: trading send throughput for one connection.
+     */
+    private EventHubProducerPool createProducerPool(String eventHubName) {
+        ProducerPoolConfig config = this.producerPoolConfig;
+        boolean shared = this.shareConnection;
+        int poolSize = shared ? 1 : config.getPoolSize();
+
+        if (shared && config.getPoolSize() > 1) {
+            LOGGER.warn("Producer pool size {} of event hub {} ignored, a shared connection has a single send link",
+                    config.getPoolSize(), eventHubName);
+        }
+
+        List<EventHubProducerAsyncClient> producers = new ArrayList<>(poolSize);
+
+        for (int i = 0; i < poolSize; i++) {
+            producers.add(createProducerClient(eventHubName, shared));
+        }
+
+        LOGGER.info("Created {} producer clients of event hub {} with {}", producers.size(), eventHubName, config);
+        return new EventHubProducerPool(producers, config.getStrategy());
     }
 
-    private EventHubProducerAsyncClient createProducerClient(String eventHubName) {
+    private EventHubProducerAsyncClient createProducerClient(String eventHubName, boolean shared) {
+        if (shared) {
+            EventHubClientBuilder builder = getOrCreateSharedClientBuilder(eventHubName);
+            synchronized (builder) {
+                return builder.buildAsyncProducerClient();
+            }
+        }
+
         return new EventHubClientBuilder()
                 .connectionString(connectionStringProvider.getConnectionString(), eventHubName)
                 .buildAsyncProducerClient();
     }
 
+    private EventHubClientBuilder getOrCreateSharedClientBuilder(String eventHubName) {
+        String connectionString = this.connectionStringProvider.getConnectionString();
+        return this.sharedClientBuilderMap.computeIfAbsent(Tuple.of(connectionString, eventHubName),
+                k -> new EventHubClientBuilder().connectionString(connectionString, eventHubName).shareConnection());
+    }
+
     private EventProcessorClient createEventProcessorClientInternal(String eventHubName, String consumerGroup,
                                                             EventHubProcessor eventHubProcessor) {
 
-        // We set eventHubName as the container name when we use track1 library, and the EventHubProcessor will create
-        // the container automatically if not exists
-        String containerName = checkpointStorageContainer == null ? eventHubName : checkpointStorageContainer;
-
-        BlobContainerAsyncClient blobClient = new BlobContainerClientBuilder()
-                .connectionString(checkpointStorageConnectionString)
-                .containerName(containerName)
-                .httpLogOptions(new HttpLogOptions().setApplicationId(SPRING_EVENT_HUB_APPLICATION_ID))
-                .buildAsyncClient();
-
-        final Boolean isContainerExist = blobClient.exists().block();
-        if (isContainerExist == null || !isContainerExist) {
-            LOGGER.warn("Will create storage blob {}, the auto creation might be deprecated in later versions.",
-                    containerName);
-            blobClient.create().block(Duration.ofMinutes(5L));
-        }
-
-        // TODO (xiada): set up event processing position for each partition
-        return new EventProcessorClientBuilder()
+        EventProcessorClientBuilder builder = new EventProcessorClientBuilder()
                 .connectionString(connectionStringProvider.getConnectionString(), eventHubName)
                 .consumerGroup(consumerGroup)
-                .checkpointStore(new BlobCheckpointStore(blobClient))
+                .checkpointStore(this.checkpointStoreProvider.getOrCreate(eventHubName))
                 .processPartitionInitialization(eventHubProcessor::onInitialize)
                 .processPartitionClose(eventHubProcessor::onClose)
-                .processEvent(eventHubProcessor::onEvent)
                 .processError(eventHubProcessor::onError)
-                .buildEventProcessorClient();
+                .trackLastEnqueuedEventProperties(this.trackLastEnqueuedEventProperties);
+
+        if (needsInitialPartitionEventPositions(eventHubProcessor)) {
+            builder.initialPartitionEventPosition(getInitialPartitionEventPositions(eventHubName, consumerGroup,
+                    eventHubProcessor));
+        }
+
+        BatchConsumerConfig batchConsumerConfig = eventHubProcessor.getBatchConsumerConfig();
+        if (batchConsumerConfig == null) {
+            builder.processEvent(eventHubProcessor::onEvent);
+        } else if (batchConsumerConfig.getMaxWaitTime() == null) {
+            builder.processEventBatch(eventHubProcessor::onEventBatch, batchConsumerConfig.getMaxBatchSize());
+        } else {
+            builder.processEventBatch(eventHubProcessor::onEventBatch, batchConsumerConfig.getMaxBatchSize(),
+                    batchConsumerConfig.getMaxWaitTime());
+        }
+
+        return builder.buildEventProcessorClient();
+    }
+
+    /**
+     * Event processor client starts partitions without checkpoint from latest unless told otherwise
+     */
+    private static boolean needsInitialPartitionEventPositions(EventHubProcessor eventHubProcessor) {
+        EventPosition defaultPosition = eventHubProcessor.getEventPosition();
+        return eventHubProcessor.getEventPositionProvider() != null
+                || (defaultPosition != null && !EventPosition.latest().equals(defaultPosition));
+    }
+
+    /**
+     * The event processor client only looks up partitions it was given a position for, so positions are resolved by
+     * {@link EventHubProcessor#getEventPosition(String)} for every partition of the event hub upfront
+     */
+    private Map<String, EventPosition> getInitialPartitionEventPositions(String eventHubName, String consumerGroup,
+            EventHubProcessor eventHubProcessor) {
+        List<String> partitionIds;
+
+        try {
+            partitionIds = getOrCreateConsumerClient(eventHubName, consumerGroup).getPartitionIds().collectList()
+                    .block(PARTITION_IDS_TIMEOUT);
+        } catch (RuntimeException e) {
+            throw new EventHubRuntimeException("Failed to get partition ids of event hub " + eventHubName, e);
+        }
+
+        Map<String, EventPosition> positions = new HashMap<>();
+
+        if (partitionIds != null) {
+            for (String partitionId : partitionIds) {
+                EventPosition position = eventHubProcessor.getEventPosition(partitionId);
+                positions.put(partitionId, position == null ? EventPosition.latest() : position);
+            }
+        }
+
+        LOGGER.info("Initial event positions of event hub {} partitions without checkpoint: {}", eventHubName,
+                positions);
+        return positions;
     }
 
     private <K, V> void close(Map<K, V> map, Consumer<V> close) {
@@ -129,7 +243,7 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
     @Override
     public void destroy() {
         close(consumerClientMap, EventHubConsumerAsyncClient::close);
-        close(producerClientMap, EventHubProducerAsyncClient::close);
+        close(producerPoolMap, pool -> pool.getProducers().forEach(EventHubProducerAsyncClient::close));
         close(processorClientMap, EventProcessorClient::stop);
     }
 
@@ -140,7 +254,69 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
 
     @Override
     public EventHubProducerAsyncClient getOrCreateProducerClient(String eventHubName) {
-        return this.producerClientCreator.apply(eventHubName);
+        return this.producerPoolCreator.apply(eventHubName).next();
+    }
+
+    @Override
+    public <T> Mono<T> withProducerClient(String eventHubName, Function<EventHubProducerAsyncClient, Mono<T>> send) {
+        return Mono.defer(() -> this.producerPoolCreator.apply(eventHubName).execute(send));
+    }
+
+    /**
+     * Share one AMQP connection between the consumer clients and the producer client of each event hub. Limits the
+     * producer pool to one client, see {@link #setProducerPoolConfig(ProducerPoolConfig)}. Only affects clients
+     * created afterwards.
+     */
+    public void setShareConnection(boolean shareConnection) {
+        this.shareConnection = shareConnection;
+        LOGGER.info("DefaultEventHubClientFactory shareConnection becomes: {}", shareConnection);
+    }
+
+    public boolean isShareConnection() {
+        return shareConnection;
+    }
+
+    /**
+     * Only affects producer pools of event hubs not sent to yet. The pool size is ignored while
+     * {@link #setShareConnection(boolean)} is enabled, since all producers of a shared connection use one send link.
+     */
+    public void setProducerPoolConfig(@NonNull ProducerPoolConfig producerPoolConfig) {
+        Assert.notNull(producerPoolConfig, "producerPoolConfig can't be null");
+        this.producerPoolConfig = producerPoolConfig;
+        LOGGER.info("DefaultEventHubClientFactory producerPoolConfig becomes: {}", producerPoolConfig);
+    }
+
+    public ProducerPoolConfig getProducerPoolConfig() {
+        return producerPoolConfig;
+    }
+
+    /**
+     * How many events each consumer client receives ahead of processing. {@code null} means the client default.
+     * Only affects consumer clients created afterwards.
+     */
+    public void setConsumerPrefetchCount(Integer consumerPrefetchCount) {
+        Assert.isTrue(consumerPrefetchCount == null || consumerPrefetchCount > 0,
+                "consumerPrefetchCount should be positive");
+        this.consumerPrefetchCount = consumerPrefetchCount;
+        LOGGER.info("DefaultEventHubClientFactory consumerPrefetchCount becomes: {}", consumerPrefetchCount);
+    }
+
+    public Integer getConsumerPrefetchCount() {
+        return consumerPrefetchCount;
+    }
+
+    /**
+     * Let event processor clients receive the properties of the last enqueued event of each partition along with
+     * events, so that consumer lag can be measured. Only affects event processor clients created afterwards.
+     */
+    public void setTrackLastEnqueuedEventProperties(boolean trackLastEnqueuedEventProperties) {
+        this.trackLastEnqueuedEventProperties = trackLastEnqueuedEventProperties;
+        LOGGER.info("DefaultEventHubClientFactory trackLastEnqueuedEventProperties becomes: {}",
+                trackLastEnqueuedEventProperties);
+    }
+
+    public boolean isTrackLastEnqueuedEventProperties() {
+        return trackLastEnqueuedEventProperties;
     }
 
     @Override
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.factory;
+
+import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A fixed set of producer clients of one event hub. Each send is run against one producer client picked by the
+ * configured {@link ProducerPoolConfig.Strategy}, so sends are spread over several send links.
+ */
+public class EventHubProducerPool {
+
+    private final List<EventHubProducerAsyncClient> producers;
+
+    private final AtomicInteger[] inFlightCounts;
+
+    private final ProducerPoolConfig.Strategy strategy;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    public EventHubProducerPool(@NonNull List<EventHubProducerAsyncClient> producers,
+                                @NonNull ProducerPoolConfig.Strategy strategy) {
+        Assert.notEmpty(producers, "producers can't be empty");
+        this.producers = Collections.unmodifiableList(new ArrayList<>(producers));
+        this.strategy = strategy;
+        this.inFlightCounts = new AtomicInteger[producers.size()];
+
+        for (int i = 0; i < this.inFlightCounts.length; i++) {
+            this.inFlightCounts[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Pick a producer client without tracking its usage. Sends should go through {@link #execute(Function)}
+     * instead, so that {@link ProducerPoolConfig.Strategy#LEAST_IN_FLIGHT} sees them.
+     */
+    public EventHubProducerAsyncClient next() {
+        return this.producers.get(nextIndex());
+    }
+
+    /**
+     * Run the send against a picked producer client. The producer client counts as busy until the returned
+     * {@link Mono} terminates or is cancelled.
+     */
+    public <T> Mono<T> execute(@NonNull Function<EventHubProducerAsyncClient, Mono<T>> send) {
+        return Mono.defer(() -> {
+            int index = nextIndex();
+            AtomicInteger inFlight = this.inFlightCounts[index];
+            inFlight.incrementAndGet();
+
+            Mono<T> result;
+            try {
+                result = send.apply(this.producers.get(index));
+            } catch (RuntimeException e) {
+                inFlight.decrementAndGet();
+                return Mono.error(e);
+            }
+
+            return result.doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private int nextIndex() {
+        if (this.producers.size() == 1) {
+            return 0;
+        }
+
+        int start = Math.floorMod(this.nextIndex.getAndIncrement(), this.producers.size());
+        if (this.strategy == ProducerPoolConfig.Strategy.ROUND_ROBIN) {
+            return start;
+        }
+
+        // Start from the round robin position so that ties don't always pick the first producer
+        int best = start;
+        for (int i = 1; i < this.producers.size(); i++) {
+            int index = (start + i) % this.producers.size();
+            if (this.inFlightCounts[index].get() < this.inFlightCounts[best].get()) {
+                best = index;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return sends not yet completed per producer client, in pool order
+     */
+    public int[] getInFlightCounts() {
+        int[] counts = new int[this.inFlightCounts.length];
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.inFlightCounts[i].get();
+        }
+
+        return counts;
+    }
+
+    public List<EventHubProducerAsyncClient> getProducers() {
+        return this.producers;
+    }
+
+    public int size() {
+        return this.producers.size();
+    }
+}
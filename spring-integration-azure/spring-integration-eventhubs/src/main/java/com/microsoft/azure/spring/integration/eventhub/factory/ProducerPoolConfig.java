@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.factory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Producer pool related config used by {@link DefaultEventHubClientFactory}
+ */
+public class ProducerPoolConfig {
+
+    public static final int DEFAULT_POOL_SIZE = 1;
+
+    public static final Strategy DEFAULT_STRATEGY = Strategy.ROUND_ROBIN;
+
+    /**
+     * How many producer clients, each with its own send link, are created per event hub
+     */
+    private final int poolSize;
+
+    /**
+     * How a producer client is picked from the pool for each send
+     */
+    private final Strategy strategy;
+
+    public ProducerPoolConfig(int poolSize, Strategy strategy) {
+        Assert.isTrue(poolSize > 0, "poolSize should be positive");
+        Assert.notNull(strategy, "strategy can't be null");
+        this.poolSize = poolSize;
+        this.strategy = strategy;
+    }
+
+    public static ProducerPoolConfigBuilder builder() {
+        return new ProducerPoolConfigBuilder();
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    @Override
+    public String toString() {
+        return "ProducerPoolConfig{" + "poolSize=" + poolSize + ", strategy=" + strategy + '}';
+    }
+
+    public enum Strategy {
+
+        /**
+         * Pick producer clients in turn
+         */
+        ROUND_ROBIN,
+
+        /**
+         * Pick the producer client with the fewest sends not yet completed
+         */
+        LEAST_IN_FLIGHT
+    }
+
+    public static class ProducerPoolConfigBuilder {
+        private int poolSize = DEFAULT_POOL_SIZE;
+        private Strategy strategy = DEFAULT_STRATEGY;
+
+        public ProducerPoolConfigBuilder poolSize(int poolSize) {
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        public ProducerPoolConfigBuilder strategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        public ProducerPoolConfig build() {
+            return new ProducerPoolConfig(poolSize, strategy);
+        }
+    }
+}
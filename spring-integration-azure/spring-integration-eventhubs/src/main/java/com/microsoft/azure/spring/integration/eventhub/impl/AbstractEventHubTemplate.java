@@ -6,23 +6,42 @@
 
 package com.microsoft.azure.spring.integration.eventhub.impl;
 
-import com.azure.core.amqp.exception.AmqpException;
 import com.azure.messaging.eventhubs.EventData;
-import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import com.azure.messaging.eventhubs.EventHubConsumerAsyncClient;
 import com.azure.messaging.eventhubs.EventProcessorClient;
 import com.azure.messaging.eventhubs.models.CreateBatchOptions;
 import com.azure.messaging.eventhubs.models.EventPosition;
+import com.azure.messaging.eventhubs.models.PartitionEvent;
+import com.azure.messaging.eventhubs.models.ReceiveOptions;
+import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.api.EventPositionProvider;
+import com.microsoft.azure.spring.integration.eventhub.batch.BatchConfig;
+import com.microsoft.azure.spring.integration.eventhub.batch.BatchConsumerConfig;
+import com.microsoft.azure.spring.integration.eventhub.batch.EventHubBatchProducer;
+import com.microsoft.azure.spring.integration.eventhub.batch.EventHubBatchSender;
 import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.dedup.DeduplicationConfig;
+import com.microsoft.azure.spring.integration.eventhub.dedup.EventDeduplicator;
+import com.microsoft.azure.spring.integration.eventhub.dispatch.DispatchConfig;
+import com.microsoft.azure.spring.integration.eventhub.dispatch.KeyOrderedEventDispatcher;
+import com.microsoft.azure.spring.integration.eventhub.metrics.EventHubMetrics;
+import com.microsoft.azure.spring.integration.eventhub.routing.EventHubPartitionRouter;
+import com.microsoft.azure.spring.integration.eventhub.routing.PartitionRoutingConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collection;
@@ -30,6 +49,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -41,7 +61,7 @@ import java.util.stream.Collectors;
  * @author Warren Zhu
  * @author Xiaolu Dai
  */
-public class AbstractEventHubTemplate {
+public class AbstractEventHubTemplate implements DisposableBean {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractEventHubTemplate.class);
 
@@ -51,16 +71,45 @@ public class AbstractEventHubTemplate {
 
     private StartPosition startPosition = StartPosition.LATEST;
 
+    private EventPositionProvider eventPositionProvider;
+
     private CheckpointConfig checkpointConfig = CheckpointConfig.builder()
             .checkpointMode(CheckpointMode.RECORD).build();
 
+    private ListenerMode listenerMode = ListenerMode.RECORD;
+
+    private BatchConsumerConfig batchConsumerConfig = BatchConsumerConfig.builder().build();
+
+    private DispatchConfig dispatchConfig;
+
+    private DeduplicationConfig deduplicationConfig;
+
+    private EventHubMetrics metrics;
+
+    private final Map<Tuple<String, String>, KeyOrderedEventDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    private EventHubBatchSender batchSender = new EventHubBatchSender();
+
+    private EventHubBatchProducer batchProducer;
+
+    private int receiveBufferSize = EventHubFluxProcessor.DEFAULT_BUFFER_SIZE;
+
+    private EventHubPartitionRouter partitionRouter;
+
     AbstractEventHubTemplate(EventHubClientFactory clientFactory) {
         this.clientFactory = clientFactory;
     }
 
     public <T> Mono<Void> sendAsync(String eventHubName, @NonNull Message<T> message,
                                     PartitionSupplier partitionSupplier) {
-        return sendAsync(eventHubName, Collections.singleton(message), partitionSupplier);
+        if (this.batchProducer == null) {
+            return sendAsync(eventHubName, Collections.singleton(message), partitionSupplier);
+        }
+
+        Assert.hasText(eventHubName, "eventHubName can't be null or empty");
+        EventData eventData = messageConverter.fromMessage(message, EventData.class);
+        // Routed by the batch producer, so that events are buffered per partition
+        return this.batchProducer.send(eventHubName, eventData, partitionSupplier);
     }
 
     public <T> Mono<Void> sendAsync(String eventHubName, Collection<Message<T>> messages,
@@ -68,26 +117,24 @@ public class AbstractEventHubTemplate {
         Assert.hasText(eventHubName, "eventHubName can't be null or empty");
         List<EventData> eventData = messages.stream().map(m -> messageConverter.fromMessage(m, EventData.class))
                                             .collect(Collectors.toList());
-        return doSend(eventHubName, partitionSupplier, eventData);
+
+        if (this.partitionRouter == null) {
+            return doSend(eventHubName, partitionSupplier, eventData);
+        }
+
+        return this.partitionRouter.route(eventHubName, partitionSupplier).flatMap(routed -> {
+            this.partitionRouter.onBatchSent(eventHubName, routed.getPartitionId());
+            return doSend(eventHubName, routed, eventData);
+        });
     }
 
     private Mono<Void> doSend(String eventHubName, PartitionSupplier partitionSupplier,
                               List<EventData> events) {
 
-        EventHubProducerAsyncClient producer = this.clientFactory.getOrCreateProducerClient(eventHubName);
-
         CreateBatchOptions options = buildCreateBatchOptions(partitionSupplier);
 
-        return producer.createBatch(options).flatMap(batch -> {
-            for (EventData event : events) {
-                try {
-                    batch.tryAdd(event);
-                } catch (AmqpException e) {
-                    LOGGER.error("Event is larger than maximum allowed size. Exception: " + e);
-                }
-            }
-            return producer.send(batch);
-        });
+        return this.clientFactory.withProducerClient(eventHubName,
+                producer -> this.batchSender.send(producer, options, events));
     }
 
     private CreateBatchOptions buildCreateBatchOptions(PartitionSupplier partitionSupplier) {
@@ -96,8 +143,62 @@ public class AbstractEventHubTemplate {
                     .setPartitionKey(partitionSupplier != null ? partitionSupplier.getPartitionKey() : null);
     }
 
+    public Flux<Message<?>> receiveFromPartition(String eventHubName, String consumerGroup, String partitionId,
+                                                 EventPosition startingPosition, Class<?> messagePayloadType) {
+        return receiveFromPartition(eventHubName, consumerGroup, partitionId, startingPosition, new ReceiveOptions(),
+                messagePayloadType);
+    }
+
+    public Flux<Message<?>> receiveFromPartition(String eventHubName, String consumerGroup, String partitionId,
+                                                 EventPosition startingPosition, ReceiveOptions receiveOptions,
+                                                 Class<?> messagePayloadType) {
+        Assert.hasText(eventHubName, "eventHubName can't be null or empty");
+        Assert.hasText(consumerGroup, "consumerGroup can't be null or empty");
+        Assert.hasText(partitionId, "partitionId can't be null or empty");
+        Assert.notNull(startingPosition, "startingPosition can't be null");
+        Assert.notNull(receiveOptions, "receiveOptions can't be null");
+
+        return Flux.defer(() -> {
+            EventHubConsumerAsyncClient consumer = this.clientFactory.getOrCreateConsumerClient(eventHubName,
+                    consumerGroup);
+            return consumer.receiveFromPartition(partitionId, startingPosition, receiveOptions);
+        }).map(event -> toMessage(event, messagePayloadType));
+    }
+
+    private Message<?> toMessage(PartitionEvent event, Class<?> messagePayloadType) {
+        EventData eventData = event.getData();
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.RAW_PARTITION_ID, event.getPartitionContext().getPartitionId());
+        headers.put(AzureHeaders.SEQUENCE_NUMBER, eventData.getSequenceNumber());
+        headers.put(AzureHeaders.OFFSET, eventData.getOffset());
+
+        return this.messageConverter.toMessage(eventData, headers, messagePayloadType);
+    }
+
     protected void createEventProcessorClient(String name, String consumerGroup, EventHubProcessor eventHubProcessor) {
+        if (this.listenerMode == ListenerMode.BATCH) {
+            eventHubProcessor.setBatchConsumerConfig(this.batchConsumerConfig);
+        } else if (this.dispatchConfig != null) {
+            KeyOrderedEventDispatcher dispatcher = new KeyOrderedEventDispatcher(this.dispatchConfig);
+            eventHubProcessor.setDispatcher(dispatcher);
+            this.dispatchers.put(Tuple.of(name, consumerGroup), dispatcher);
+        }
+        createRecordEventProcessorClient(name, consumerGroup, eventHubProcessor);
+    }
+
+    /**
+     * Create an event processor client which hands events to the processor one by one on the receiving thread of
+     * each partition, regardless of listener mode and dispatch config
+     */
+    protected void createRecordEventProcessorClient(String name, String consumerGroup,
+                                                    EventHubProcessor eventHubProcessor) {
         eventHubProcessor.setEventPosition(buildEventPosition(startPosition));
+        eventHubProcessor.setEventPositionProvider(this.eventPositionProvider);
+        if (this.deduplicationConfig != null) {
+            eventHubProcessor.setDeduplicator(new EventDeduplicator(this.deduplicationConfig));
+        }
+        eventHubProcessor.setMetrics(this.metrics);
         this.clientFactory.createEventProcessorClient(name, consumerGroup, eventHubProcessor);
     }
 
@@ -110,12 +211,27 @@ public class AbstractEventHubTemplate {
             this.clientFactory.removeEventProcessorClient(name, consumerGroup);
             eventProcessor.stop();
         });
+
+        KeyOrderedEventDispatcher dispatcher = this.dispatchers.remove(Tuple.of(name, consumerGroup));
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
     }
 
     protected Map<String, Object> buildPropertiesMap() {
         Map<String, Object> properties = new HashMap<>();
         properties.put("startPosition", this.startPosition);
+        properties.put("eventPositionProvider", this.eventPositionProvider);
         properties.put("checkpointConfig", this.getCheckpointConfig());
+        properties.put("listenerMode", this.listenerMode);
+        properties.put("batchConsumerConfig", this.batchConsumerConfig);
+        properties.put("dispatchConfig", this.dispatchConfig);
+        properties.put("deduplicationConfig", this.deduplicationConfig);
+        properties.put("metrics", this.metrics);
+        properties.put("batchConfig", this.getBatchConfig());
+        properties.put("batchSendConcurrency", this.getBatchSendConcurrency());
+        properties.put("receiveBufferSize", this.receiveBufferSize);
+        properties.put("partitionRoutingConfig", this.getPartitionRoutingConfig());
 
         return properties;
     }
@@ -128,6 +244,14 @@ public class AbstractEventHubTemplate {
         this.messageConverter = messageConverter;
     }
 
+    /**
+     * Decide which headers are sent as event properties and how, on the current message converter
+     */
+    public void setHeaderMapper(AzureHeaderMapper headerMapper) {
+        LOGGER.info("EventHubTemplate header mapper becomes: {}", headerMapper);
+        this.messageConverter.setHeaderMapper(headerMapper);
+    }
+
     public StartPosition getStartPosition() {
         return startPosition;
     }
@@ -137,6 +261,15 @@ public class AbstractEventHubTemplate {
         this.startPosition = startPosition;
     }
 
+    public EventPositionProvider getEventPositionProvider() {
+        return eventPositionProvider;
+    }
+
+    public void setEventPositionProvider(EventPositionProvider eventPositionProvider) {
+        LOGGER.info("EventHubTemplate event position provider becomes: {}", eventPositionProvider);
+        this.eventPositionProvider = eventPositionProvider;
+    }
+
     public CheckpointConfig getCheckpointConfig() {
         return checkpointConfig;
     }
@@ -146,6 +279,142 @@ public class AbstractEventHubTemplate {
         this.checkpointConfig = checkpointConfig;
     }
 
+    public ListenerMode getListenerMode() {
+        return listenerMode;
+    }
+
+    public void setListenerMode(ListenerMode listenerMode) {
+        LOGGER.info("EventHubTemplate listener mode becomes: {}", listenerMode);
+        this.listenerMode = listenerMode;
+    }
+
+    public BatchConsumerConfig getBatchConsumerConfig() {
+        return batchConsumerConfig;
+    }
+
+    public void setBatchConsumerConfig(BatchConsumerConfig batchConsumerConfig) {
+        LOGGER.info("EventHubTemplate batch consumer config becomes: {}", batchConsumerConfig);
+        this.batchConsumerConfig = batchConsumerConfig;
+    }
+
+    public DispatchConfig getDispatchConfig() {
+        return dispatchConfig;
+    }
+
+    /**
+     * Handle events of one partition in parallel while keeping events with the same key in order. Only effective in
+     * {@link ListenerMode#RECORD}. Set {@code null} to handle events of one partition one by one.
+     */
+    public void setDispatchConfig(DispatchConfig dispatchConfig) {
+        LOGGER.info("EventHubTemplate dispatch config becomes: {}", dispatchConfig);
+        this.dispatchConfig = dispatchConfig;
+    }
+
+    public DeduplicationConfig getDeduplicationConfig() {
+        return deduplicationConfig;
+    }
+
+    /**
+     * Drop events already processed in this process before conversion, e.g. replays after a partition comes back.
+     * Set {@code null} to handle every received event.
+     */
+    public void setDeduplicationConfig(DeduplicationConfig deduplicationConfig) {
+        LOGGER.info("EventHubTemplate deduplication config becomes: {}", deduplicationConfig);
+        this.deduplicationConfig = deduplicationConfig;
+    }
+
+    public EventHubMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Record partition ownership changes and consumer lag of processors subscribed afterwards. Consumer lag needs
+     * last enqueued event properties tracked by the client factory. Set {@code null} to record nothing.
+     */
+    public void setMetrics(EventHubMetrics metrics) {
+        LOGGER.info("EventHubTemplate metrics becomes: {}", metrics);
+        this.metrics = metrics;
+    }
+
+    public BatchConfig getBatchConfig() {
+        return batchProducer == null ? null : batchProducer.getBatchConfig();
+    }
+
+    /**
+     * Buffer single message sends into batches per partition. Set {@code null} to send each message directly.
+     */
+    public void setBatchConfig(BatchConfig batchConfig) {
+        LOGGER.info("EventHubTemplate batch config becomes: {}", batchConfig);
+        EventHubBatchProducer previous = this.batchProducer;
+        this.batchProducer = batchConfig == null ? null : new EventHubBatchProducer(clientFactory, batchConfig,
+                batchSender, partitionRouter);
+
+        if (previous != null) {
+            previous.destroy();
+        }
+    }
+
+    public int getBatchSendConcurrency() {
+        return batchSender.getMaxConcurrency();
+    }
+
+    /**
+     * Max number of batches sent concurrently when messages don't fit in one batch. Set 1 to keep ordering between
+     * batches.
+     */
+    public void setBatchSendConcurrency(int batchSendConcurrency) {
+        LOGGER.info("EventHubTemplate batch send concurrency becomes: {}", batchSendConcurrency);
+        this.batchSender = new EventHubBatchSender(batchSendConcurrency);
+        BatchConfig batchConfig = getBatchConfig();
+
+        if (batchConfig != null) {
+            setBatchConfig(batchConfig);
+        }
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    /**
+     * Max number of messages buffered per partition for a {@link reactor.core.publisher.Flux} subscription before
+     * receiving from the partition pauses
+     */
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        Assert.isTrue(receiveBufferSize > 0, "receiveBufferSize should be positive");
+        LOGGER.info("EventHubTemplate receive buffer size becomes: {}", receiveBufferSize);
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public PartitionRoutingConfig getPartitionRoutingConfig() {
+        return partitionRouter == null ? null : partitionRouter.getRoutingConfig();
+    }
+
+    /**
+     * Resolve the partition of each message on the client with cached partition ids, so that buffered sends are
+     * batched per partition. Set {@code null} to let the service resolve partition keys.
+     */
+    public void setPartitionRoutingConfig(PartitionRoutingConfig partitionRoutingConfig) {
+        LOGGER.info("EventHubTemplate partition routing config becomes: {}", partitionRoutingConfig);
+        this.partitionRouter = partitionRoutingConfig == null ? null : new EventHubPartitionRouter(clientFactory,
+                partitionRoutingConfig);
+        BatchConfig batchConfig = getBatchConfig();
+
+        if (batchConfig != null) {
+            setBatchConfig(batchConfig);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (this.batchProducer != null) {
+            this.batchProducer.destroy();
+        }
+
+        this.dispatchers.values().forEach(KeyOrderedEventDispatcher::destroy);
+        this.dispatchers.clear();
+    }
+
     private static EventPosition buildEventPosition(StartPosition startPosition) {
         return StartPosition.EARLIEST.equals(startPosition) ? EventPosition.earliest() : EventPosition.latest();
     }
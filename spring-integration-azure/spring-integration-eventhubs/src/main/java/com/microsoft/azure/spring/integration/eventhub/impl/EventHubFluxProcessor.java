@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.azure.messaging.eventhubs.models.CloseContext;
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link EventHubProcessor} which emits converted messages to a {@link FluxSink} only as requested by downstream.
+ *
+ * <p>
+ * Each partition buffers at most {@code bufferSize} messages. Once the buffer is full, the receiving thread of the
+ * partition waits, so no more events are pulled from it until downstream requests more. Partitions take turns when
+ * emitting. Only emitted messages are passed to the checkpoint manager, so messages still buffered when a partition
+ * is closed or the subscription is cancelled are received again later.
+ */
+public class EventHubFluxProcessor extends EventHubProcessor {
+
+    public static final int DEFAULT_BUFFER_SIZE = 32;
+
+    /**
+     * How often a waiting receiving thread checks whether its partition has been closed
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final FluxSink<Message<?>> sink;
+
+    private final int bufferSize;
+
+    private final Map<String, PartitionBuffer> buffersByPartition = new ConcurrentHashMap<>();
+
+    private final AtomicInteger drainCount = new AtomicInteger();
+
+    public EventHubFluxProcessor(@NonNull FluxSink<Message<?>> sink, int bufferSize, Class<?> payloadType,
+                                 CheckpointConfig checkpointConfig, EventHubMessageConverter messageConverter) {
+        super(message -> {
+        }, payloadType, checkpointConfig, messageConverter);
+        Assert.isTrue(bufferSize > 0, "bufferSize should be positive");
+        this.sink = sink;
+        this.bufferSize = bufferSize;
+
+        sink.onRequest(n -> drain());
+        sink.onDispose(() -> this.buffersByPartition.values().forEach(PartitionBuffer::close));
+    }
+
+    @Override
+    public void onEvent(EventContext context) {
+        recordLag(context.getPartitionContext(), context.getEventData(), context.getLastEnqueuedEventProperties());
+
+        if (isDuplicate(context)) {
+            return;
+        }
+
+        String partitionId = context.getPartitionContext().getPartitionId();
+        PartitionBuffer buffer = this.buffersByPartition.computeIfAbsent(partitionId,
+                k -> new PartitionBuffer(this.bufferSize));
+        BufferedEvent event = new BufferedEvent(context, toMessage(context));
+
+        try {
+            while (!buffer.queue.offer(event, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (buffer.closed || this.sink.isCancelled()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        drain();
+    }
+
+    @Override
+    public void onClose(CloseContext context) {
+        PartitionBuffer buffer = this.buffersByPartition.remove(context.getPartitionContext().getPartitionId());
+
+        if (buffer != null) {
+            buffer.close();
+        }
+
+        super.onClose(context);
+    }
+
+    /**
+     * Emit buffered messages while downstream has demand. Only one thread emits at a time, others just let it know
+     * there is more to emit.
+     */
+    private void drain() {
+        if (this.drainCount.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            emitRequested();
+            missed = this.drainCount.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emitRequested() {
+        boolean emitted = true;
+
+        while (emitted) {
+            emitted = false;
+
+            for (PartitionBuffer buffer : this.buffersByPartition.values()) {
+                if (this.sink.isCancelled() || this.sink.requestedFromDownstream() <= 0) {
+                    return;
+                }
+
+                BufferedEvent event = buffer.queue.poll();
+                if (event != null && !buffer.closed) {
+                    this.sink.next(event.message);
+                    onEventCompleted(event.context);
+                    emitted = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many messages are buffered and not yet emitted
+     */
+    public int getBufferedCount() {
+        return this.buffersByPartition.values().stream().mapToInt(buffer -> buffer.queue.size()).sum();
+    }
+
+    private static final class PartitionBuffer {
+        private final BlockingQueue<BufferedEvent> queue;
+        private volatile boolean closed;
+
+        PartitionBuffer(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void close() {
+            this.closed = true;
+            this.queue.clear();
+        }
+    }
+
+    private static final class BufferedEvent {
+        private final EventContext context;
+        private final Message<?> message;
+
+        BufferedEvent(EventContext context, Message<?> message) {
+            this.context = context;
+            this.message = message;
+        }
+    }
+}
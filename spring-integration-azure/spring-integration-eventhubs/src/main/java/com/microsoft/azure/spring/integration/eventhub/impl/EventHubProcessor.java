@@ -9,25 +9,37 @@ package com.microsoft.azure.spring.integration.eventhub.impl;
 import com.azure.messaging.eventhubs.EventData;
 import com.azure.messaging.eventhubs.models.CloseContext;
 import com.azure.messaging.eventhubs.models.ErrorContext;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
 import com.azure.messaging.eventhubs.models.EventContext;
 import com.azure.messaging.eventhubs.models.EventPosition;
 import com.azure.messaging.eventhubs.models.InitializationContext;
+import com.azure.messaging.eventhubs.models.LastEnqueuedEventProperties;
 import com.azure.messaging.eventhubs.models.PartitionContext;
 import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.reactor.AzureCheckpointer;
 import com.microsoft.azure.spring.integration.core.api.reactor.Checkpointer;
+import com.microsoft.azure.spring.integration.eventhub.api.EventPositionProvider;
+import com.microsoft.azure.spring.integration.eventhub.batch.BatchConsumerConfig;
 import com.microsoft.azure.spring.integration.eventhub.checkpoint.CheckpointManager;
 import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.dedup.EventDeduplicator;
+import com.microsoft.azure.spring.integration.eventhub.dispatch.KeyOrderedEventDispatcher;
+import com.microsoft.azure.spring.integration.eventhub.metrics.EventHubMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Mainly handle message conversion and checkpoint
@@ -42,6 +54,11 @@ public class EventHubProcessor {
     protected final EventHubMessageConverter messageConverter;
     protected final CheckpointManager checkpointManager;
     protected EventPosition eventPosition = EventPosition.latest();
+    protected EventPositionProvider eventPositionProvider;
+    protected BatchConsumerConfig batchConsumerConfig;
+    protected KeyOrderedEventDispatcher dispatcher;
+    protected EventDeduplicator deduplicator;
+    protected EventHubMetrics metrics;
 
     public EventHubProcessor(Consumer<Message<?>> consumer, Class<?> payloadType, CheckpointConfig checkpointConfig,
             EventHubMessageConverter messageConverter) {
@@ -54,14 +71,97 @@ public class EventHubProcessor {
 
     public void onInitialize(InitializationContext context) {
         LOGGER.info("Started receiving on partition: {}", context.getPartitionContext().getPartitionId());
+
+        if (this.metrics != null) {
+            this.metrics.onPartitionInitialized(context.getPartitionContext());
+        }
     }
 
+    /**
+     * Flush outstanding checkpoints of the partition before it's released, see
+     * {@link CheckpointManager#onPartitionClose(String)}
+     */
     public void onClose(CloseContext context) {
         LOGGER.info("Stopped receiving on partition: {}. Reason: {}", context.getPartitionContext().getPartitionId(),
                 context.getCloseReason());
+        String partitionId = context.getPartitionContext().getPartitionId();
+
+        if (this.dispatcher != null) {
+            this.dispatcher.onPartitionClose(partitionId);
+        }
+        this.checkpointManager.onPartitionClose(partitionId);
+
+        if (this.metrics != null) {
+            this.metrics.onPartitionClosed(context.getPartitionContext(), context.getCloseReason());
+        }
     }
 
     public void onEvent(EventContext context) {
+        recordLag(context.getPartitionContext(), context.getEventData(), context.getLastEnqueuedEventProperties());
+
+        if (isDuplicate(context)) {
+            // Still completed in order, so that checkpoints move past it
+            if (this.dispatcher == null) {
+                onEventCompleted(context);
+            } else {
+                this.dispatcher.dispatch(context, () -> {
+                }, this::onEventCompleted);
+            }
+            return;
+        }
+
+        if (this.dispatcher == null) {
+            handleEvent(context);
+            onEventCompleted(context);
+        } else {
+            this.dispatcher.dispatch(context, () -> handleEvent(context), this::onEventCompleted);
+        }
+    }
+
+    private void handleEvent(EventContext context) {
+        this.consumer.accept(toMessage(context));
+    }
+
+    /**
+     * Report how far the event is behind the last enqueued event of its partition, if tracked, see
+     * {@link EventHubMetrics#onPartitionLag}
+     */
+    protected void recordLag(PartitionContext partitionContext, EventData eventData,
+                             LastEnqueuedEventProperties lastEnqueued) {
+        if (this.metrics == null || lastEnqueued == null || eventData == null) {
+            return;
+        }
+
+        Long lastSequenceNumber = lastEnqueued.getSequenceNumber();
+        Long sequenceNumber = eventData.getSequenceNumber();
+        if (lastSequenceNumber == null || sequenceNumber == null) {
+            return;
+        }
+
+        long lagInEvents = Math.max(0, lastSequenceNumber - sequenceNumber);
+        Duration lagInTime = Duration.ZERO;
+        if (lagInEvents > 0 && lastEnqueued.getEnqueuedTime() != null && eventData.getEnqueuedTime() != null) {
+            lagInTime = Duration.between(eventData.getEnqueuedTime(), lastEnqueued.getEnqueuedTime());
+            lagInTime = lagInTime.isNegative() ? Duration.ZERO : lagInTime;
+        }
+
+        this.metrics.onPartitionLag(partitionContext, lagInEvents, lagInTime);
+    }
+
+    /**
+     * @return whether the event has already been processed and should be dropped without conversion, see
+     * {@link #setDeduplicator(EventDeduplicator)}
+     */
+    protected boolean isDuplicate(EventContext context) {
+        return this.deduplicator != null && this.deduplicator.isDuplicate(
+                context.getPartitionContext().getPartitionId(), context.getEventData());
+    }
+
+    /**
+     * Convert the event into a {@link Message} with partition id and, in {@link CheckpointMode#MANUAL}, checkpointer
+     * headers
+     */
+    protected Message<?> toMessage(EventContext context) {
         PartitionContext partition = context.getPartitionContext();
 
         Map<String, Object> headers = new HashMap<>();
@@ -69,12 +169,22 @@ public class EventHubProcessor {
 
         final EventData event = context.getEventData();
 
-        Checkpointer checkpointer = new AzureCheckpointer(context::updateCheckpointAsync);
+        Checkpointer checkpointer = new AzureCheckpointer(() -> this.checkpointManager.checkpoint(context));
         if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
             headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
         }
 
-        this.consumer.accept(messageConverter.toMessage(event, new MessageHeaders(headers), payloadType));
+        return messageConverter.toMessage(event, headers, payloadType);
+    }
+
+    /**
+     * Let the checkpoint manager know the event has been handled
+     */
+    protected void onEventCompleted(EventContext context) {
+        if (this.deduplicator != null) {
+            this.deduplicator.onProcessed(context.getPartitionContext().getPartitionId(), context.getEventData());
+        }
+
         this.checkpointManager.onMessage(context, context.getEventData());
 
         if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.BATCH) {
@@ -82,6 +192,58 @@ public class EventHubProcessor {
         }
     }
 
+    /**
+     * Convert a batch of events into one {@link Message} whose payload is the list of converted payloads. Headers of
+     * each event are available in {@link AzureHeaders#BATCH_CONVERTED_HEADERS}.
+     */
+    public void onEventBatch(EventBatchContext context) {
+        // Empty batch is delivered when max wait time elapsed without events
+        if (context.getEvents().isEmpty()) {
+            return;
+        }
+
+        PartitionContext partition = context.getPartitionContext();
+        List<EventData> events = context.getEvents();
+        recordLag(partition, events.get(events.size() - 1), context.getLastEnqueuedEventProperties());
+        if (this.deduplicator != null) {
+            events = events.stream()
+                           .filter(event -> !this.deduplicator.isDuplicate(partition.getPartitionId(), event))
+                           .collect(Collectors.toList());
+
+            if (events.isEmpty()) {
+                this.checkpointManager.onMessages(context);
+                return;
+            }
+        }
+
+        Map<String, Object> eventHeaders =
+                Collections.singletonMap(AzureHeaders.RAW_PARTITION_ID, partition.getPartitionId());
+        List<Object> payloads = new ArrayList<>(events.size());
+        List<Map<String, Object>> convertedHeaders = new ArrayList<>(events.size());
+
+        for (EventData event : events) {
+            Message<?> message = messageConverter.toMessage(event, eventHeaders, payloadType);
+            payloads.add(message.getPayload());
+            convertedHeaders.add(message.getHeaders());
+        }
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.RAW_PARTITION_ID, partition.getPartitionId());
+        headers.put(AzureHeaders.BATCH_CONVERTED_HEADERS, convertedHeaders);
+
+        if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
+            Checkpointer checkpointer = new AzureCheckpointer(() -> this.checkpointManager.checkpoint(context));
+            headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
+        }
+
+        this.consumer.accept(new GenericMessage<>(payloads, headers));
+
+        if (this.deduplicator != null) {
+            events.forEach(event -> this.deduplicator.onProcessed(partition.getPartitionId(), event));
+        }
+        this.checkpointManager.onMessages(context);
+    }
+
     public void onError(ErrorContext context) {
         LOGGER.error("Error occurred on partition: {}. Error: {}", context.getPartitionContext().getPartitionId(),
                 context.getThrowable());
@@ -90,4 +252,78 @@ public class EventHubProcessor {
     public void setEventPosition(EventPosition eventPosition) {
         this.eventPosition = eventPosition;
     }
+
+    public EventPosition getEventPosition() {
+        return eventPosition;
+    }
+
+    /**
+     * Position to start from for a partition without checkpoint, given by {@link #setEventPositionProvider} if any,
+     * otherwise the default {@link #setEventPosition}
+     */
+    public EventPosition getEventPosition(String partitionId) {
+        if (this.eventPositionProvider != null) {
+            EventPosition position = this.eventPositionProvider.getEventPosition(partitionId);
+
+            if (position != null) {
+                return position;
+            }
+        }
+
+        return this.eventPosition;
+    }
+
+    public EventPositionProvider getEventPositionProvider() {
+        return eventPositionProvider;
+    }
+
+    public void setEventPositionProvider(EventPositionProvider eventPositionProvider) {
+        this.eventPositionProvider = eventPositionProvider;
+    }
+
+    public BatchConsumerConfig getBatchConsumerConfig() {
+        return batchConsumerConfig;
+    }
+
+    /**
+     * Receive events in batch through {@link #onEventBatch(EventBatchContext)}. {@code null} means one by one.
+     */
+    public void setBatchConsumerConfig(BatchConsumerConfig batchConsumerConfig) {
+        this.batchConsumerConfig = batchConsumerConfig;
+    }
+
+    public KeyOrderedEventDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Handle events of one partition in parallel through {@code dispatcher}. {@code null} means handling events on
+     * the receiving thread one by one.
+     */
+    public void setDispatcher(KeyOrderedEventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public EventDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * Drop events already processed by this processor before conversion. {@code null} means no deduplication.
+     */
+    public void setDeduplicator(EventDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    public EventHubMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Record partition ownership changes, consumer lag and checkpoint writes. {@code null} means no metrics.
+     */
+    public void setMetrics(EventHubMetrics metrics) {
+        this.metrics = metrics;
+        this.checkpointManager.setMetrics(metrics);
+    }
 }
@@ -12,6 +12,7 @@ import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -61,6 +62,32 @@ public class EventHubTemplate extends AbstractEventHubTemplate implements EventH
         return false;
     }
 
+    /**
+     * The event processor client is started once the returned {@link Flux} is subscribed and stopped once the
+     * subscription is cancelled. Only one subscription, either this or
+     * {@link #subscribe(String, String, Consumer, Class)}, is allowed per event hub and consumer group at a time.
+     */
+    @Override
+    public Flux<Message<?>> receive(String destination, String consumerGroup, Class<?> messagePayloadType) {
+        Tuple<String, String> nameAndGroup = Tuple.of(destination, consumerGroup);
+
+        return Flux.create(sink -> {
+            if (subscribedNameAndGroup.putIfAbsent(nameAndGroup, true) != null) {
+                sink.error(new IllegalStateException(String.format("Destination '%s' with consumer group '%s' is " +
+                        "already subscribed", destination, consumerGroup)));
+                return;
+            }
+
+            sink.onDispose(() -> unsubscribe(destination, consumerGroup));
+
+            EventHubFluxProcessor processor = new EventHubFluxProcessor(sink, getReceiveBufferSize(),
+                    messagePayloadType, getCheckpointConfig(), getMessageConverter());
+            this.createRecordEventProcessorClient(destination, consumerGroup, processor);
+            this.startEventProcessorClient(destination, consumerGroup);
+            log.info("Flux subscribed to destination '{}' with consumer group '{}'", destination, consumerGroup);
+        });
+    }
+
     public EventHubProcessor createEventProcessor(Consumer<Message<?>> consumer, Class<?> messagePayloadType) {
         return new EventHubProcessor(consumer, messagePayloadType, getCheckpointConfig(), getMessageConverter());
     }
@@ -8,6 +8,7 @@ package com.microsoft.azure.spring.integration.eventhub.inbound;
 
 import com.microsoft.azure.spring.integration.core.AbstractInboundChannelAdapter;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
@@ -23,4 +24,13 @@ public class EventHubInboundChannelAdapter extends AbstractInboundChannelAdapter
         this.consumerGroup = consumerGroup;
         log.info("Started EventHubInboundChannelAdapter with properties: {}", buildPropertiesMap());
     }
+
+    @Override
+    public void doStart() {
+        if (this.subscribeByGroupOperation instanceof EventHubOperation) {
+            ((EventHubOperation) this.subscribeByGroupOperation).setListenerMode(getListenerMode());
+        }
+
+        super.doStart();
+    }
 }
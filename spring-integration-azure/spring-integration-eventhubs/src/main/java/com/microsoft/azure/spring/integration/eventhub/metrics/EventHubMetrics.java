@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.metrics;
+
+import com.azure.messaging.eventhubs.models.CloseReason;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+
+import java.time.Duration;
+
+/**
+ * Callback of consumer side events worth measuring. All methods are no-op by default, see
+ * {@link MicrometerEventHubMetrics} for an implementation publishing to Micrometer.
+ */
+public interface EventHubMetrics {
+
+    /**
+     * Called when this processor starts owning a partition
+     */
+    default void onPartitionInitialized(PartitionContext partitionContext) {
+        // no-op
+    }
+
+    /**
+     * Called when this processor stops owning a partition
+     *
+     * @param reason {@link CloseReason#LOST_PARTITION_OWNERSHIP} when taken by another processor during load
+     *               balancing, or {@link CloseReason#SHUTDOWN} when stopped
+     */
+    default void onPartitionClosed(PartitionContext partitionContext, CloseReason reason) {
+        // no-op
+    }
+
+    /**
+     * Called with how far the processed position of a partition is behind the last enqueued event. Only called when
+     * the last enqueued event properties are tracked by the event processor client.
+     *
+     * @param lagInEvents how many events are enqueued after the processed one
+     * @param lagInTime   how much later the last event was enqueued than the processed one
+     */
+    default void onPartitionLag(PartitionContext partitionContext, long lagInEvents, Duration lagInTime) {
+        // no-op
+    }
+
+    /**
+     * Called each time a checkpoint of a partition is written to the checkpoint store
+     *
+     * @param requestCount how many checkpoint requests the write covers, so {@code requestCount - 1} writes were
+     *                     saved by coalescing
+     */
+    default void onCheckpointWrite(PartitionContext partitionContext, int requestCount) {
+        // no-op
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.metrics;
+
+import com.azure.messaging.eventhubs.models.CloseReason;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link EventHubMetrics} publishing to a Micrometer {@link MeterRegistry}.
+ *
+ * <p>
+ * Partition ownership is recorded as counters {@value #OWNERSHIP_GAINED} and {@value #OWNERSHIP_LOST}, tagged by event
+ * hub, consumer group and partition, the latter also by close reason. A burst of both across instances shows a
+ * rebalance storm. Gauge {@value #OWNED_PARTITIONS} is the number of partitions currently owned per event hub and
+ * consumer group.
+ *
+ * <p>
+ * Consumer lag is published as gauges {@value #LAG_EVENTS} and {@value #LAG_SECONDS} per partition, tagged by event
+ * hub, consumer group and partition. They hold the lag of the last processed event, and are removed once the
+ * partition is no longer owned so another instance can report it.
+ *
+ * <p>
+ * Checkpoint writes are recorded as counter {@value #CHECKPOINT_WRITES}, and writes saved by coalescing checkpoint
+ * requests as counter {@value #CHECKPOINT_SAVED_WRITES}, both tagged by event hub, consumer group and partition.
+ */
+public class MicrometerEventHubMetrics implements EventHubMetrics {
+
+    public static final String OWNERSHIP_GAINED = "eventhub.partition.ownership.gained";
+
+    public static final String OWNERSHIP_LOST = "eventhub.partition.ownership.lost";
+
+    public static final String OWNED_PARTITIONS = "eventhub.partition.owned";
+
+    public static final String LAG_EVENTS = "eventhub.consumer.lag.events";
+
+    public static final String LAG_SECONDS = "eventhub.consumer.lag.seconds";
+
+    public static final String CHECKPOINT_WRITES = "eventhub.checkpoint.writes";
+
+    public static final String CHECKPOINT_SAVED_WRITES = "eventhub.checkpoint.saved.writes";
+
+    static final String TAG_EVENT_HUB = "event_hub";
+
+    static final String TAG_CONSUMER_GROUP = "consumer_group";
+
+    static final String TAG_PARTITION = "partition";
+
+    static final String TAG_REASON = "reason";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Tags, Set<String>> ownedPartitionsByGroup = new ConcurrentHashMap<>();
+
+    private final Map<Tags, PartitionLag> lagByPartition = new ConcurrentHashMap<>();
+
+    public MicrometerEventHubMetrics(@NonNull MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onPartitionInitialized(PartitionContext partitionContext) {
+        this.meterRegistry.counter(OWNERSHIP_GAINED, partitionTags(partitionContext)).increment();
+        ownedPartitions(partitionContext).add(partitionContext.getPartitionId());
+    }
+
+    @Override
+    public void onPartitionClosed(PartitionContext partitionContext, CloseReason reason) {
+        this.meterRegistry.counter(OWNERSHIP_LOST, partitionTags(partitionContext)
+                .and(TAG_REASON, String.valueOf(reason))).increment();
+        ownedPartitions(partitionContext).remove(partitionContext.getPartitionId());
+
+        PartitionLag lag = this.lagByPartition.remove(partitionTags(partitionContext));
+        if (lag != null) {
+            this.meterRegistry.remove(lag.eventsGauge);
+            this.meterRegistry.remove(lag.secondsGauge);
+        }
+    }
+
+    @Override
+    public void onPartitionLag(PartitionContext partitionContext, long lagInEvents, Duration lagInTime) {
+        PartitionLag lag = this.lagByPartition.computeIfAbsent(partitionTags(partitionContext), this::registerLag);
+        lag.events = lagInEvents;
+        lag.seconds = lagInTime.toMillis() / 1000.0;
+    }
+
+    @Override
+    public void onCheckpointWrite(PartitionContext partitionContext, int requestCount) {
+        Tags tags = partitionTags(partitionContext);
+        this.meterRegistry.counter(CHECKPOINT_WRITES, tags).increment();
+
+        if (requestCount > 1) {
+            this.meterRegistry.counter(CHECKPOINT_SAVED_WRITES, tags).increment(requestCount - 1);
+        }
+    }
+
+    private PartitionLag registerLag(Tags tags) {
+        PartitionLag lag = new PartitionLag();
+        lag.eventsGauge = Gauge.builder(LAG_EVENTS, lag, l -> l.events).tags(tags).register(this.meterRegistry);
+        lag.secondsGauge = Gauge.builder(LAG_SECONDS, lag, l -> l.seconds).tags(tags).baseUnit("seconds")
+                                .register(this.meterRegistry);
+        return lag;
+    }
+
+    /**
+     * The gauge is registered with the set of owned partitions of the group on first use
+     */
+    private Set<String> ownedPartitions(PartitionContext partitionContext) {
+        return this.ownedPartitionsByGroup.computeIfAbsent(groupTags(partitionContext), tags -> {
+            Set<String> owned = ConcurrentHashMap.newKeySet();
+            this.meterRegistry.gauge(OWNED_PARTITIONS, tags, owned, Set::size);
+            return owned;
+        });
+    }
+
+    static Tags groupTags(PartitionContext partitionContext) {
+        return Tags.of(TAG_EVENT_HUB, partitionContext.getEventHubName(), TAG_CONSUMER_GROUP,
+                partitionContext.getConsumerGroup());
+    }
+
+    static Tags partitionTags(PartitionContext partitionContext) {
+        return groupTags(partitionContext).and(TAG_PARTITION, partitionContext.getPartitionId());
+    }
+
+    private static final class PartitionLag {
+        private volatile double events;
+        private volatile double seconds;
+        private Gauge eventsGauge;
+        private Gauge secondsGauge;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.routing;
+
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolve the partition of each message on the client, so that messages can be batched per partition.
+ *
+ * <p>
+ * Partition ids of each event hub are fetched once and cached. Once older than
+ * {@link PartitionRoutingConfig#getRefreshInterval()}, they are refreshed in background while the cached ones are
+ * still used. Messages are routed as follows:
+ * <ul>
+ * <li>With partition id: unchanged.</li>
+ * <li>With partition key: partition ids are sorted by length then lexicographically, i.e. numerically for the
+ * usual {@code "0".."n-1"}, and the key goes to the one at index {@code murmur3_32(utf8(key), seed 0) mod n}, with
+ * the hash treated as unsigned, see {@link #partitionIndexOf(String, int)}. The same key goes to the same partition
+ * as long as the partition count doesn't change. This is not the hash used by the service, so don't mix keys routed
+ * here with keys sent to the service for the same event hub.</li>
+ * <li>Without either: assigned by {@link PartitionRoutingConfig#getUnkeyedStrategy()}.</li>
+ * </ul>
+ * The routed {@link PartitionSupplier} only has the partition id set.
+ */
+public class EventHubPartitionRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventHubPartitionRouter.class);
+
+    private static final Comparator<String> PARTITION_ID_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private final EventHubClientFactory clientFactory;
+
+    private final PartitionRoutingConfig routingConfig;
+
+    private final Map<String, PartitionIds> partitionIdsByEventHub = new ConcurrentHashMap<>();
+
+    public EventHubPartitionRouter(@NonNull EventHubClientFactory clientFactory,
+                                   @NonNull PartitionRoutingConfig routingConfig) {
+        this.clientFactory = clientFactory;
+        this.routingConfig = routingConfig;
+    }
+
+    /**
+     * @return a {@link PartitionSupplier} with the partition id to send to, see class doc for how it's resolved
+     */
+    public Mono<PartitionSupplier> route(String eventHubName, PartitionSupplier partitionSupplier) {
+        if (partitionSupplier != null && StringUtils.hasText(partitionSupplier.getPartitionId())) {
+            return Mono.just(partitionSupplier);
+        }
+
+        String partitionKey = partitionSupplier == null ? null : partitionSupplier.getPartitionKey();
+        PartitionIds partitionIds = getOrCreatePartitionIds(eventHubName);
+
+        return getPartitionIds(eventHubName, partitionIds).map(ids -> {
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("No partition found in event hub " + eventHubName);
+            }
+
+            PartitionSupplier routed = new PartitionSupplier();
+            routed.setPartitionId(StringUtils.hasText(partitionKey) ?
+                    ids.get(partitionIndexOf(partitionKey, ids.size())) : partitionIds.nextUnkeyed(ids));
+            return routed;
+        });
+    }
+
+    /**
+     * Let the router know a batch has been sent to the partition, so that unkeyed messages move on to the next
+     * partition with {@link PartitionRoutingConfig.UnkeyedStrategy#STICKY}
+     */
+    public void onBatchSent(String eventHubName, String partitionId) {
+        PartitionIds partitionIds = this.partitionIdsByEventHub.get(eventHubName);
+
+        if (partitionIds != null && partitionId != null) {
+            partitionIds.onBatchSent(partitionId);
+        }
+    }
+
+    /**
+     * @return cached partition ids of the event hub in routing order, fetched if not cached yet
+     */
+    public Mono<List<String>> getPartitionIds(String eventHubName) {
+        return getPartitionIds(eventHubName, getOrCreatePartitionIds(eventHubName));
+    }
+
+    private Mono<List<String>> getPartitionIds(String eventHubName, PartitionIds partitionIds) {
+        return Mono.defer(() -> {
+            List<String> ids = partitionIds.ids;
+
+            if (ids == null) {
+                return fetch(eventHubName, partitionIds);
+            }
+
+            if (System.nanoTime() - partitionIds.fetchedNanos >= this.routingConfig.getRefreshInterval().toNanos()) {
+                fetch(eventHubName, partitionIds).subscribe(null,
+                        t -> LOGGER.warn("Failed to refresh partition ids of event hub {}", eventHubName, t));
+            }
+
+            return Mono.just(ids);
+        });
+    }
+
+    /**
+     * Concurrent callers share one fetch
+     */
+    private Mono<List<String>> fetch(String eventHubName, PartitionIds partitionIds) {
+        synchronized (partitionIds) {
+            if (partitionIds.fetching == null) {
+                partitionIds.fetching = this.clientFactory
+                        .withProducerClient(eventHubName, producer -> producer.getPartitionIds().collectList())
+                        .map(EventHubPartitionRouter::sort)
+                        .doOnNext(partitionIds::update)
+                        .doFinally(signal -> partitionIds.onFetchDone())
+                        .cache();
+            }
+
+            return partitionIds.fetching;
+        }
+    }
+
+    private PartitionIds getOrCreatePartitionIds(String eventHubName) {
+        return this.partitionIdsByEventHub.computeIfAbsent(eventHubName,
+                k -> new PartitionIds(this.routingConfig.getUnkeyedStrategy()));
+    }
+
+    public PartitionRoutingConfig getRoutingConfig() {
+        return routingConfig;
+    }
+
+    private static List<String> sort(List<String> partitionIds) {
+        List<String> sorted = new ArrayList<>(partitionIds);
+        sorted.sort(PARTITION_ID_ORDER);
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @return index of the partition the key is routed to, {@code murmur3_32(utf8(key), seed 0)} as unsigned mod
+     * {@code partitionCount}
+     */
+    public static int partitionIndexOf(@NonNull String partitionKey, int partitionCount) {
+        int hash = murmur3(partitionKey.getBytes(StandardCharsets.UTF_8));
+        return (int) (Integer.toUnsignedLong(hash) % partitionCount);
+    }
+
+    /**
+     * MurmurHash3 x86 32-bit with seed 0
+     */
+    static int murmur3(byte[] data) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        int hash = 0;
+        int blocks = data.length / 4;
+
+        for (int i = 0; i < blocks; i++) {
+            int k = (data[4 * i] & 0xff) | (data[4 * i + 1] & 0xff) << 8 | (data[4 * i + 2] & 0xff) << 16
+                    | (data[4 * i + 3] & 0xff) << 24;
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            hash ^= k;
+            hash = Integer.rotateLeft(hash, 13);
+            hash = hash * 5 + 0xe6546b64;
+        }
+
+        int tail = blocks * 4;
+        int k = 0;
+        switch (data.length & 3) {
+            case 3:
+                k ^= (data[tail + 2] & 0xff) << 16;
+                // fall through
+            case 2:
+                k ^= (data[tail + 1] & 0xff) << 8;
+                // fall through
+            case 1:
+                k ^= data[tail] & 0xff;
+                k *= c1;
+                k = Integer.rotateLeft(k, 15);
+                k *= c2;
+                hash ^= k;
+                break;
+            default:
+                break;
+        }
+
+        hash ^= data.length;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Cached partition ids and unkeyed assignment state of one event hub
+     */
+    private static final class PartitionIds {
+        private final PartitionRoutingConfig.UnkeyedStrategy unkeyedStrategy;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicReference<String> stickyPartitionId = new AtomicReference<>();
+        private volatile List<String> ids;
+        private volatile long fetchedNanos;
+        private Mono<List<String>> fetching;
+
+        PartitionIds(PartitionRoutingConfig.UnkeyedStrategy unkeyedStrategy) {
+            this.unkeyedStrategy = unkeyedStrategy;
+        }
+
+        void update(List<String> ids) {
+            this.ids = ids;
+            this.fetchedNanos = System.nanoTime();
+        }
+
+        synchronized void onFetchDone() {
+            this.fetching = null;
+        }
+
+        String nextUnkeyed(List<String> ids) {
+            if (this.unkeyedStrategy == PartitionRoutingConfig.UnkeyedStrategy.ROUND_ROBIN) {
+                return nextRoundRobin(ids);
+            }
+
+            String sticky = this.stickyPartitionId.get();
+            if (sticky == null || !ids.contains(sticky)) {
+                this.stickyPartitionId.compareAndSet(sticky, nextRoundRobin(ids));
+                sticky = this.stickyPartitionId.get();
+            }
+
+            return sticky;
+        }
+
+        void onBatchSent(String partitionId) {
+            List<String> current = this.ids;
+
+            if (this.unkeyedStrategy == PartitionRoutingConfig.UnkeyedStrategy.STICKY && current != null) {
+                this.stickyPartitionId.compareAndSet(partitionId, nextRoundRobin(current));
+            }
+        }
+
+        private String nextRoundRobin(List<String> ids) {
+            return ids.get(Math.floorMod(this.nextIndex.getAndIncrement(), ids.size()));
+        }
+    }
+}
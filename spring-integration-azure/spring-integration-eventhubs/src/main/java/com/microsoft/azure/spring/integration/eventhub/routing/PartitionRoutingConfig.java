@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.routing;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Partition routing related config used by {@link EventHubPartitionRouter}
+ */
+public class PartitionRoutingConfig {
+
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * How long cached partition ids of an event hub are used before being refreshed in background
+     */
+    private final Duration refreshInterval;
+
+    /**
+     * How messages without partition key or id are assigned to partitions
+     */
+    private final UnkeyedStrategy unkeyedStrategy;
+
+    public PartitionRoutingConfig(Duration refreshInterval, UnkeyedStrategy unkeyedStrategy) {
+        Assert.isTrue(refreshInterval != null && !refreshInterval.isNegative() && !refreshInterval.isZero(),
+                "refreshInterval should be positive");
+        Assert.notNull(unkeyedStrategy, "unkeyedStrategy can't be null");
+        this.refreshInterval = refreshInterval;
+        this.unkeyedStrategy = unkeyedStrategy;
+    }
+
+    public static PartitionRoutingConfigBuilder builder() {
+        return new PartitionRoutingConfigBuilder();
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public UnkeyedStrategy getUnkeyedStrategy() {
+        return unkeyedStrategy;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionRoutingConfig{" + "refreshInterval=" + refreshInterval + ", unkeyedStrategy="
+                + unkeyedStrategy + '}';
+    }
+
+    public enum UnkeyedStrategy {
+
+        /**
+         * Each message goes to the next partition
+         */
+        ROUND_ROBIN,
+
+        /**
+         * Messages go to the same partition until its batch is sent, then to the next partition. Fills batches
+         * faster than {@link #ROUND_ROBIN} when sends are batched.
+         */
+        STICKY
+    }
+
+    public static class PartitionRoutingConfigBuilder {
+        private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+        private UnkeyedStrategy unkeyedStrategy = UnkeyedStrategy.ROUND_ROBIN;
+
+        public PartitionRoutingConfigBuilder refreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        public PartitionRoutingConfigBuilder unkeyedStrategy(UnkeyedStrategy unkeyedStrategy) {
+            this.unkeyedStrategy = unkeyedStrategy;
+            return this;
+        }
+
+        public PartitionRoutingConfig build() {
+            return new PartitionRoutingConfig(refreshInterval, unkeyedStrategy);
+        }
+    }
+}
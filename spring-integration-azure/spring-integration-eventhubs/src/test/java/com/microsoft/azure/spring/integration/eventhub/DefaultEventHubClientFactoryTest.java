@@ -11,11 +11,14 @@ import com.azure.messaging.eventhubs.EventHubConsumerAsyncClient;
 import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
 import com.azure.messaging.eventhubs.EventProcessorClient;
 import com.azure.messaging.eventhubs.EventProcessorClientBuilder;
+import com.azure.messaging.eventhubs.models.EventPosition;
 import com.azure.storage.blob.BlobContainerAsyncClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.checkpoint.store.BlobCheckpointStoreProvider;
 import com.microsoft.azure.spring.integration.eventhub.factory.DefaultEventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.factory.EventHubConnectionStringProvider;
+import com.microsoft.azure.spring.integration.eventhub.factory.ProducerPoolConfig;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubProcessor;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,8 +27,11 @@ import org.mockito.Mock;
 import org.mockito.stubbing.Answer;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
@@ -35,6 +41,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.spy;
@@ -42,7 +49,7 @@ import static org.powermock.api.mockito.PowerMockito.verifyPrivate;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({ DefaultEventHubClientFactory.class })
+@PrepareForTest({ DefaultEventHubClientFactory.class, BlobCheckpointStoreProvider.class })
 public class DefaultEventHubClientFactoryTest {
 
     @Mock
@@ -65,6 +72,8 @@ public class DefaultEventHubClientFactoryTest {
     EventHubConnectionStringProvider connectionStringProvider;
 
     private EventHubClientFactory clientFactory;
+    private EventHubClientBuilder eventHubClientBuilder;
+    private EventProcessorClientBuilder eventProcessorClientBuilder;
     private String eventHubName = "eventHub";
     private String consumerGroup = "group";
     private String connectionString = "conStr";
@@ -72,11 +81,10 @@ public class DefaultEventHubClientFactoryTest {
 
     @Before
     public void setUp() {
-        EventHubClientBuilder eventHubClientBuilder = mock(EventHubClientBuilder.class, BuilderReturn.self);
+        eventHubClientBuilder = mock(EventHubClientBuilder.class, BuilderReturn.self);
         BlobContainerClientBuilder blobContainerClientBuilder = mock(BlobContainerClientBuilder.class,
                 BuilderReturn.self);
-        EventProcessorClientBuilder eventProcessorClientBuilder = mock(EventProcessorClientBuilder.class,
-                BuilderReturn.self);
+        eventProcessorClientBuilder = mock(EventProcessorClientBuilder.class, BuilderReturn.self);
         try {
             whenNew(EventHubClientBuilder.class).withNoArguments().thenReturn(eventHubClientBuilder);
             whenNew(BlobContainerClientBuilder.class).withNoArguments().thenReturn(blobContainerClientBuilder);
@@ -112,6 +120,44 @@ public class DefaultEventHubClientFactoryTest {
         assertEquals(sender, another);
     }
 
+    @Test
+    public void testProducerPoolWithSharedConnection() {
+        DefaultEventHubClientFactory factory = (DefaultEventHubClientFactory) this.clientFactory;
+        factory.setShareConnection(true);
+        factory.setProducerPoolConfig(ProducerPoolConfig.builder().poolSize(3).build());
+
+        EventHubProducerAsyncClient sender = factory.withProducerClient(eventHubName, Mono::just).block();
+        assertSame(this.eventHubProducerClient, sender);
+
+        // Producers of a shared connection would all use one send link, so the pool holds the shared producer only
+        verify(this.eventHubClientBuilder, times(1)).buildAsyncProducerClient();
+        verify(this.eventHubClientBuilder, times(1)).shareConnection();
+    }
+
+    @Test
+    public void testProducerPoolWithoutSharedConnection() {
+        DefaultEventHubClientFactory factory = (DefaultEventHubClientFactory) this.clientFactory;
+        factory.setProducerPoolConfig(ProducerPoolConfig.builder().poolSize(3).build());
+
+        factory.withProducerClient(eventHubName, Mono::just).block();
+
+        verify(this.eventHubClientBuilder, times(3)).buildAsyncProducerClient();
+        verify(this.eventHubClientBuilder, times(0)).shareConnection();
+    }
+
+    @Test
+    public void testSharedConnectionPerEventHub() {
+        DefaultEventHubClientFactory factory = (DefaultEventHubClientFactory) this.clientFactory;
+        factory.setShareConnection(true);
+
+        factory.getOrCreateConsumerClient(eventHubName, consumerGroup);
+        factory.getOrCreateProducerClient(eventHubName);
+        verify(this.eventHubClientBuilder, times(1)).shareConnection();
+
+        factory.getOrCreateProducerClient("another-" + eventHubName);
+        verify(this.eventHubClientBuilder, times(2)).shareConnection();
+    }
+
     @Test
     public void testGetEventProcessorClient() {
         clientFactory.createEventProcessorClient(eventHubName, consumerGroup, eventHubProcessor);
@@ -120,6 +166,21 @@ public class DefaultEventHubClientFactoryTest {
         assertTrue(optionalEph.isPresent());
     }
 
+    @Test
+    public void testInitialPartitionEventPositionsResolvedForAllPartitions() {
+        EventPosition earliest = EventPosition.earliest();
+        when(this.eventHubProcessor.getEventPosition()).thenReturn(earliest);
+        when(this.eventHubProcessor.getEventPosition("0")).thenReturn(earliest);
+        when(this.eventHubConsumerClient.getPartitionIds()).thenReturn(Flux.just("0", "1"));
+
+        clientFactory.createEventProcessorClient(eventHubName, consumerGroup, eventHubProcessor);
+
+        Map<String, EventPosition> positions = new HashMap<>();
+        positions.put("0", earliest);
+        positions.put("1", EventPosition.latest());
+        verify(this.eventProcessorClientBuilder).initialPartitionEventPosition(positions);
+    }
+
     @Test
     public void testGetNullEventProcessorClient() {
         Optional<EventProcessorClient> optionalEph = clientFactory.getEventProcessorClient(eventHubName, consumerGroup);
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventHubConsumerAsyncClient;
+import com.azure.messaging.eventhubs.models.EventPosition;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import com.azure.messaging.eventhubs.models.PartitionEvent;
+import com.azure.messaging.eventhubs.models.ReceiveOptions;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubTemplateReceiveFromPartitionTest {
+
+    private static final String EVENT_HUB = "eventHub";
+
+    private static final String CONSUMER_GROUP = "group";
+
+    @Mock
+    private EventHubClientFactory mockClientFactory;
+
+    @Mock
+    private EventHubConsumerAsyncClient mockConsumerClient;
+
+    private EventHubTemplate template;
+
+    @Before
+    public void setUp() {
+        this.template = new EventHubTemplate(this.mockClientFactory);
+    }
+
+    @Test
+    public void testReceiveFromPartition() {
+        ReceiveOptions options = new ReceiveOptions().setOwnerLevel(1L);
+        PartitionContext partitionContext = new PartitionContext("namespace", EVENT_HUB, CONSUMER_GROUP, "2");
+        when(this.mockClientFactory.getOrCreateConsumerClient(EVENT_HUB, CONSUMER_GROUP))
+                .thenReturn(this.mockConsumerClient);
+        when(this.mockConsumerClient.receiveFromPartition(eq("2"), eq(EventPosition.earliest()), same(options)))
+                .thenReturn(Flux.just(new PartitionEvent(partitionContext, new EventData("a"), null),
+                        new PartitionEvent(partitionContext, new EventData("b"), null)));
+
+        List<Message<?>> messages = this.template.receiveFromPartition(EVENT_HUB, CONSUMER_GROUP, "2",
+                EventPosition.earliest(), options, String.class).collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(2, messages.size());
+        assertEquals("a", messages.get(0).getPayload());
+        assertEquals("b", messages.get(1).getPayload());
+        assertEquals("2", messages.get(0).getHeaders().get(AzureHeaders.RAW_PARTITION_ID));
+    }
+
+    @Test
+    public void testConsumerCreatedOnSubscribe() {
+        this.template.receiveFromPartition(EVENT_HUB, CONSUMER_GROUP, "0", EventPosition.latest(), String.class);
+
+        verify(this.mockClientFactory, never()).getOrCreateConsumerClient(EVENT_HUB, CONSUMER_GROUP);
+    }
+}
@@ -17,6 +17,7 @@ import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
 import com.microsoft.azure.spring.integration.test.support.reactor.SendOperationTest;
 import org.junit.Before;
 import org.junit.runner.RunWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import reactor.core.publisher.Mono;
@@ -30,7 +31,8 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class EventHubTemplateSendTest extends SendOperationTest<EventHubOperation> {
 
-    @Mock
+    // Calls default methods so that sends reach the stubbed producer client
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private EventHubClientFactory mockClientFactory;
 
     @Mock
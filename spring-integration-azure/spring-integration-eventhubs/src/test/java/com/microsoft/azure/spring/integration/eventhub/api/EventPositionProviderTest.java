@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.api;
+
+import com.azure.messaging.eventhubs.models.EventPosition;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubProcessor;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EventPositionProviderTest {
+
+    @Test
+    public void testFromEnqueuedTime() {
+        Instant time = Instant.parse("2020-05-01T08:00:00Z");
+        EventPositionProvider provider = EventPositionProvider.fromEnqueuedTime(time);
+        assertEquals(time, provider.getEventPosition("0").getEnqueuedDateTime());
+        assertEquals(time, provider.getEventPosition("1").getEnqueuedDateTime());
+    }
+
+    @Test
+    public void testFromSequenceNumbers() {
+        EventPositionProvider provider = EventPositionProvider.fromSequenceNumbers(Collections.singletonMap("0", 42L));
+        assertEquals(Long.valueOf(42L), provider.getEventPosition("0").getSequenceNumber());
+        assertNull(provider.getEventPosition("1"));
+    }
+
+    @Test
+    public void testProcessorFallsBackToStartPosition() {
+        EventHubProcessor processor = new EventHubProcessor(m -> {
+        }, String.class, CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build(),
+                new EventHubMessageConverter());
+        processor.setEventPosition(EventPosition.earliest());
+        processor.setEventPositionProvider(EventPositionProvider.fromOffsets(Collections.singletonMap("0", 100L)));
+
+        assertEquals(String.valueOf(100L), processor.getEventPosition("0").getOffset());
+        assertEquals(EventPosition.earliest(), processor.getEventPosition("1"));
+    }
+}
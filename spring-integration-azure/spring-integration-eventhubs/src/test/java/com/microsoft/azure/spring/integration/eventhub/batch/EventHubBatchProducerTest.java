@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.batch;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventDataBatch;
+import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import com.azure.messaging.eventhubs.models.CreateBatchOptions;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubBatchProducerTest {
+
+    private static final String EVENT_HUB = "eventHub";
+
+    // Calls default methods so that sends reach the stubbed producer client
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private EventHubClientFactory mockClientFactory;
+
+    @Mock
+    private EventHubProducerAsyncClient mockProducerClient;
+
+    @Mock
+    private EventDataBatch eventDataBatch;
+
+    private EventHubBatchProducer batchProducer;
+
+    @Before
+    public void setUp() {
+        when(this.mockClientFactory.getOrCreateProducerClient(eq(EVENT_HUB))).thenReturn(this.mockProducerClient);
+        when(this.mockProducerClient.createBatch(any(CreateBatchOptions.class)))
+                .thenReturn(Mono.just(this.eventDataBatch));
+        when(this.mockProducerClient.send(any(EventDataBatch.class))).thenReturn(Mono.empty());
+        when(this.eventDataBatch.tryAdd(any(EventData.class))).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.batchProducer != null) {
+            this.batchProducer.destroy();
+        }
+    }
+
+    @Test
+    public void testEventsLingerIntoOneBatch() {
+        this.batchProducer = new EventHubBatchProducer(mockClientFactory,
+                BatchConfig.builder().lingerTime(Duration.ofMillis(100)).build());
+
+        Mono.when(send("a"), send("b"), send("c")).block(Duration.ofSeconds(5));
+
+        verify(this.eventDataBatch, times(3)).tryAdd(any(EventData.class));
+        verify(this.mockProducerClient, times(1)).send(any(EventDataBatch.class));
+    }
+
+    @Test
+    public void testFullBatchSentWithoutLinger() {
+        this.batchProducer = new EventHubBatchProducer(mockClientFactory,
+                BatchConfig.builder().maxBatchSizeInBytes(1).lingerTime(Duration.ofMinutes(1)).build());
+
+        Mono.when(send("a"), send("b")).block(Duration.ofSeconds(5));
+
+        verify(this.mockProducerClient, times(2)).send(any(EventDataBatch.class));
+    }
+
+    @Test
+    public void testOverflowSplitIntoNextBatch() {
+        when(this.eventDataBatch.tryAdd(any(EventData.class))).thenReturn(true, false, true);
+        this.batchProducer = new EventHubBatchProducer(mockClientFactory,
+                BatchConfig.builder().lingerTime(Duration.ofMillis(50)).build());
+
+        Mono.when(send("a"), send("b")).block(Duration.ofSeconds(5));
+
+        verify(this.mockProducerClient, times(2)).send(any(EventDataBatch.class));
+    }
+
+    @Test
+    public void testSendFailurePropagatesToEachEvent() {
+        when(this.mockProducerClient.send(any(EventDataBatch.class)))
+                .thenReturn(Mono.error(new IllegalStateException("Send failed.")));
+        this.batchProducer = new EventHubBatchProducer(mockClientFactory,
+                BatchConfig.builder().lingerTime(Duration.ofMillis(10)).build());
+
+        Mono<Void> first = send("a");
+        Mono<Void> second = send("b");
+
+        assertFails(first);
+        assertFails(second);
+    }
+
+    @Test
+    public void testFlushesOfSameKeySentInOrder() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(this.mockProducerClient.send(any(EventDataBatch.class))).thenAnswer(invocation -> Mono
+                .delay(Duration.ofMillis(20)).then()
+                .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doFinally(s -> inFlight.decrementAndGet()));
+        this.batchProducer = new EventHubBatchProducer(mockClientFactory,
+                BatchConfig.builder().maxBatchSizeInBytes(1).lingerTime(Duration.ofMinutes(1)).build());
+
+        Mono.when(send("a"), send("b"), send("c")).block(Duration.ofSeconds(5));
+
+        verify(this.mockProducerClient, times(3)).send(any(EventDataBatch.class));
+        assertEquals(1, maxInFlight.get());
+    }
+
+    private Mono<Void> send(String body) {
+        Mono<Void> mono = this.batchProducer.send(EVENT_HUB, new EventData(body), null).cache();
+        mono.subscribe(v -> { }, t -> { });
+        return mono;
+    }
+
+    private static void assertFails(Mono<Void> mono) {
+        try {
+            mono.block(Duration.ofSeconds(5));
+            fail("Test should fail.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.batch;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventDataBatch;
+import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import com.azure.messaging.eventhubs.models.CreateBatchOptions;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubBatchSenderTest {
+
+    @Mock
+    private EventHubProducerAsyncClient mockProducerClient;
+
+    @Mock
+    private EventDataBatch eventDataBatch;
+
+    private final EventHubBatchSender batchSender = new EventHubBatchSender(2);
+
+    private final CreateBatchOptions options = new CreateBatchOptions();
+
+    @Before
+    public void setUp() {
+        when(this.mockProducerClient.createBatch(any(CreateBatchOptions.class)))
+                .thenReturn(Mono.just(this.eventDataBatch));
+        when(this.mockProducerClient.send(any(EventDataBatch.class))).thenReturn(Mono.empty());
+    }
+
+    @Test
+    public void testSplitIntoMultipleBatches() {
+        // Each batch holds two events
+        when(this.eventDataBatch.tryAdd(any(EventData.class))).thenReturn(true, true, false, true, true, false, true);
+        List<int[]> ranges = new ArrayList<>();
+
+        this.batchSender.send(mockProducerClient, options, events(5), (from, to, error) -> {
+            synchronized (ranges) {
+                ranges.add(new int[]{from, to});
+            }
+        }).block(Duration.ofSeconds(5));
+
+        verify(this.mockProducerClient, times(3)).send(any(EventDataBatch.class));
+        assertEquals(5, ranges.stream().mapToInt(r -> r[1] - r[0]).sum());
+    }
+
+    @Test
+    public void testOversizedEventFailsWithoutDroppingOthers() {
+        when(this.eventDataBatch.tryAdd(any(EventData.class))).thenReturn(false, true, true);
+
+        try {
+            this.batchSender.send(mockProducerClient, options, events(3)).block(Duration.ofSeconds(5));
+            fail("Test should fail.");
+        } catch (EventHubRuntimeException e) {
+            // expected
+        }
+
+        verify(this.mockProducerClient, times(1)).send(any(EventDataBatch.class));
+    }
+
+    @Test
+    public void testBatchesOfPartitionKeySentInOrder() {
+        when(this.eventDataBatch.tryAdd(any(EventData.class))).thenReturn(true, false, true, false, true);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(this.mockProducerClient.send(any(EventDataBatch.class))).thenAnswer(invocation -> Mono
+                .delay(Duration.ofMillis(20)).then()
+                .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doFinally(s -> inFlight.decrementAndGet()));
+
+        this.batchSender.send(mockProducerClient, new CreateBatchOptions().setPartitionKey("key"), events(3))
+                        .block(Duration.ofSeconds(5));
+
+        verify(this.mockProducerClient, times(3)).send(any(EventDataBatch.class));
+        assertEquals(1, maxInFlight.get());
+    }
+
+    private static List<EventData> events(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new EventData("event-" + i)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CheckpointEngineTest {
+
+    @Mock
+    private PartitionContext partitionContext;
+
+    @Mock
+    private EventContext first;
+
+    @Mock
+    private EventContext second;
+
+    @Mock
+    private EventContext third;
+
+    private final CheckpointEngine engine = new CheckpointEngine(Duration.ofMillis(50), (partition, event, t) -> {
+    });
+
+    @Before
+    public void setUp() {
+        when(this.partitionContext.getPartitionId()).thenReturn("1");
+        when(this.first.getPartitionContext()).thenReturn(this.partitionContext);
+    }
+
+    @Test
+    public void testNewerPositionsCoalescedWhileWriteInFlight() {
+        MonoProcessor<Void> inFlight = MonoProcessor.create();
+        when(this.first.updateCheckpointAsync()).thenReturn(inFlight);
+        when(this.second.getPartitionContext()).thenReturn(this.partitionContext);
+        when(this.third.getPartitionContext()).thenReturn(this.partitionContext);
+        when(this.third.updateCheckpointAsync()).thenReturn(Mono.empty());
+
+        this.engine.checkpoint(this.first);
+        this.engine.checkpoint(this.second);
+        this.engine.checkpoint(this.third);
+        verify(this.third, never()).updateCheckpointAsync();
+
+        inFlight.onComplete();
+
+        verify(this.first, times(1)).updateCheckpointAsync();
+        verify(this.second, never()).updateCheckpointAsync();
+        verify(this.third, times(1)).updateCheckpointAsync();
+        assertEquals(1, this.engine.getSavedWriteCount());
+    }
+
+    @Test
+    public void testWriteListenerToldRequestsCoveredByWrite() {
+        List<Integer> requestCounts = new ArrayList<>();
+        this.engine.setWriteListener((partition, requestCount) -> requestCounts.add(requestCount));
+        MonoProcessor<Void> inFlight = MonoProcessor.create();
+        when(this.first.updateCheckpointAsync()).thenReturn(inFlight);
+        when(this.second.getPartitionContext()).thenReturn(this.partitionContext);
+        when(this.third.getPartitionContext()).thenReturn(this.partitionContext);
+        when(this.third.updateCheckpointAsync()).thenReturn(Mono.empty());
+
+        this.engine.checkpoint(this.first);
+        this.engine.checkpoint(this.second);
+        this.engine.checkpoint(this.third);
+        inFlight.onComplete();
+
+        assertEquals(Arrays.asList(1, 2), requestCounts);
+    }
+
+    @Test
+    public void testIdlePartitionFlushed() {
+        when(this.first.updateCheckpointAsync()).thenReturn(Mono.empty());
+
+        this.engine.track(this.first);
+
+        verify(this.first, timeout(5000).times(1)).updateCheckpointAsync();
+        this.engine.onPartitionClose("1");
+    }
+
+    @Test
+    public void testFailedWriteRetriedByIdleFlush() {
+        when(this.first.updateCheckpointAsync()).thenReturn(Mono.error(new IllegalStateException("store down")),
+                Mono.empty());
+
+        this.engine.checkpoint(this.first);
+
+        verify(this.first, timeout(5000).times(2)).updateCheckpointAsync();
+        this.engine.onPartitionClose("1");
+    }
+
+    @Test
+    public void testFlushWaitsForInFlightWrite() {
+        MonoProcessor<Void> inFlight = MonoProcessor.create();
+        when(this.first.updateCheckpointAsync()).thenReturn(inFlight);
+
+        this.engine.checkpoint(this.first);
+        MonoProcessor<Void> flushed = this.engine.flush("1").toProcessor();
+        assertFalse(flushed.isTerminated());
+
+        inFlight.onComplete();
+
+        assertTrue(flushed.isSuccess());
+        verify(this.first, times(1)).updateCheckpointAsync();
+    }
+
+    @Test
+    public void testFlushUnknownPartition() {
+        this.engine.flush("2").block(Duration.ofSeconds(1));
+
+        verify(this.first, never()).updateCheckpointAsync();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CheckpointManagerTest {
+
+    @Mock
+    private PartitionContext partitionContext;
+
+    @Mock
+    private EventContext eventContext;
+
+    @Before
+    public void setUp() {
+        when(this.partitionContext.getPartitionId()).thenReturn("1");
+        when(this.eventContext.getPartitionContext()).thenReturn(this.partitionContext);
+        when(this.eventContext.getEventData()).thenReturn(new EventData("a"));
+    }
+
+    @Test
+    public void testPendingCountCheckpointFlushedOnClose() {
+        when(this.eventContext.updateCheckpointAsync()).thenReturn(Mono.empty());
+        CheckpointManager manager = CheckpointManager.of(CheckpointConfig.builder()
+                .checkpointMode(CheckpointMode.PARTITION_COUNT).checkpointCount(10).build());
+
+        manager.onMessage(this.eventContext, null);
+        verify(this.eventContext, never()).updateCheckpointAsync();
+
+        manager.onPartitionClose("1");
+        verify(this.eventContext, times(1)).updateCheckpointAsync();
+    }
+
+    @Test
+    public void testCloseNotBlockedBeyondFlushTimeout() {
+        when(this.eventContext.updateCheckpointAsync()).thenReturn(Mono.never());
+        CheckpointManager manager = CheckpointManager.of(CheckpointConfig.builder()
+                .checkpointMode(CheckpointMode.TIME).checkpointInterval(Duration.ofMinutes(1))
+                .flushTimeout(Duration.ofMillis(100)).build());
+
+        manager.onMessage(this.eventContext, null);
+        manager.onPartitionClose("1");
+
+        verify(this.eventContext, times(1)).updateCheckpointAsync();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.models.Checkpoint;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.microsoft.azure.spring.integration.eventhub.checkpoint.store.InMemoryCheckpointStoreTest.checkpoint;
+import static org.junit.Assert.assertEquals;
+
+public class FileCheckpointStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCheckpointsSurviveRestart() throws IOException {
+        Path file = this.folder.getRoot().toPath().resolve("checkpoints");
+        FileCheckpointStore store = new FileCheckpointStore(file);
+        store.updateCheckpoint(checkpoint("0", 10L)).block();
+        store.updateCheckpoint(checkpoint("0", 20L)).block();
+        store.updateCheckpoint(checkpoint("1", 5L)).block();
+
+        // Partially written line of a crashed process is skipped
+        Files.write(file, "namespace\teventHub".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        List<Checkpoint> checkpoints = new FileCheckpointStore(file)
+                .listCheckpoints("namespace", "eventHub", "group").collectList().block();
+        assertEquals(2, checkpoints.size());
+        Checkpoint first = checkpoints.stream().filter(c -> "0".equals(c.getPartitionId())).findFirst().get();
+        assertEquals(Long.valueOf(20L), first.getSequenceNumber());
+        assertEquals(Long.valueOf(2000L), first.getOffset());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint.store;
+
+import com.azure.messaging.eventhubs.models.Checkpoint;
+import com.azure.messaging.eventhubs.models.PartitionOwnership;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryCheckpointStoreTest {
+
+    private static final String NAMESPACE = "namespace";
+    private static final String EVENT_HUB = "eventHub";
+    private static final String CONSUMER_GROUP = "group";
+
+    private final InMemoryCheckpointStore store = new InMemoryCheckpointStore();
+
+    @Test
+    public void testClaimOwnershipComparesETag() {
+        PartitionOwnership claimed = claim(ownership("owner-1", null));
+        assertNotNull(claimed.getETag());
+
+        // Stale eTag loses
+        assertTrue(this.store.claimOwnership(Collections.singletonList(ownership("owner-2", null))).collectList()
+                             .block().isEmpty());
+
+        PartitionOwnership reclaimed = claim(ownership("owner-2", claimed.getETag()));
+        assertEquals("owner-2", reclaimed.getOwnerId());
+
+        List<PartitionOwnership> ownerships = this.store.listOwnership(NAMESPACE, EVENT_HUB, CONSUMER_GROUP)
+                                                        .collectList().block();
+        assertEquals(1, ownerships.size());
+        assertEquals(reclaimed.getETag(), ownerships.get(0).getETag());
+    }
+
+    @Test
+    public void testUpdateCheckpoint() {
+        this.store.updateCheckpoint(checkpoint("0", 10L)).block();
+        this.store.updateCheckpoint(checkpoint("0", 20L)).block();
+        this.store.updateCheckpoint(checkpoint("1", 5L)).block();
+
+        List<Checkpoint> checkpoints = this.store.listCheckpoints(NAMESPACE, EVENT_HUB, CONSUMER_GROUP)
+                                                 .collectList().block();
+        assertEquals(2, checkpoints.size());
+        assertTrue(checkpoints.stream().anyMatch(c -> "0".equals(c.getPartitionId())
+                && Long.valueOf(20L).equals(c.getSequenceNumber())));
+        assertTrue(this.store.listCheckpoints(NAMESPACE, EVENT_HUB, "other").collectList().block().isEmpty());
+    }
+
+    private PartitionOwnership claim(PartitionOwnership ownership) {
+        return this.store.claimOwnership(Collections.singletonList(ownership)).blockFirst();
+    }
+
+    private static PartitionOwnership ownership(String ownerId, String eTag) {
+        return new PartitionOwnership().setFullyQualifiedNamespace(NAMESPACE).setEventHubName(EVENT_HUB)
+                                       .setConsumerGroup(CONSUMER_GROUP).setPartitionId("0")
+                                       .setOwnerId(ownerId).setETag(eTag);
+    }
+
+    static Checkpoint checkpoint(String partitionId, Long sequenceNumber) {
+        return new Checkpoint().setFullyQualifiedNamespace(NAMESPACE).setEventHubName(EVENT_HUB)
+                               .setConsumerGroup(CONSUMER_GROUP).setPartitionId(partitionId)
+                               .setSequenceNumber(sequenceNumber).setOffset(sequenceNumber * 100);
+    }
+}
@@ -8,20 +8,45 @@ package com.microsoft.azure.spring.integration.eventhub.converter;
 
 import com.azure.messaging.eventhubs.EventData;
 import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.spring.integration.core.converter.AzureMessageConverter;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import com.microsoft.azure.spring.integration.core.converter.DefaultAzureHeaderMapper;
+import com.microsoft.azure.spring.integration.core.converter.JacksonPayloadCodec;
+import com.microsoft.azure.spring.integration.core.converter.PayloadCodecRegistry;
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.compression.DeflateCompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.GzipCompressionCodec;
 import com.microsoft.azure.spring.integration.test.support.AzureMessageConverterTest;
+import com.microsoft.azure.spring.integration.test.support.pojo.User;
 import org.junit.Test;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.NativeMessageHeaderAccessor;
 import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MimeType;
+import org.springframework.util.StreamUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class EventHubMessageConverterTest extends AzureMessageConverterTest<EventData> {
 
@@ -53,10 +78,6 @@ public class EventHubMessageConverterTest extends AzureMessageConverterTest<Even
         public void setCustomHeaders(MessageHeaders headers, EventData azureMessage) {
             super.setCustomHeaders(headers, azureMessage);
         }
-
-        public Map<String, Object> buildCustomHeaders(EventData azureMessage) {
-            return super.buildCustomHeaders(azureMessage);
-        }
     }
 
     @Test
@@ -94,7 +115,7 @@ public class EventHubMessageConverterTest extends AzureMessageConverterTest<Even
         EventData eventData = new EventData(EVENT_DATA);
         eventData.getProperties().put(AzureHeaders.RAW_PARTITION_ID, PARTITION_ID);
         MyEventHubMessageConverter convert = new MyEventHubMessageConverter();
-        Map<String, Object> headerHeadersMap = convert.buildCustomHeaders(eventData);
+        Map<String, Object> headerHeadersMap = convert.toMessage(eventData, String.class).getHeaders();
         assertEquals(headerHeadersMap.get(AzureHeaders.RAW_PARTITION_ID), PARTITION_ID);
         assertEquals(eventData.getBodyAsString(), EVENT_DATA);
     }
@@ -107,8 +128,222 @@ public class EventHubMessageConverterTest extends AzureMessageConverterTest<Even
         eventData.getProperties().put(NativeMessageHeaderAccessor.NATIVE_HEADERS, nativeHeadersString);
 
         MyEventHubMessageConverter convert = new MyEventHubMessageConverter();
-        Map<String, Object> headerHeadersMap = convert.buildCustomHeaders(eventData);
+        Map<String, Object> headerHeadersMap = convert.toMessage(eventData, String.class).getHeaders();
         assertSame(headerHeadersMap.get(NativeMessageHeaderAccessor.NATIVE_HEADERS).getClass(),
                 LinkedMultiValueMap.class);
+        assertSame(eventData.getProperties().get(NativeMessageHeaderAccessor.NATIVE_HEADERS), nativeHeadersString);
+    }
+
+    @Test
+    public void testHeadersResolvedLazilyFromProperties() {
+        EventData eventData = new EventData(EVENT_DATA);
+        eventData.getProperties().put("name", "native");
+        eventData.getProperties().put(AzureHeaders.RAW_PARTITION_ID, PARTITION_ID);
+        eventData.getProperties().put(MessageHeaders.ID, "native-id");
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.RAW_PARTITION_ID, "0");
+        MessageHeaders messageHeaders = getConverter().toMessage(eventData, headers, String.class).getHeaders();
+
+        assertEquals("native", messageHeaders.get("name"));
+        assertEquals("0", messageHeaders.get(AzureHeaders.RAW_PARTITION_ID));
+        assertNotEquals("native-id", messageHeaders.get(MessageHeaders.ID));
+        assertTrue(messageHeaders.containsKey("name"));
+        assertFalse(messageHeaders.containsKey("absent"));
+        assertEquals(4, messageHeaders.size());
+        assertEquals(messageHeaders.getId(), messageHeaders.get(MessageHeaders.ID));
+        assertEquals(3, eventData.getProperties().size());
+    }
+
+    @Test
+    public void testEventDataPayloadNotCopied() {
+        EventData eventData = new EventData(EVENT_DATA);
+        Message<EventData> message = getConverter().toMessage(eventData, EventData.class);
+        assertSame(eventData, message.getPayload());
+    }
+
+    @Test
+    public void testByteBufferPayload() {
+        ByteBuffer buffer = ByteBuffer.wrap(EVENT_DATA.getBytes(StandardCharsets.UTF_8));
+        EventData eventData = getConverter().fromMessage(MessageBuilder.withPayload(buffer).build(), EventData.class);
+        Message<ByteBuffer> message = getConverter().toMessage(eventData, ByteBuffer.class);
+        assertEquals(buffer, message.getPayload());
+    }
+
+    @Test
+    public void testInputStreamPayload() throws IOException {
+        EventData eventData = new EventData(EVENT_DATA);
+        Message<InputStream> message = getConverter().toMessage(eventData, InputStream.class);
+        assertEquals(EVENT_DATA, StreamUtils.copyToString(message.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPayloadCodecChosenByContentType() {
+        PayloadCodecRegistry registry = new PayloadCodecRegistry();
+        registry.register(new JacksonPayloadCodec(new ObjectMapper(), MimeType.valueOf("application/x-test")) {
+            @Override
+            public byte[] encode(Object payload) {
+                return ((User) payload).getName().getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public <U> U decode(byte[] payload, Class<U> targetType) {
+                return targetType.cast(new User(new String(payload, StandardCharsets.UTF_8)));
+            }
+        });
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        converter.setPayloadCodecRegistry(registry);
+
+        Message<User> message = MessageBuilder.withPayload(new User(EVENT_DATA))
+                                              .setHeader(MessageHeaders.CONTENT_TYPE, "application/x-test").build();
+        EventData eventData = converter.fromMessage(message, EventData.class);
+        assertEquals(EVENT_DATA, eventData.getBodyAsString());
+
+        Message<User> converted = converter.toMessage(eventData, User.class);
+        assertEquals(new User(EVENT_DATA), converted.getPayload());
+
+        // Without content type the default JSON codec is used
+        eventData = converter.fromMessage(MessageBuilder.withPayload(new User(EVENT_DATA)).build(), EventData.class);
+        assertEquals(new User(EVENT_DATA), converter.toMessage(eventData, User.class).getPayload());
+    }
+
+    @Test
+    public void testCompressedPayload() {
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        converter.setCompressionConfig(CompressionConfig.builder().codec(new DeflateCompressionCodec())
+                                                        .thresholdInBytes(16).build());
+        User user = new User(String.join("", Collections.nCopies(100, EVENT_DATA)));
+
+        EventData eventData = converter.fromMessage(MessageBuilder.withPayload(user).build(), EventData.class);
+        assertEquals(DeflateCompressionCodec.ENCODING, eventData.getProperties().get(AzureHeaders.CONTENT_ENCODING));
+        assertTrue(eventData.getBody().length < user.getName().length());
+
+        EventHubMessageConverter receiver = new EventHubMessageConverter();
+        receiver.setDecompressionEnabled(true);
+        assertEquals(user, receiver.toMessage(eventData, User.class).getPayload());
+    }
+
+    @Test
+    public void testCompressedPayloadReceivedAsItIsUnlessDecompressionEnabled() {
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        converter.setCompressionConfig(CompressionConfig.builder().thresholdInBytes(16).build());
+        User user = new User(String.join("", Collections.nCopies(100, EVENT_DATA)));
+        EventData eventData = converter.fromMessage(MessageBuilder.withPayload(user).build(), EventData.class);
+
+        assertArrayEquals(eventData.getBody(), getConverter().toMessage(eventData, byte[].class).getPayload());
+    }
+
+    @Test(expected = ConversionException.class)
+    public void testDecompressedPayloadExceedingMaxSizeRejected() {
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        converter.setCompressionConfig(CompressionConfig.builder().thresholdInBytes(16).build());
+        User user = new User(String.join("", Collections.nCopies(100, EVENT_DATA)));
+        EventData eventData = converter.fromMessage(MessageBuilder.withPayload(user).build(), EventData.class);
+
+        EventHubMessageConverter receiver = new EventHubMessageConverter();
+        receiver.setDecompressionEnabled(true);
+        receiver.setMaxDecompressedSizeInBytes(eventData.getBody().length);
+        receiver.toMessage(eventData, User.class);
+    }
+
+    @Test
+    public void testContentEncodingOfDecompressedMessageNotForwarded() {
+        Message<String> message = MessageBuilder.withPayload(EVENT_DATA)
+                                                .setHeader(AzureHeaders.CONTENT_ENCODING, GzipCompressionCodec.ENCODING)
+                                                .build();
+        EventData eventData = getConverter().fromMessage(message, EventData.class);
+        assertFalse(eventData.getProperties().containsKey(AzureHeaders.CONTENT_ENCODING));
+        assertEquals(EVENT_DATA, getConverter().toMessage(eventData, String.class).getPayload());
+    }
+
+    @Test
+    public void testStringPayloadEncodedInUtf8() {
+        String payload = "\u00e9v\u00e8nement-\u4e8b\u4ef6";
+        EventData eventData = getConverter().fromMessage(MessageBuilder.withPayload(payload).build(), EventData.class);
+        assertEquals(payload, new String(eventData.getBody(), StandardCharsets.UTF_8));
+        assertEquals(payload, getConverter().toMessage(eventData, String.class).getPayload());
+    }
+
+    @Test
+    public void testHeadersSentInTheirOwnType() {
+        UUID uuid = UUID.randomUUID();
+        Instant instant = Instant.now();
+        Message<String> message = MessageBuilder.withPayload(EVENT_DATA).setHeader("int", PARTITION_ID)
+                                                .setHeader("long", 2L).setHeader("bool", true)
+                                                .setHeader("uuid", uuid).setHeader("instant", instant)
+                                                .setHeader("object", new User(EVENT_DATA))
+                                                .setHeader(MessageHeaders.CONTENT_TYPE,
+                                                        MimeType.valueOf("application/json")).build();
+
+        Map<String, Object> properties = getConverter().fromMessage(message, EventData.class).getProperties();
+
+        assertEquals(PARTITION_ID, properties.get("int"));
+        assertEquals(2L, properties.get("long"));
+        assertEquals(true, properties.get("bool"));
+        assertEquals(uuid, properties.get("uuid"));
+        assertEquals(Date.from(instant), properties.get("instant"));
+        assertEquals("application/json", properties.get(MessageHeaders.CONTENT_TYPE));
+        assertFalse(properties.containsKey("object"));
+        assertFalse(properties.containsKey(MessageHeaders.ID));
+        assertFalse(properties.containsKey(MessageHeaders.TIMESTAMP));
+    }
+
+    @Test
+    public void testDeniedPatternsTakePrecedence() {
+        DefaultAzureHeaderMapper headerMapper = new DefaultAzureHeaderMapper();
+        headerMapper.setAllowedPatterns("app_*");
+        headerMapper.setDeniedPatterns("app_secret");
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        converter.setHeaderMapper(headerMapper);
+
+        Message<String> message = MessageBuilder.withPayload(EVENT_DATA).setHeader("app_name", "name")
+                                                .setHeader("app_secret", "secret").setHeader("other", "other")
+                                                .build();
+        Map<String, Object> properties = converter.fromMessage(message, EventData.class).getProperties();
+
+        assertEquals(Collections.singletonMap("app_name", "name"), properties);
+    }
+
+    @Test
+    public void testAliasesResolvedWhenReceiving() {
+        DefaultAzureHeaderMapper headerMapper = new DefaultAzureHeaderMapper();
+        headerMapper.setAliasesEnabled(true);
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        converter.setHeaderMapper(headerMapper);
+
+        LinkedMultiValueMap<String, String> nativeHeaders = new LinkedMultiValueMap<>();
+        nativeHeaders.put(NATIVE_HEADERS_SPAN_ID_KEY, NATIVE_HEADERS_SPAN_ID_VALUE);
+        Message<String> message = MessageBuilder.withPayload(EVENT_DATA)
+                                                .setHeader(MessageHeaders.CONTENT_TYPE, "text/plain")
+                                                .setHeader(AzureHeaders.PARTITION_KEY, "key")
+                                                .setHeader(NativeMessageHeaderAccessor.NATIVE_HEADERS, nativeHeaders)
+                                                .build();
+        EventData eventData = converter.fromMessage(message, EventData.class);
+
+        assertEquals("text/plain", eventData.getProperties().get("ct"));
+        assertEquals("key", eventData.getProperties().get("pk"));
+        assertFalse(eventData.getProperties().containsKey(MessageHeaders.CONTENT_TYPE));
+
+        // Receivers resolve aliases without sending them
+        DefaultAzureHeaderMapper receiverHeaderMapper = new DefaultAzureHeaderMapper();
+        receiverHeaderMapper.setAliasesResolved(true);
+        EventHubMessageConverter receiver = new EventHubMessageConverter();
+        receiver.setHeaderMapper(receiverHeaderMapper);
+        MessageHeaders headers = receiver.toMessage(eventData, String.class).getHeaders();
+        assertEquals("text/plain", headers.get(MessageHeaders.CONTENT_TYPE));
+        assertEquals("key", headers.get(AzureHeaders.PARTITION_KEY));
+        assertEquals(nativeHeaders, headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS));
+        assertFalse(headers.containsKey("ct"));
+    }
+
+    @Test
+    public void testAliasesNotResolvedUnlessEnabled() {
+        EventData eventData = new EventData(EVENT_DATA.getBytes(StandardCharsets.UTF_8));
+        eventData.getProperties().put("ct", "user value");
+
+        MessageHeaders headers = getConverter().toMessage(eventData, String.class).getHeaders();
+
+        assertEquals("user value", headers.get("ct"));
+        assertFalse(headers.containsKey(MessageHeaders.CONTENT_TYPE));
     }
 }
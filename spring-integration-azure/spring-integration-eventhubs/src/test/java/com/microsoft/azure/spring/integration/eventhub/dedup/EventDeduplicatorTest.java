@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dedup;
+
+import com.azure.messaging.eventhubs.EventData;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EventDeduplicatorTest {
+
+    private static final String MESSAGE_ID = "message-id";
+
+    @Test
+    public void testReplayedSequenceNumbersAreDuplicates() {
+        EventDeduplicator deduplicator = new EventDeduplicator(DeduplicationConfig.builder().build());
+
+        assertFalse(deduplicator.isDuplicate("0", event(10L, null)));
+        deduplicator.onProcessed("0", event(10L, null));
+
+        assertTrue(deduplicator.isDuplicate("0", event(9L, null)));
+        assertTrue(deduplicator.isDuplicate("0", event(10L, null)));
+        assertFalse(deduplicator.isDuplicate("0", event(11L, null)));
+        assertFalse(deduplicator.isDuplicate("1", event(10L, null)));
+        assertEquals(2, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    public void testRecentMessageIdsAreDuplicates() {
+        EventDeduplicator deduplicator = new EventDeduplicator(DeduplicationConfig.builder().windowSize(2)
+                                                                                  .messageIdProperty(MESSAGE_ID)
+                                                                                  .build());
+        deduplicator.onProcessed("0", event(1L, "a"));
+        deduplicator.onProcessed("0", event(2L, "b"));
+
+        // Sent again by the producer, so it has a new sequence number
+        assertTrue(deduplicator.isDuplicate("0", event(3L, "a")));
+
+        // Window only keeps the last two ids
+        deduplicator.onProcessed("0", event(3L, "c"));
+        assertFalse(deduplicator.isDuplicate("0", event(4L, "a")));
+        assertTrue(deduplicator.isDuplicate("0", event(4L, "b")));
+    }
+
+    @Test
+    public void testWindowEvictsOldestValues() {
+        LongWindow window = new LongWindow(100);
+
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(window.add(i * 31));
+            assertFalse(window.add(i * 31));
+        }
+
+        assertEquals(100, window.size());
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i >= 900, window.contains(i * 31));
+        }
+    }
+
+    private static EventData event(Long sequenceNumber, String messageId) {
+        EventData event = mock(EventData.class);
+        Map<String, Object> properties = new HashMap<>();
+        if (messageId != null) {
+            properties.put(MESSAGE_ID, messageId);
+        }
+        when(event.getSequenceNumber()).thenReturn(sequenceNumber);
+        when(event.getProperties()).thenReturn(properties);
+        return event;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.dispatch;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KeyOrderedEventDispatcherTest {
+
+    private final PartitionContext partitionContext = mock(PartitionContext.class);
+
+    private final KeyOrderedEventDispatcher dispatcher = new KeyOrderedEventDispatcher(
+            DispatchConfig.builder().concurrency(4).keyExtractor(e -> e.getProperties().get("key")).build());
+
+    @After
+    public void tearDown() {
+        this.dispatcher.destroy();
+    }
+
+    @Test
+    public void testSameKeyHandledInOrder() throws InterruptedException {
+        when(this.partitionContext.getPartitionId()).thenReturn("1");
+        List<EventContext> events = IntStream.range(0, 100).mapToObj(i -> event("a")).collect(Collectors.toList());
+        List<EventContext> handled = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(events.size());
+
+        events.forEach(e -> this.dispatcher.dispatch(e, () -> handled.add(e), c -> completed.countDown()));
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(events, handled);
+    }
+
+    @Test
+    public void testCompletionWaitsForEarlierEvents() throws InterruptedException {
+        when(this.partitionContext.getPartitionId()).thenReturn("1");
+        EventContext slow = event("a");
+        EventContext fast = event("b");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastHandled = new CountDownLatch(1);
+        List<EventContext> completed = Collections.synchronizedList(new ArrayList<>());
+
+        this.dispatcher.dispatch(slow, () -> await(release), completed::add);
+        this.dispatcher.dispatch(fast, fastHandled::countDown, completed::add);
+
+        assertTrue(fastHandled.await(5, TimeUnit.SECONDS));
+        assertTrue(completed.isEmpty());
+
+        release.countDown();
+        this.dispatcher.destroy();
+        assertTrue(awaitSize(completed, 2));
+        assertEquals(slow, completed.get(0));
+        assertEquals(fast, completed.get(1));
+    }
+
+    @Test
+    public void testFailedEventHoldsCheckpoint() throws InterruptedException {
+        when(this.partitionContext.getPartitionId()).thenReturn("1");
+        EventContext before = event("a");
+        EventContext failed = event("b");
+        EventContext after = event("c");
+        List<EventContext> completed = Collections.synchronizedList(new ArrayList<>());
+
+        this.dispatcher.dispatch(before, () -> {
+        }, completed::add);
+        this.dispatcher.dispatch(failed, () -> {
+            throw new IllegalStateException("handler failed");
+        }, completed::add);
+        this.dispatcher.dispatch(after, () -> {
+        }, completed::add);
+
+        this.dispatcher.destroy();
+        assertTrue(awaitSize(completed, 1));
+        Thread.sleep(200);
+        assertEquals(Collections.singletonList(before), completed);
+    }
+
+    private EventContext event(String key) {
+        EventData eventData = new EventData("body");
+        eventData.getProperties().put("key", key);
+        EventContext context = mock(EventContext.class);
+        when(context.getPartitionContext()).thenReturn(this.partitionContext);
+        when(context.getEventData()).thenReturn(eventData);
+        return context;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 50 && list.size() < size; i++) {
+            Thread.sleep(100);
+        }
+        return list.size() == size;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.factory;
+
+import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubProducerPoolTest {
+
+    @Mock
+    private EventHubProducerAsyncClient first;
+
+    @Mock
+    private EventHubProducerAsyncClient second;
+
+    @Mock
+    private EventHubProducerAsyncClient third;
+
+    @Test
+    public void testRoundRobin() {
+        EventHubProducerPool pool = new EventHubProducerPool(Arrays.asList(first, second, third),
+                ProducerPoolConfig.Strategy.ROUND_ROBIN);
+
+        assertSame(first, pool.next());
+        assertSame(second, pool.next());
+        assertSame(third, pool.next());
+        assertSame(first, pool.next());
+    }
+
+    @Test
+    public void testLeastInFlight() {
+        EventHubProducerPool pool = new EventHubProducerPool(Arrays.asList(first, second, third),
+                ProducerPoolConfig.Strategy.LEAST_IN_FLIGHT);
+        MonoProcessor<Void> pending = MonoProcessor.create();
+
+        // Two sends keep the first and the second producer busy
+        pool.execute(producer -> pending).subscribe();
+        pool.execute(producer -> pending).subscribe();
+        assertArrayEquals(new int[]{1, 1, 0}, pool.getInFlightCounts());
+
+        EventHubProducerAsyncClient picked = pool.execute(Mono::just).block(Duration.ofSeconds(5));
+        assertSame(third, picked);
+
+        // Still busy producers are skipped even when it's their turn
+        assertSame(third, pool.execute(Mono::just).block(Duration.ofSeconds(5)));
+
+        pending.onComplete();
+        assertArrayEquals(new int[]{0, 0, 0}, pool.getInFlightCounts());
+    }
+
+    @Test
+    public void testInFlightReleasedOnError() {
+        EventHubProducerPool pool = new EventHubProducerPool(Arrays.asList(first, second),
+                ProducerPoolConfig.Strategy.LEAST_IN_FLIGHT);
+
+        pool.execute(producer -> Mono.error(new IllegalStateException("Send failed."))).onErrorResume(
+                t -> Mono.empty()).block(Duration.ofSeconds(5));
+        pool.execute(producer -> {
+            throw new IllegalStateException("Send failed.");
+        }).onErrorResume(t -> Mono.empty()).block(Duration.ofSeconds(5));
+
+        assertArrayEquals(new int[]{0, 0}, pool.getInFlightCounts());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventHubFluxProcessorTest {
+
+    private final List<Message<?>> received = new CopyOnWriteArrayList<>();
+
+    private final AtomicReference<EventHubFluxProcessor> processor = new AtomicReference<>();
+
+    private final ExecutorService receivingThread = Executors.newSingleThreadExecutor();
+
+    private final PartitionContext partitionContext = mock(PartitionContext.class);
+
+    private BaseSubscriber<Message<?>> subscriber;
+
+    @Before
+    public void setUp() {
+        when(this.partitionContext.getPartitionId()).thenReturn("0");
+
+        this.subscriber = new BaseSubscriber<Message<?>>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // Request nothing until the test asks
+            }
+
+            @Override
+            protected void hookOnNext(Message<?> message) {
+                received.add(message);
+            }
+        };
+
+        Flux.<Message<?>>create(sink -> this.processor.set(new EventHubFluxProcessor(sink, 1, String.class,
+                CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build(),
+                new EventHubMessageConverter()))).subscribe(this.subscriber);
+    }
+
+    @After
+    public void tearDown() {
+        this.subscriber.dispose();
+        this.receivingThread.shutdownNow();
+    }
+
+    @Test
+    public void testEmitAndCheckpointOnlyAsRequested() throws Exception {
+        EventContext first = eventContext("a");
+        EventContext second = eventContext("b");
+        EventContext third = eventContext("c");
+
+        this.subscriber.request(1);
+        // The third event waits for buffer space, pausing the receiving thread
+        this.receivingThread.submit(() -> {
+            this.processor.get().onEvent(first);
+            this.processor.get().onEvent(second);
+            this.processor.get().onEvent(third);
+        });
+
+        verify(first, timeout(5000)).updateCheckpointAsync();
+        Thread.sleep(200);
+        assertEquals(1, this.received.size());
+        assertEquals(1, this.processor.get().getBufferedCount());
+        verify(second, never()).updateCheckpointAsync();
+
+        this.subscriber.request(2);
+
+        verify(third, timeout(5000)).updateCheckpointAsync();
+        assertEquals(3, this.received.size());
+        assertEquals("c", this.received.get(2).getPayload());
+    }
+
+    @Test
+    public void testBufferedEventsNotCheckpointedAfterCancel() throws Exception {
+        EventContext first = eventContext("a");
+
+        this.processor.get().onEvent(first);
+        this.subscriber.dispose();
+
+        Thread.sleep(200);
+        assertEquals(0, this.received.size());
+        assertEquals(0, this.processor.get().getBufferedCount());
+        verify(first, never()).updateCheckpointAsync();
+    }
+
+    private EventContext eventContext(String payload) {
+        EventContext context = mock(EventContext.class);
+        when(context.getPartitionContext()).thenReturn(this.partitionContext);
+        when(context.getEventData()).thenReturn(new EventData(payload));
+        when(context.updateCheckpointAsync()).thenReturn(Mono.empty());
+        return context;
+    }
+}
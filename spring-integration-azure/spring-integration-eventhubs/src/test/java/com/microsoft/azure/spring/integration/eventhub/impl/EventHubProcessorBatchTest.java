@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.EventBatchContext;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubProcessorBatchTest {
+
+    @Mock
+    private EventBatchContext batchContext;
+
+    @Mock
+    private PartitionContext partitionContext;
+
+    private final List<Message<?>> received = new ArrayList<>();
+
+    private EventHubProcessor processor;
+
+    @Before
+    public void setUp() {
+        this.processor = new EventHubProcessor(received::add, String.class,
+                CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build(),
+                new EventHubMessageConverter());
+    }
+
+    @Test
+    public void testBatchDeliveredAsOneMessage() {
+        when(this.partitionContext.getPartitionId()).thenReturn("1");
+        when(this.batchContext.getPartitionContext()).thenReturn(this.partitionContext);
+        when(this.batchContext.getEvents()).thenReturn(Arrays.asList(new EventData("a"), new EventData("b")));
+        when(this.batchContext.updateCheckpointAsync()).thenReturn(Mono.empty());
+
+        this.processor.onEventBatch(this.batchContext);
+
+        assertEquals(1, received.size());
+        assertEquals(Arrays.asList("a", "b"), received.get(0).getPayload());
+        assertEquals(2, ((List<?>) received.get(0).getHeaders().get(AzureHeaders.BATCH_CONVERTED_HEADERS)).size());
+        verify(this.batchContext, times(1)).updateCheckpointAsync();
+    }
+
+    @Test
+    public void testEmptyBatchIgnored() {
+        when(this.batchContext.getEvents()).thenReturn(Collections.emptyList());
+
+        this.processor.onEventBatch(this.batchContext);
+
+        assertTrue(received.isEmpty());
+        verify(this.batchContext, never()).updateCheckpointAsync();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.models.CloseContext;
+import com.azure.messaging.eventhubs.models.CloseReason;
+import com.azure.messaging.eventhubs.models.EventContext;
+import com.azure.messaging.eventhubs.models.InitializationContext;
+import com.azure.messaging.eventhubs.models.LastEnqueuedEventProperties;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.metrics.EventHubMetrics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubProcessorMetricsTest {
+
+    private final PartitionContext partitionContext = new PartitionContext("namespace", "eventHub", "group", "0");
+
+    @Mock
+    private EventHubMetrics metrics;
+
+    @Mock
+    private EventData eventData;
+
+    private EventHubProcessor processor;
+
+    @Before
+    public void setUp() {
+        this.processor = new EventHubProcessor(message -> {
+        }, String.class, CheckpointConfig.builder().checkpointMode(CheckpointMode.MANUAL).build(),
+                new EventHubMessageConverter());
+        this.processor.setMetrics(this.metrics);
+    }
+
+    @Test
+    public void testOwnershipChangesReported() {
+        this.processor.onInitialize(new InitializationContext(this.partitionContext));
+        this.processor.onClose(new CloseContext(this.partitionContext, CloseReason.LOST_PARTITION_OWNERSHIP));
+
+        verify(this.metrics).onPartitionInitialized(this.partitionContext);
+        verify(this.metrics).onPartitionClosed(this.partitionContext, CloseReason.LOST_PARTITION_OWNERSHIP);
+    }
+
+    @Test
+    public void testLagReported() {
+        Instant enqueuedTime = Instant.parse("2020-01-01T00:00:00Z");
+        when(this.eventData.getSequenceNumber()).thenReturn(90L);
+        when(this.eventData.getEnqueuedTime()).thenReturn(enqueuedTime);
+        LastEnqueuedEventProperties lastEnqueued = new LastEnqueuedEventProperties(100L, 1000L,
+                enqueuedTime.plusSeconds(30), Instant.now());
+
+        this.processor.recordLag(this.partitionContext, this.eventData, lastEnqueued);
+
+        verify(this.metrics).onPartitionLag(this.partitionContext, 10, Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void testLagNotReportedWithoutLastEnqueuedProperties() {
+        EventContext context = new EventContext(this.partitionContext, new EventData("a"), null, null);
+
+        this.processor.onEvent(context);
+
+        verify(this.metrics, never()).onPartitionLag(any(), anyLong(), any());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.metrics;
+
+import com.azure.messaging.eventhubs.models.CloseReason;
+import com.azure.messaging.eventhubs.models.PartitionContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MicrometerEventHubMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MicrometerEventHubMetrics metrics = new MicrometerEventHubMetrics(this.registry);
+
+    @Test
+    public void testOwnershipChangesRecorded() {
+        PartitionContext first = new PartitionContext("namespace", "eventHub", "group", "0");
+        PartitionContext second = new PartitionContext("namespace", "eventHub", "group", "1");
+
+        this.metrics.onPartitionInitialized(first);
+        this.metrics.onPartitionInitialized(second);
+        assertEquals(2, this.registry.get(MicrometerEventHubMetrics.OWNED_PARTITIONS).gauge().value(), 0);
+
+        this.metrics.onPartitionClosed(first, CloseReason.LOST_PARTITION_OWNERSHIP);
+
+        assertEquals(1, this.registry.get(MicrometerEventHubMetrics.OWNERSHIP_GAINED)
+                                     .tag(MicrometerEventHubMetrics.TAG_PARTITION, "0").counter().count(), 0);
+        assertEquals(1, this.registry.get(MicrometerEventHubMetrics.OWNERSHIP_LOST)
+                                     .tag(MicrometerEventHubMetrics.TAG_PARTITION, "0")
+                                     .tag(MicrometerEventHubMetrics.TAG_REASON, "LOST_PARTITION_OWNERSHIP")
+                                     .counter().count(), 0);
+        assertEquals(1, this.registry.get(MicrometerEventHubMetrics.OWNED_PARTITIONS).gauge().value(), 0);
+    }
+
+    @Test
+    public void testLagGaugesRemovedWhenPartitionClosed() {
+        PartitionContext partition = new PartitionContext("namespace", "eventHub", "group", "0");
+
+        this.metrics.onPartitionLag(partition, 10, Duration.ofSeconds(30));
+        this.metrics.onPartitionLag(partition, 5, Duration.ofSeconds(15));
+
+        assertEquals(5, this.registry.get(MicrometerEventHubMetrics.LAG_EVENTS)
+                                     .tag(MicrometerEventHubMetrics.TAG_PARTITION, "0").gauge().value(), 0);
+        assertEquals(15, this.registry.get(MicrometerEventHubMetrics.LAG_SECONDS).gauge().value(), 0);
+
+        this.metrics.onPartitionClosed(partition, CloseReason.SHUTDOWN);
+
+        assertNull(this.registry.find(MicrometerEventHubMetrics.LAG_EVENTS).gauge());
+    }
+
+    @Test
+    public void testSavedCheckpointWritesCounted() {
+        PartitionContext partition = new PartitionContext("namespace", "eventHub", "group", "0");
+
+        this.metrics.onCheckpointWrite(partition, 1);
+        this.metrics.onCheckpointWrite(partition, 4);
+
+        assertEquals(2, this.registry.get(MicrometerEventHubMetrics.CHECKPOINT_WRITES)
+                                     .tag(MicrometerEventHubMetrics.TAG_PARTITION, "0").counter().count(), 0);
+        assertEquals(3, this.registry.get(MicrometerEventHubMetrics.CHECKPOINT_SAVED_WRITES)
+                                     .tag(MicrometerEventHubMetrics.TAG_PARTITION, "0").counter().count(), 0);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.routing;
+
+import com.azure.messaging.eventhubs.EventHubProducerAsyncClient;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubPartitionRouterTest {
+
+    private static final String EVENT_HUB = "eventHub";
+
+    // Calls default methods so that partition ids are fetched from the stubbed producer client
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private EventHubClientFactory mockClientFactory;
+
+    @Mock
+    private EventHubProducerAsyncClient mockProducerClient;
+
+    @Before
+    public void setUp() {
+        when(this.mockClientFactory.getOrCreateProducerClient(EVENT_HUB)).thenReturn(this.mockProducerClient);
+        when(this.mockProducerClient.getPartitionIds()).thenReturn(Flux.just("10", "2", "0", "1"));
+    }
+
+    @Test
+    public void testMurmur3() {
+        assertEquals(0, EventHubPartitionRouter.murmur3(new byte[0]));
+        assertEquals(0x248bfa47, EventHubPartitionRouter.murmur3("hello".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(0x2e4ff723, EventHubPartitionRouter.murmur3(
+                "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testKeyedRoutingStableAndCached() {
+        EventHubPartitionRouter router = new EventHubPartitionRouter(this.mockClientFactory,
+                PartitionRoutingConfig.builder().build());
+
+        assertEquals(Arrays.asList("0", "1", "2", "10"), router.getPartitionIds(EVENT_HUB).block());
+
+        String expected = Arrays.asList("0", "1", "2", "10").get(EventHubPartitionRouter.partitionIndexOf("key", 4));
+        for (int i = 0; i < 3; i++) {
+            PartitionSupplier routed = router.route(EVENT_HUB, keyed("key")).block(Duration.ofSeconds(5));
+            assertEquals(expected, routed.getPartitionId());
+            assertNull(routed.getPartitionKey());
+        }
+
+        verify(this.mockProducerClient, times(1)).getPartitionIds();
+    }
+
+    @Test
+    public void testPartitionIdKept() {
+        EventHubPartitionRouter router = new EventHubPartitionRouter(this.mockClientFactory,
+                PartitionRoutingConfig.builder().build());
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionId("2");
+
+        assertSame(partitionSupplier, router.route(EVENT_HUB, partitionSupplier).block());
+        verify(this.mockProducerClient, never()).getPartitionIds();
+        assertEquals(4, router.getPartitionIds(EVENT_HUB).block().size());
+    }
+
+    @Test
+    public void testRoundRobin() {
+        EventHubPartitionRouter router = new EventHubPartitionRouter(this.mockClientFactory,
+                PartitionRoutingConfig.builder().build());
+
+        assertEquals("0", route(router));
+        assertEquals("1", route(router));
+        assertEquals("2", route(router));
+        assertEquals("10", route(router));
+        assertEquals("0", route(router));
+    }
+
+    @Test
+    public void testStickyMovesOnAfterBatchSent() {
+        EventHubPartitionRouter router = new EventHubPartitionRouter(this.mockClientFactory,
+                PartitionRoutingConfig.builder().unkeyedStrategy(PartitionRoutingConfig.UnkeyedStrategy.STICKY)
+                                      .build());
+
+        assertEquals("0", route(router));
+        assertEquals("0", route(router));
+
+        router.onBatchSent(EVENT_HUB, "0");
+
+        assertEquals("1", route(router));
+    }
+
+    @Test
+    public void testStalePartitionIdsRefreshed() throws Exception {
+        EventHubPartitionRouter router = new EventHubPartitionRouter(this.mockClientFactory,
+                PartitionRoutingConfig.builder().refreshInterval(Duration.ofMillis(1)).build());
+
+        router.getPartitionIds(EVENT_HUB).block();
+        Thread.sleep(10);
+        router.getPartitionIds(EVENT_HUB).block();
+
+        verify(this.mockProducerClient, times(2)).getPartitionIds();
+    }
+
+    private static String route(EventHubPartitionRouter router) {
+        return router.route(EVENT_HUB, null).block(Duration.ofSeconds(5)).getPartitionId();
+    }
+
+    private static PartitionSupplier keyed(String partitionKey) {
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionKey(partitionKey);
+        return partitionSupplier;
+    }
+}
@@ -5,6 +5,10 @@
  */
 package com.microsoft.azure.spring.integration.servicebus;
 
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
 /**
  * Service bus client related config
  *
@@ -13,6 +17,8 @@ package com.microsoft.azure.spring.integration.servicebus;
  */
 public class ServiceBusClientConfig {
 
+    public static final Duration DEFAULT_SESSION_IDLE_TIMEOUT = Duration.ofMinutes(1);
+
     private final int prefetchCount;
 
     private final int concurrency;
@@ -21,13 +27,39 @@ public class ServiceBusClientConfig {
 
     private final boolean requeueRejected;
 
+    /**
+     * The max number of sessions handled at the same time. Defaults to {@link #concurrency}
+     */
+    private final int maxConcurrentSessions;
+
+    /**
+     * The max number of messages of one session handled at the same time
+     */
+    private final int maxConcurrentCallsPerSession;
+
+    /**
+     * How long an accepted session waits for its next message before it's closed, so another session can be accepted
+     */
+    private final Duration sessionIdleTimeout;
+
+    /**
+     * Prefetch count of the receiver of each accepted session. Defaults to {@link #prefetchCount}
+     */
+    private final int sessionPrefetchCount;
+
     private ServiceBusClientConfig(int prefetchCount, int concurrency, boolean sessionsEnabled,
-                                   boolean requeueRejected) {
+                                   boolean requeueRejected, int maxConcurrentSessions,
+                                   int maxConcurrentCallsPerSession, Duration sessionIdleTimeout,
+                                   int sessionPrefetchCount) {
 
         this.prefetchCount = prefetchCount;
         this.concurrency = concurrency;
         this.sessionsEnabled = sessionsEnabled;
         this.requeueRejected = requeueRejected;
+        this.maxConcurrentSessions = maxConcurrentSessions;
+        this.maxConcurrentCallsPerSession = maxConcurrentCallsPerSession;
+        this.sessionIdleTimeout = sessionIdleTimeout;
+        this.sessionPrefetchCount = sessionPrefetchCount;
     }
 
     public int getPrefetchCount() {
@@ -46,15 +78,44 @@ public class ServiceBusClientConfig {
         return requeueRejected;
     }
 
+    public int getMaxConcurrentSessions() {
+        return maxConcurrentSessions;
+    }
+
+    public int getMaxConcurrentCallsPerSession() {
+        return maxConcurrentCallsPerSession;
+    }
+
+    public Duration getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+    public int getSessionPrefetchCount() {
+        return sessionPrefetchCount;
+    }
+
     public static ServiceBusClientConfigBuilder builder() {
         return new ServiceBusClientConfigBuilder();
     }
 
+    @Override
+    public String toString() {
+        return "ServiceBusClientConfig{" + "prefetchCount=" + prefetchCount + ", concurrency=" + concurrency +
+                ", sessionsEnabled=" + sessionsEnabled + ", requeueRejected=" + requeueRejected +
+                ", maxConcurrentSessions=" + maxConcurrentSessions + ", maxConcurrentCallsPerSession=" +
+                maxConcurrentCallsPerSession + ", sessionIdleTimeout=" + sessionIdleTimeout +
+                ", sessionPrefetchCount=" + sessionPrefetchCount + '}';
+    }
+
     public static class ServiceBusClientConfigBuilder {
         private int prefetchCount = 1;
         private int concurrency = 1;
         private boolean sessionsEnabled = false;
         private boolean requeueRejected = false;
+        private Integer maxConcurrentSessions;
+        private int maxConcurrentCallsPerSession = 1;
+        private Duration sessionIdleTimeout = DEFAULT_SESSION_IDLE_TIMEOUT;
+        private Integer sessionPrefetchCount;
 
         public void setRequeueRejected(boolean requeueRejected) {
             this.requeueRejected = requeueRejected;
@@ -75,8 +136,43 @@ public class ServiceBusClientConfig {
             return this;
         }
 
+        /**
+         * @param maxConcurrentSessions {@code null} to use the concurrency
+         */
+        public ServiceBusClientConfigBuilder setMaxConcurrentSessions(Integer maxConcurrentSessions) {
+            this.maxConcurrentSessions = maxConcurrentSessions;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setMaxConcurrentCallsPerSession(int maxConcurrentCallsPerSession) {
+            this.maxConcurrentCallsPerSession = maxConcurrentCallsPerSession;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setSessionIdleTimeout(Duration sessionIdleTimeout) {
+            this.sessionIdleTimeout = sessionIdleTimeout;
+            return this;
+        }
+
+        /**
+         * @param sessionPrefetchCount {@code null} to use the prefetch count
+         */
+        public ServiceBusClientConfigBuilder setSessionPrefetchCount(Integer sessionPrefetchCount) {
+            this.sessionPrefetchCount = sessionPrefetchCount;
+            return this;
+        }
+
         public ServiceBusClientConfig build() {
-            return new ServiceBusClientConfig(prefetchCount, concurrency, sessionsEnabled, requeueRejected);
+            int sessions = maxConcurrentSessions == null ? concurrency : maxConcurrentSessions;
+            int sessionPrefetch = sessionPrefetchCount == null ? prefetchCount : sessionPrefetchCount;
+            Assert.isTrue(sessions > 0, "maxConcurrentSessions should be positive");
+            Assert.isTrue(maxConcurrentCallsPerSession > 0, "maxConcurrentCallsPerSession should be positive");
+            Assert.isTrue(sessionIdleTimeout != null && !sessionIdleTimeout.isNegative(),
+                    "sessionIdleTimeout can't be null or negative");
+            Assert.isTrue(sessionPrefetch >= 0, "sessionPrefetchCount can't be negative");
+
+            return new ServiceBusClientConfig(prefetchCount, concurrency, sessionsEnabled, requeueRejected, sessions,
+                    maxConcurrentCallsPerSession, sessionIdleTimeout, sessionPrefetch);
         }
     }
 }
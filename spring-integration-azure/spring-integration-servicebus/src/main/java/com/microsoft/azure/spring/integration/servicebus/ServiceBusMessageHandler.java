@@ -15,6 +15,7 @@ import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.Checkpointer;
 import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
@@ -25,6 +26,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public abstract class ServiceBusMessageHandler<U> implements IMessageHandler {
     private static final Logger log = LoggerFactory.getLogger(ServiceBusMessageHandler.class);
@@ -32,6 +34,8 @@ public abstract class ServiceBusMessageHandler<U> implements IMessageHandler {
     protected final Class<U> payloadType;
     protected final CheckpointConfig checkpointConfig;
     protected final ServiceBusMessageConverter messageConverter;
+    protected LockRenewalScheduler lockRenewalScheduler;
+    protected String lockRenewalEntityPath;
 
     public ServiceBusMessageHandler(Consumer<Message<U>> consumer, Class<U> payloadType,
                                     CheckpointConfig checkpointConfig, ServiceBusMessageConverter messageConverter) {
@@ -43,18 +47,33 @@ public abstract class ServiceBusMessageHandler<U> implements IMessageHandler {
 
     @Override
     public CompletableFuture<Void> onMessageAsync(IMessage serviceBusMessage) {
+        UUID lockToken = serviceBusMessage.getLockToken();
         Map<String, Object> headers = new HashMap<>();
-        headers.put(AzureHeaders.LOCK_TOKEN, serviceBusMessage.getLockToken());
+        headers.put(AzureHeaders.LOCK_TOKEN, lockToken);
 
-        Checkpointer checkpointer = new AzureCheckpointer(() -> this.success(serviceBusMessage.getLockToken()),
-                () -> this.failure(serviceBusMessage.getLockToken()));
+        Checkpointer checkpointer = new AzureCheckpointer(() -> settle(lockToken, this::success),
+                () -> settle(lockToken, this::failure));
 
         if (checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
             headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
+
+            if (this.lockRenewalScheduler != null) {
+                this.lockRenewalScheduler.track(this.lockRenewalEntityPath, serviceBusMessage);
+            }
         }
 
         Message<U> message = messageConverter.toMessage(serviceBusMessage, new MessageHeaders(headers), payloadType);
-        consumer.accept(message);
+
+        try {
+            consumer.accept(message);
+        } catch (RuntimeException e) {
+            if (this.lockRenewalScheduler != null) {
+                // Let the message be redelivered once its lock expires
+                this.lockRenewalScheduler.untrack(lockToken);
+            }
+
+            throw e;
+        }
 
         if (checkpointConfig.getCheckpointMode() == CheckpointMode.RECORD) {
             return checkpointer.success().whenComplete((v, t) -> checkpointHandler(message, t));
@@ -63,6 +82,32 @@ public abstract class ServiceBusMessageHandler<U> implements IMessageHandler {
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * Stop renewing the lock of a message once it's settled
+     */
+    protected CompletableFuture<Void> settle(UUID lockToken, Function<UUID, CompletableFuture<Void>> settlement) {
+        if (this.lockRenewalScheduler != null) {
+            this.lockRenewalScheduler.untrack(lockToken);
+        }
+
+        return settlement.apply(lockToken);
+    }
+
+    public LockRenewalScheduler getLockRenewalScheduler() {
+        return lockRenewalScheduler;
+    }
+
+    /**
+     * Keep renewing the locks of messages checkpointed in {@link CheckpointMode#MANUAL} mode after the handler
+     * returns, until they are settled
+     *
+     * @param entityPath the path of the queue or subscription the messages are received from
+     */
+    public void setLockRenewal(String entityPath, LockRenewalScheduler lockRenewalScheduler) {
+        this.lockRenewalEntityPath = entityPath;
+        this.lockRenewalScheduler = lockRenewalScheduler;
+    }
+
     @Override
     public void notifyException(Throwable exception, ExceptionPhase phase) {
         log.error(String.format("Exception encountered in phase %s", phase), exception);
@@ -6,37 +6,57 @@
 
 package com.microsoft.azure.spring.integration.servicebus;
 
-import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageEntityClient;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.servicebus.IMessageSender;
 import com.microsoft.azure.servicebus.MessageHandlerOptions;
 import com.microsoft.azure.servicebus.SessionHandlerOptions;
+import com.microsoft.azure.servicebus.primitives.ServiceBusException;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
+import com.microsoft.azure.spring.integration.servicebus.batch.ServiceBusBatchConfig;
+import com.microsoft.azure.spring.integration.servicebus.batch.ServiceBusBatchProducer;
 import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import com.microsoft.azure.spring.integration.servicebus.executor.ServiceBusHandlerExecutor;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusReceiverFactory;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusSenderFactory;
+import com.microsoft.azure.spring.integration.servicebus.metrics.ServiceBusMetrics;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalConfig;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
- * Azure service bus template to support send {@link Message} asynchronously
+ * Azure service bus template to support send {@link Message} asynchronously, one by one or in batch
  *
  * @author Warren Zhu
  * @author Eduardo Sciullo
  */
-public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements SendOperation {
+public class ServiceBusTemplate<T extends ServiceBusSenderFactory>
+        implements SendOperation, BatchSendOperation, DisposableBean {
     private static final Logger log = LoggerFactory.getLogger(ServiceBusTemplate.class);
 
     protected final T senderFactory;
@@ -48,6 +68,24 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
 
     protected ServiceBusMessageConverter messageConverter = new ServiceBusMessageConverter();
 
+    private int maxBatchSizeInBytes = ServiceBusBatchConfig.DEFAULT_MAX_BATCH_SIZE_IN_BYTES;
+
+    private ServiceBusBatchProducer batchProducer;
+
+    private ServiceBusMetrics metrics;
+
+    private ServiceBusHandlerExecutor handlerExecutor;
+
+    private boolean ownsHandlerExecutor;
+
+    private LockRenewalConfig lockRenewalConfig = LockRenewalConfig.builder().build();
+
+    private LockRenewalScheduler lockRenewalScheduler;
+
+    private final Set<LockRenewalScheduler> lockRenewalSchedulers = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService lockRenewalTicker;
+
     public ServiceBusTemplate(@NonNull T senderFactory) {
         this.senderFactory = senderFactory;
         log.info("Started ServiceBusTemplate with properties: {}", checkpointConfig);
@@ -57,14 +95,189 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
     public <U> CompletableFuture<Void> sendAsync(String destination, @NonNull Message<U> message,
             PartitionSupplier partitionSupplier) {
         Assert.hasText(destination, "destination can't be null or empty");
+        IMessage serviceBusMessage = toServiceBusMessage(message, getPartitionKey(partitionSupplier));
+
+        if (this.batchProducer != null) {
+            return this.batchProducer.send(destination, serviceBusMessage);
+        }
+
+        return this.senderFactory.getOrCreateSender(destination).sendAsync(serviceBusMessage);
+    }
+
+    /**
+     * Send messages with as few {@link com.microsoft.azure.servicebus.IMessageSender#sendBatchAsync(Collection)}
+     * calls as possible. Messages are split into consecutive batches whose estimated size fits in the max batch size.
+     * Batches are sent concurrently, unless messages have a partition key or session id, in which case each batch is
+     * only sent once the previous one is, so that their order is kept.
+     */
+    @Override
+    public <U> CompletableFuture<Void> sendAsync(String destination, @NonNull Collection<Message<U>> messages,
+                                                 PartitionSupplier partitionSupplier) {
+        Assert.hasText(destination, "destination can't be null or empty");
         String partitionKey = getPartitionKey(partitionSupplier);
+        List<IMessage> serviceBusMessages = messages.stream().map(m -> toServiceBusMessage(m, partitionKey))
+                                                    .collect(Collectors.toList());
+
+        if (serviceBusMessages.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        IMessageSender sender = this.senderFactory.getOrCreateSender(destination);
+        List<List<IMessage>> batches = ServiceBusBatchProducer.split(serviceBusMessages, getMaxBatchSizeInBytes());
+
+        if (!isOrdered(serviceBusMessages)) {
+            return CompletableFuture.allOf(batches.stream().map(sender::sendBatchAsync)
+                                                  .toArray(CompletableFuture[]::new));
+        }
+
+        CompletableFuture<Void> sent = CompletableFuture.completedFuture(null);
+
+        for (List<IMessage> batch : batches) {
+            sent = sent.thenCompose(v -> sender.sendBatchAsync(batch));
+        }
+
+        return sent;
+    }
+
+    private static boolean isOrdered(List<IMessage> messages) {
+        return messages.stream().anyMatch(m -> StringUtils.hasText(m.getPartitionKey())
+                || StringUtils.hasText(m.getSessionId()));
+    }
+
+    private <U> IMessage toServiceBusMessage(Message<U> message, String partitionKey) {
         IMessage serviceBusMessage = messageConverter.fromMessage(message, IMessage.class);
 
         if (StringUtils.hasText(partitionKey)) {
             serviceBusMessage.setPartitionKey(partitionKey);
         }
 
-        return this.senderFactory.getOrCreateSender(destination).sendAsync(serviceBusMessage);
+        return serviceBusMessage;
+    }
+
+    public ServiceBusBatchConfig getBatchConfig() {
+        return batchProducer == null ? null : batchProducer.getBatchConfig();
+    }
+
+    /**
+     * Buffer single message sends into batches per destination and partition key. Set {@code null} to send each
+     * message directly.
+     */
+    public void setBatchConfig(ServiceBusBatchConfig batchConfig) {
+        log.info("ServiceBusTemplate batch config becomes: {}", batchConfig);
+        ServiceBusBatchProducer previous = this.batchProducer;
+        this.batchProducer = batchConfig == null ? null : new ServiceBusBatchProducer(senderFactory, batchConfig);
+
+        if (batchConfig != null) {
+            this.maxBatchSizeInBytes = batchConfig.getMaxBatchSizeInBytes();
+        }
+
+        if (previous != null) {
+            previous.destroy();
+        }
+    }
+
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    public ServiceBusMetrics getMetrics() {
+        return metrics;
+    }
+
+    public synchronized void setMetrics(ServiceBusMetrics metrics) {
+        this.metrics = metrics;
+
+        if (this.ownsHandlerExecutor) {
+            this.handlerExecutor.setMetrics(metrics);
+        }
+
+        log.info("ServiceBusTemplate metrics becomes: {}", this.metrics);
+    }
+
+    public LockRenewalConfig getLockRenewalConfig() {
+        return lockRenewalConfig;
+    }
+
+    /**
+     * How long and when locks of received messages are renewed. Only applies to subscriptions made afterwards
+     */
+    public synchronized void setLockRenewalConfig(@NonNull LockRenewalConfig lockRenewalConfig) {
+        this.lockRenewalConfig = lockRenewalConfig;
+
+        if (this.lockRenewalScheduler != null
+                && !this.lockRenewalScheduler.getRenewalConfig().equals(lockRenewalConfig)) {
+            // Locks already tracked are still renewed by the previous scheduler until settled
+            this.lockRenewalScheduler = null;
+        }
+
+        log.info("ServiceBusTemplate lock renewal config becomes: {}", this.lockRenewalConfig);
+    }
+
+    /**
+     * Locks are renewed through a receiver of the same entity rather than the client receiving the messages, since
+     * queue and subscription clients don't expose lock renewal. Renewal is a request on the management link of the
+     * entity, which accepts any lock token of the entity whichever receive link the message came from. The receiver is
+     * never asked to receive, so it doesn't take messages from the client.
+     *
+     * @return the scheduler renewing locks of messages checkpointed in {@link CheckpointMode#MANUAL} mode until they
+     * are settled, or {@code null} in other modes, or if the client factory can't create message receivers
+     */
+    protected synchronized LockRenewalScheduler getLockRenewalScheduler() {
+        if (this.checkpointConfig.getCheckpointMode() != CheckpointMode.MANUAL
+                || !(this.senderFactory instanceof ServiceBusReceiverFactory)) {
+            return null;
+        }
+
+        if (this.lockRenewalScheduler == null) {
+            if (this.lockRenewalTicker == null) {
+                this.lockRenewalTicker = Executors.newSingleThreadScheduledExecutor(
+                        new ThreadFactoryBuilder().setNameFormat("servicebus-lock-renewal-%d").setDaemon(true)
+                                                  .build());
+            }
+
+            ServiceBusReceiverFactory receiverFactory = (ServiceBusReceiverFactory) this.senderFactory;
+            this.lockRenewalScheduler = new LockRenewalScheduler(this.lockRenewalConfig, (entityPath, messages) -> {
+                IMessageReceiver receiver = receiverFactory.getOrCreateReceiver(entityPath);
+                return receiver.renewMessageLockBatchAsync(messages);
+            }, this.lockRenewalTicker);
+            this.lockRenewalSchedulers.add(this.lockRenewalScheduler);
+        }
+
+        return this.lockRenewalScheduler;
+    }
+
+    /**
+     * Stop renewing the lock of a message settled outside of its {@link
+     * com.microsoft.azure.spring.integration.core.api.Checkpointer}
+     */
+    protected void untrackLock(UUID lockToken) {
+        this.lockRenewalSchedulers.forEach(s -> s.untrack(lockToken));
+    }
+
+    /**
+     * Flush buffered messages
+     */
+    @Override
+    public void destroy() {
+        if (this.batchProducer != null) {
+            this.batchProducer.destroy();
+        }
+
+        synchronized (this) {
+            if (this.ownsHandlerExecutor) {
+                this.handlerExecutor.destroy();
+                this.handlerExecutor = null;
+            }
+
+            this.lockRenewalSchedulers.forEach(LockRenewalScheduler::close);
+            this.lockRenewalSchedulers.clear();
+            this.lockRenewalScheduler = null;
+
+            if (this.lockRenewalTicker != null) {
+                this.lockRenewalTicker.shutdown();
+                this.lockRenewalTicker = null;
+            }
+        }
     }
 
     public void setCheckpointConfig(CheckpointConfig checkpointConfig) {
@@ -75,16 +288,79 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
     }
 
     protected MessageHandlerOptions buildHandlerOptions() {
-        return new MessageHandlerOptions(this.clientConfig.getConcurrency(), false, Duration.ofMinutes(5));
+        return new MessageHandlerOptions(this.clientConfig.getConcurrency(), false,
+                this.lockRenewalConfig.getMaxRenewalDuration());
     }
 
+    /**
+     * Sessions are handled independently of each other, so an idle session is closed after the session idle timeout
+     * instead of holding one of the concurrent sessions
+     */
     protected SessionHandlerOptions buildSessionHandlerOptions() {
-        return new SessionHandlerOptions(this.clientConfig.getConcurrency(), false, Duration.ofMinutes(5));
+        return new SessionHandlerOptions(this.clientConfig.getMaxConcurrentSessions(),
+                this.clientConfig.getMaxConcurrentCallsPerSession(), false,
+                this.lockRenewalConfig.getMaxRenewalDuration(), this.clientConfig.getSessionIdleTimeout());
+    }
+
+    /**
+     * @return prefetch count of the receiver of an entity, or of each accepted session if sessions are enabled
+     */
+    protected int buildPrefetchCount() {
+        return this.clientConfig.isSessionsEnabled() ? this.clientConfig.getSessionPrefetchCount() :
+                this.clientConfig.getPrefetchCount();
+    }
+
+    /**
+     * @return executor running message handlers of an entity on the shared handler executor, with at most
+     * {@link ServiceBusClientConfig#getConcurrency()} of them at the same time, or as many as all concurrent sessions
+     * handle if sessions are enabled
+     */
+    protected ExecutorService buildHandlerExecutor(String entityPath) {
+        int maxConcurrency = this.clientConfig.isSessionsEnabled() ?
+                this.clientConfig.getMaxConcurrentSessions() * this.clientConfig.getMaxConcurrentCallsPerSession() :
+                this.clientConfig.getConcurrency();
+        return getHandlerExecutor().forSubscription(entityPath, maxConcurrency);
+    }
+
+    /**
+     * Stop receiving from an entity. Its client is closed, which stops the receive pump, then its handler executor is
+     * released.
+     */
+    protected void closeReceiver(String entityPath, IMessageEntityClient client) {
+        this.lockRenewalSchedulers.forEach(s -> s.untrackAll(entityPath));
+
+        try {
+            if (client != null) {
+                client.close();
+            }
+        } catch (ServiceBusException e) {
+            log.warn("Failed to close client of " + entityPath, e);
+        } finally {
+            getHandlerExecutor().release(entityPath);
+        }
     }
 
-    protected ExecutorService buildHandlerExecutors(String threadPrefix) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(threadPrefix + "-%d").build();
-        return Executors.newFixedThreadPool(this.clientConfig.getConcurrency(), threadFactory);
+    public synchronized ServiceBusHandlerExecutor getHandlerExecutor() {
+        if (this.handlerExecutor == null) {
+            this.handlerExecutor = new ServiceBusHandlerExecutor();
+            this.handlerExecutor.setMetrics(this.metrics);
+            this.ownsHandlerExecutor = true;
+        }
+
+        return this.handlerExecutor;
+    }
+
+    /**
+     * Share one handler executor across templates. Only applies to subscriptions made afterwards
+     */
+    public synchronized void setHandlerExecutor(@NonNull ServiceBusHandlerExecutor handlerExecutor) {
+        if (this.ownsHandlerExecutor) {
+            this.handlerExecutor.destroy();
+        }
+
+        this.handlerExecutor = handlerExecutor;
+        this.ownsHandlerExecutor = false;
+        log.info("ServiceBusTemplate handler executor becomes: {}", this.handlerExecutor);
     }
 
     private String getPartitionKey(PartitionSupplier partitionSupplier) {
@@ -115,4 +391,12 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
     public ServiceBusMessageConverter getMessageConverter() {
         return messageConverter;
     }
+
+    /**
+     * Decide which headers are sent as message properties and how
+     */
+    public void setHeaderMapper(AzureHeaderMapper headerMapper) {
+        this.messageConverter.setHeaderMapper(headerMapper);
+        log.info("ServiceBusTemplate header mapper becomes: {}", headerMapper);
+    }
 }
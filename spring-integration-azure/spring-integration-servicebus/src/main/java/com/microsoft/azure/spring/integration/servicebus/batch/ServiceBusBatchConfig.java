@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.batch;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Batch related config used by {@link ServiceBusBatchProducer}
+ */
+public class ServiceBusBatchConfig {
+
+    /**
+     * 256KB is the max message size of standard tier, which also limits one batch
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE_IN_BYTES = 256 * 1024;
+
+    public static final Duration DEFAULT_LINGER_TIME = Duration.ofMillis(10);
+
+    /**
+     * The max estimated size in bytes of one batch. Pending messages will be sent once exceeded
+     */
+    private final int maxBatchSizeInBytes;
+
+    /**
+     * The max time a message waits in buffer for more messages to join its batch
+     */
+    private final Duration lingerTime;
+
+    public ServiceBusBatchConfig(int maxBatchSizeInBytes, Duration lingerTime) {
+        Assert.isTrue(maxBatchSizeInBytes > 0, "maxBatchSizeInBytes should be positive");
+        Assert.isTrue(lingerTime != null && !lingerTime.isNegative(), "lingerTime can't be null or negative");
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+        this.lingerTime = lingerTime;
+    }
+
+    public static ServiceBusBatchConfigBuilder builder() {
+        return new ServiceBusBatchConfigBuilder();
+    }
+
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    public Duration getLingerTime() {
+        return lingerTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceBusBatchConfig{" + "maxBatchSizeInBytes=" + maxBatchSizeInBytes + ", lingerTime=" + lingerTime
+                + '}';
+    }
+
+    public static class ServiceBusBatchConfigBuilder {
+        private int maxBatchSizeInBytes = DEFAULT_MAX_BATCH_SIZE_IN_BYTES;
+        private Duration lingerTime = DEFAULT_LINGER_TIME;
+
+        public ServiceBusBatchConfigBuilder maxBatchSizeInBytes(int maxBatchSizeInBytes) {
+            this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+            return this;
+        }
+
+        public ServiceBusBatchConfigBuilder lingerTime(Duration lingerTime) {
+            this.lingerTime = lingerTime;
+            return this;
+        }
+
+        public ServiceBusBatchConfig build() {
+            return new ServiceBusBatchConfig(maxBatchSizeInBytes, lingerTime);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.batch;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.MessageBody;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusSenderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer messages per (destination, partition key, session id) and send them with one
+ * {@link com.microsoft.azure.servicebus.IMessageSender#sendBatchAsync(Collection)} once the estimated size reaches
+ * {@link ServiceBusBatchConfig#getMaxBatchSizeInBytes()} or the first buffered message has waited for
+ * {@link ServiceBusBatchConfig#getLingerTime()}. Messages of partitioned entities in one batch must share the
+ * partition key, so they are buffered separately.
+ *
+ * <p>
+ * Each message gets its own {@link CompletableFuture} which completes or fails with the batch containing it.
+ */
+public class ServiceBusBatchProducer implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceBusBatchProducer.class);
+
+    /**
+     * Rough AMQP encoding overhead of one message inside a batch, including system properties
+     */
+    private static final int MESSAGE_OVERHEAD_IN_BYTES = 128;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final ServiceBusSenderFactory senderFactory;
+
+    private final ServiceBusBatchConfig batchConfig;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("servicebus-batch-producer-%d").setDaemon(true).build());
+
+    private final Map<BatchKey, Accumulator> accumulators = new ConcurrentHashMap<>();
+
+    public ServiceBusBatchProducer(@NonNull ServiceBusSenderFactory senderFactory,
+                                   @NonNull ServiceBusBatchConfig batchConfig) {
+        this.senderFactory = senderFactory;
+        this.batchConfig = batchConfig;
+    }
+
+    public CompletableFuture<Void> send(String destination, @NonNull IMessage message) {
+        BatchKey key = new BatchKey(destination, message.getPartitionKey(), message.getSessionId());
+        PendingMessage pending = new PendingMessage(message, estimateSize(message));
+
+        while (true) {
+            Accumulator accumulator = this.accumulators.computeIfAbsent(key, Accumulator::new);
+            List<PendingMessage> previous = null;
+            List<PendingMessage> current = null;
+
+            synchronized (accumulator) {
+                if (accumulator.removed) {
+                    // Removed by linger flush concurrently, retry with a new accumulator
+                    continue;
+                }
+
+                if (!accumulator.isEmpty() && accumulator.sizeInBytes + pending.sizeInBytes > maxBatchSizeInBytes()) {
+                    previous = accumulator.drain();
+                }
+
+                accumulator.add(pending);
+
+                if (accumulator.sizeInBytes >= maxBatchSizeInBytes()) {
+                    current = accumulator.drain();
+                } else if (accumulator.messages.size() == 1) {
+                    long generation = accumulator.generation;
+                    this.scheduler.schedule(() -> onLingerExpired(accumulator, generation),
+                            this.batchConfig.getLingerTime().toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+
+            if (previous != null) {
+                flush(key, previous);
+            }
+
+            if (current != null) {
+                flush(key, current);
+            }
+
+            return pending.future;
+        }
+    }
+
+    private void onLingerExpired(Accumulator accumulator, long generation) {
+        List<PendingMessage> messages;
+
+        synchronized (accumulator) {
+            if (accumulator.generation != generation) {
+                // Already flushed because of size
+                return;
+            }
+
+            messages = accumulator.drain();
+            accumulator.removed = true;
+            this.accumulators.remove(accumulator.key, accumulator);
+        }
+
+        flush(accumulator.key, messages);
+    }
+
+    private CompletableFuture<Void> flush(BatchKey key, List<PendingMessage> pending) {
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<IMessage> messages = new ArrayList<>(pending.size());
+        pending.forEach(p -> messages.add(p.message));
+
+        CompletableFuture<Void> sent;
+        try {
+            sent = this.senderFactory.getOrCreateSender(key.destination).sendBatchAsync(messages);
+        } catch (RuntimeException e) {
+            sent = new CompletableFuture<>();
+            sent.completeExceptionally(e);
+        }
+
+        return sent.whenComplete((v, t) -> pending.forEach(p -> {
+            if (t == null) {
+                p.future.complete(null);
+            } else {
+                p.future.completeExceptionally(t);
+            }
+        }));
+    }
+
+    private int maxBatchSizeInBytes() {
+        return this.batchConfig.getMaxBatchSizeInBytes();
+    }
+
+    /**
+     * Split messages into consecutive chunks whose estimated size fits in one batch
+     */
+    public static List<List<IMessage>> split(Collection<IMessage> messages, int maxBatchSizeInBytes) {
+        List<List<IMessage>> batches = new ArrayList<>();
+        List<IMessage> batch = new ArrayList<>();
+        long sizeInBytes = 0;
+
+        for (IMessage message : messages) {
+            int size = estimateSize(message);
+
+            if (!batch.isEmpty() && sizeInBytes + size > maxBatchSizeInBytes) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                sizeInBytes = 0;
+            }
+
+            batch.add(message);
+            sizeInBytes += size;
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+    static int estimateSize(IMessage message) {
+        int size = MESSAGE_OVERHEAD_IN_BYTES;
+        MessageBody body = message.getMessageBody();
+
+        if (body != null && body.getBinaryData() != null) {
+            for (byte[] data : body.getBinaryData()) {
+                size += data.length;
+            }
+        } else if (body != null && body.getValueData() != null) {
+            size += String.valueOf(body.getValueData()).getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        if (message.getProperties() != null) {
+            for (Map.Entry<String, Object> property : message.getProperties().entrySet()) {
+                size += property.getKey().getBytes(StandardCharsets.UTF_8).length;
+                size += String.valueOf(property.getValue()).getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Flush all buffered messages and wait for them to be sent
+     */
+    @Override
+    public void destroy() {
+        List<CompletableFuture<Void>> flushes = new ArrayList<>();
+
+        this.accumulators.values().forEach(accumulator -> {
+            synchronized (accumulator) {
+                flushes.add(flush(accumulator.key, accumulator.drain()));
+                accumulator.removed = true;
+            }
+        });
+        this.accumulators.clear();
+
+        try {
+            CompletableFuture.allOf(flushes.toArray(new CompletableFuture[0]))
+                             .get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to flush buffered messages before closing", e);
+        } finally {
+            this.scheduler.shutdown();
+        }
+    }
+
+    public ServiceBusBatchConfig getBatchConfig() {
+        return batchConfig;
+    }
+
+    private static final class PendingMessage {
+        private final IMessage message;
+        private final int sizeInBytes;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingMessage(IMessage message, int sizeInBytes) {
+            this.message = message;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    private static final class Accumulator {
+        private final BatchKey key;
+        private List<PendingMessage> messages = new ArrayList<>();
+        private long sizeInBytes;
+        private long generation;
+        private boolean removed;
+
+        Accumulator(BatchKey key) {
+            this.key = key;
+        }
+
+        boolean isEmpty() {
+            return this.messages.isEmpty();
+        }
+
+        void add(PendingMessage message) {
+            this.messages.add(message);
+            this.sizeInBytes += message.sizeInBytes;
+        }
+
+        List<PendingMessage> drain() {
+            List<PendingMessage> drained = this.messages;
+            this.messages = new ArrayList<>();
+            this.sizeInBytes = 0;
+            this.generation++;
+            return drained;
+        }
+    }
+
+    private static final class BatchKey {
+        private final String destination;
+        private final String partitionKey;
+        private final String sessionId;
+
+        BatchKey(String destination, String partitionKey, String sessionId) {
+            this.destination = destination;
+            this.partitionKey = partitionKey;
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey that = (BatchKey) o;
+            return Objects.equals(destination, that.destination) && Objects.equals(partitionKey, that.partitionKey)
+                    && Objects.equals(sessionId, that.sessionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(destination, partitionKey, sessionId);
+        }
+    }
+}
@@ -90,7 +90,7 @@ public class ServiceBusMessageConverter extends AbstractAzureMessageConverter<IM
                     headers.get(AzureHeaders.SCHEDULED_ENQUEUE_MESSAGE, Integer.class))));
         }
 
-        headers.forEach((key, value) -> serviceBusMessage.getProperties().put(key, value.toString()));
+        getHeaderMapper().fromHeaders(headers, serviceBusMessage.getProperties());
     }
 
     @Override
@@ -115,8 +115,21 @@ public class ServiceBusMessageConverter extends AbstractAzureMessageConverter<IM
             headers.put(MessageHeaders.REPLY_CHANNEL, serviceBusMessage.getReplyTo());
         }
 
-        headers.putAll(serviceBusMessage.getProperties());
+        return headers;
+    }
+
+    @Override
+    protected void setContentEncoding(IMessage serviceBusMessage, String contentEncoding) {
+        if (contentEncoding == null) {
+            serviceBusMessage.getProperties().remove(AzureHeaders.CONTENT_ENCODING);
+        } else {
+            serviceBusMessage.getProperties().put(AzureHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+    }
 
-        return Collections.unmodifiableMap(headers);
+    @Override
+    protected Map<String, ?> getNativeProperties(IMessage serviceBusMessage) {
+        Map<String, Object> properties = serviceBusMessage.getProperties();
+        return properties == null ? Collections.emptyMap() : properties;
     }
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.spring.integration.servicebus.metrics.ServiceBusMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One thread pool running the message handlers of all service bus subscriptions. The pool has at most
+ * {@code maxThreads} threads, which are created on demand and released once idle for a minute.
+ *
+ * <p>
+ * Each subscription gets its own {@link ExecutorService} from {@link #forSubscription(String, int)}, which runs at
+ * most {@code maxConcurrency} of its tasks at the same time on the shared pool and queues the rest. So a busy
+ * subscription can't take all threads from the others. Shutting it down only stops accepting tasks of that
+ * subscription.
+ */
+public class ServiceBusHandlerExecutor implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusHandlerExecutor.class);
+
+    public static final int DEFAULT_MAX_THREADS = 64;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final long AWAIT_INTERVAL_MILLIS = 10;
+
+    private final int maxThreads;
+
+    private final ThreadPoolExecutor pool;
+
+    private final Map<String, SubscriptionExecutor> executors = new ConcurrentHashMap<>();
+
+    private ServiceBusMetrics metrics;
+
+    public ServiceBusHandlerExecutor() {
+        this(DEFAULT_MAX_THREADS);
+    }
+
+    public ServiceBusHandlerExecutor(int maxThreads) {
+        Assert.isTrue(maxThreads > 0, "maxThreads should be positive");
+        this.maxThreads = maxThreads;
+        this.pool = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("servicebus-handler-%d").setDaemon(true).build());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param entityPath     the path of the subscribed queue or subscription
+     * @param maxConcurrency how many handler tasks of the subscription run at most at the same time
+     * @return executor of the subscription, which replaces the previous one of the same entity
+     */
+    public ExecutorService forSubscription(@NonNull String entityPath, int maxConcurrency) {
+        Assert.isTrue(maxConcurrency > 0, "maxConcurrency should be positive");
+        SubscriptionExecutor executor = new SubscriptionExecutor(entityPath, maxConcurrency);
+        SubscriptionExecutor previous = this.executors.put(entityPath, executor);
+
+        if (previous != null) {
+            previous.shutdown();
+        }
+
+        if (this.metrics != null) {
+            this.metrics.onHandlerExecutorCreated(entityPath, executor::getQueueDepth, executor::getActiveCount);
+        }
+
+        return executor;
+    }
+
+    /**
+     * Stop accepting handler tasks of a subscription. Tasks already accepted still run
+     */
+    public void release(String entityPath) {
+        SubscriptionExecutor executor = this.executors.get(entityPath);
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void onShutdown(SubscriptionExecutor executor) {
+        if (this.executors.remove(executor.entityPath, executor) && this.metrics != null) {
+            this.metrics.onHandlerExecutorClosed(executor.entityPath);
+        }
+    }
+
+    /**
+     * @return how many handler tasks of all subscriptions are waiting for a thread
+     */
+    public int getQueueDepth() {
+        return this.executors.values().stream().mapToInt(SubscriptionExecutor::getQueueDepth).sum();
+    }
+
+    /**
+     * @return how many threads are running handler tasks
+     */
+    public int getActiveCount() {
+        return this.pool.getActiveCount();
+    }
+
+    /**
+     * @return how many threads the pool currently has
+     */
+    public int getPoolSize() {
+        return this.pool.getPoolSize();
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public ServiceBusMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(ServiceBusMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void destroy() {
+        new ArrayList<>(this.executors.values()).forEach(SubscriptionExecutor::shutdown);
+        this.pool.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceBusHandlerExecutor{" + "maxThreads=" + maxThreads + '}';
+    }
+
+    private final class SubscriptionExecutor extends AbstractExecutorService {
+        private final String entityPath;
+        private final int maxConcurrency;
+        private final Deque<Runnable> pending = new ConcurrentLinkedDeque<>();
+
+        /**
+         * Tasks handed to the shared pool and not finished yet
+         */
+        private final AtomicInteger admitted = new AtomicInteger();
+
+        /**
+         * Tasks accepted and not started yet
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private volatile boolean shutdown;
+
+        SubscriptionExecutor(String entityPath, int maxConcurrency) {
+            this.entityPath = entityPath;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable task) {
+            if (this.shutdown) {
+                throw new RejectedExecutionException("Handler executor of " + this.entityPath + " is shut down");
+            }
+
+            this.queued.incrementAndGet();
+            this.pending.offer(task);
+            drain();
+        }
+
+        /**
+         * @throws RejectedExecutionException if the shared pool is shut down, in which case the task stays pending
+         * and is returned by {@link #shutdownNow()}
+         */
+        private void drain() {
+            while (!this.pending.isEmpty()) {
+                int current = this.admitted.get();
+
+                if (current >= this.maxConcurrency) {
+                    // A running task drains again once finished
+                    return;
+                }
+
+                if (!this.admitted.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+
+                Runnable task = this.pending.poll();
+
+                if (task == null) {
+                    this.admitted.decrementAndGet();
+                    continue;
+                }
+
+                try {
+                    pool.execute(() -> run(task));
+                } catch (RejectedExecutionException e) {
+                    this.pending.offerFirst(task);
+                    this.admitted.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        private void run(Runnable task) {
+            this.queued.decrementAndGet();
+            this.running.incrementAndGet();
+
+            try {
+                task.run();
+            } finally {
+                this.running.decrementAndGet();
+                this.admitted.decrementAndGet();
+
+                try {
+                    drain();
+                } catch (RejectedExecutionException e) {
+                    log.warn("Pending handler tasks of {} not run since shared pool is shut down", this.entityPath);
+                }
+            }
+        }
+
+        int getQueueDepth() {
+            return this.queued.get();
+        }
+
+        int getActiveCount() {
+            return this.running.get();
+        }
+
+        @Override
+        public void shutdown() {
+            this.shutdown = true;
+            onShutdown(this);
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown();
+            List<Runnable> drained = new ArrayList<>();
+            Runnable task;
+
+            while ((task = this.pending.poll()) != null) {
+                this.queued.decrementAndGet();
+                drained.add(task);
+            }
+
+            return drained;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return this.shutdown && this.pending.isEmpty() && this.admitted.get() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+            while (!isTerminated()) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+
+                Thread.sleep(AWAIT_INTERVAL_MILLIS);
+            }
+
+            return true;
+        }
+    }
+}
@@ -6,7 +6,16 @@
 
 package com.microsoft.azure.spring.integration.servicebus.factory;
 
+import com.microsoft.azure.servicebus.ClientFactory;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.servicebus.ReceiveMode;
+import com.microsoft.azure.servicebus.primitives.ConnectionStringBuilder;
+import com.microsoft.azure.servicebus.primitives.ServiceBusException;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
+import com.microsoft.azure.spring.cloud.context.core.util.Memoizer;
+import com.microsoft.azure.spring.integration.servicebus.ServiceBusRuntimeException;
+
+import java.util.function.Function;
 
 /**
  * Base class of service bus client factory to provide connection string
@@ -17,6 +26,7 @@ abstract class AbstractServiceBusSenderFactory implements ServiceBusSenderFactor
     protected final String connectionString;
     protected String namespace;
     protected ResourceManagerProvider resourceManagerProvider;
+    private final Function<String, IMessageReceiver> receiverCreator = Memoizer.memoize(this::createReceiver);
 
     AbstractServiceBusSenderFactory(String connectionString) {
         this.connectionString = connectionString;
@@ -29,4 +39,17 @@ abstract class AbstractServiceBusSenderFactory implements ServiceBusSenderFactor
     public void setNamespace(String namespace) {
         this.namespace = namespace;
     }
+
+    public IMessageReceiver getOrCreateReceiver(String entityPath) {
+        return this.receiverCreator.apply(entityPath);
+    }
+
+    private IMessageReceiver createReceiver(String entityPath) {
+        try {
+            return ClientFactory.createMessageReceiverFromConnectionStringBuilder(
+                    new ConnectionStringBuilder(connectionString, entityPath), ReceiveMode.PEEKLOCK);
+        } catch (InterruptedException | ServiceBusException e) {
+            throw new ServiceBusRuntimeException("Failed to create service bus message receiver", e);
+        }
+    }
 }
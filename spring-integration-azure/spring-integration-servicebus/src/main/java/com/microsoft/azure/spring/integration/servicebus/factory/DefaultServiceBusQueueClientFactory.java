@@ -13,12 +13,12 @@ import com.microsoft.azure.servicebus.QueueClient;
 import com.microsoft.azure.servicebus.ReceiveMode;
 import com.microsoft.azure.servicebus.primitives.ConnectionStringBuilder;
 import com.microsoft.azure.servicebus.primitives.ServiceBusException;
-import com.microsoft.azure.spring.cloud.context.core.util.Memoizer;
 import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusRuntimeException;
 import org.springframework.util.StringUtils;
 
-import java.util.function.Function;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Default implementation of {@link ServiceBusQueueClientFactory}.
@@ -29,7 +29,7 @@ import java.util.function.Function;
 public class DefaultServiceBusQueueClientFactory extends AbstractServiceBusSenderFactory
         implements ServiceBusQueueClientFactory {
 
-    private final Function<String, IQueueClient> queueClientCreator = Memoizer.memoize(this::createQueueClient);
+    private final Map<String, IQueueClient> queueClientMap = new ConcurrentHashMap<>();
 
     public DefaultServiceBusQueueClientFactory(String connectionString) {
         super(connectionString);
@@ -51,7 +51,12 @@ public class DefaultServiceBusQueueClientFactory extends AbstractServiceBusSende
 
     @Override
     public IQueueClient getOrCreateClient(String name) {
-        return this.queueClientCreator.apply(name);
+        return this.queueClientMap.computeIfAbsent(name, this::createQueueClient);
+    }
+
+    @Override
+    public IQueueClient removeClient(String name) {
+        return this.queueClientMap.remove(name);
     }
 
     @Override
@@ -16,7 +16,8 @@ import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusRuntimeException;
 import org.springframework.util.StringUtils;
 
-import java.util.function.BiFunction;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -28,8 +29,7 @@ import java.util.function.Function;
 public class DefaultServiceBusTopicClientFactory extends AbstractServiceBusSenderFactory
         implements ServiceBusTopicClientFactory {
     private static final String SUBSCRIPTION_PATH = "%s/subscriptions/%s";
-    private final BiFunction<String, String, ISubscriptionClient> subscriptionClientCreator =
-            Memoizer.memoize(this::createSubscriptionClient);
+    private final Map<Tuple<String, String>, ISubscriptionClient> subscriptionClientMap = new ConcurrentHashMap<>();
     private final Function<String, ? extends IMessageSender> sendCreator = Memoizer.memoize(this::createTopicClient);
 
     public DefaultServiceBusTopicClientFactory(String connectionString) {
@@ -71,7 +71,13 @@ public class DefaultServiceBusTopicClientFactory extends AbstractServiceBusSende
 
     @Override
     public ISubscriptionClient getOrCreateSubscriptionClient(String topic, String subscription) {
-        return this.subscriptionClientCreator.apply(topic, subscription);
+        return this.subscriptionClientMap.computeIfAbsent(Tuple.of(topic, subscription),
+                key -> createSubscriptionClient(topic, subscription));
+    }
+
+    @Override
+    public ISubscriptionClient removeSubscriptionClient(String topic, String subscription) {
+        return this.subscriptionClientMap.remove(Tuple.of(topic, subscription));
     }
 
     @Override
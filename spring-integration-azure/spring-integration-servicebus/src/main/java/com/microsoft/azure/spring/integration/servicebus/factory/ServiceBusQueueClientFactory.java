@@ -13,9 +13,16 @@ import com.microsoft.azure.servicebus.IQueueClient;
  *
  * @author Warren Zhu
  */
-public interface ServiceBusQueueClientFactory extends ServiceBusSenderFactory {
+public interface ServiceBusQueueClientFactory extends ServiceBusSenderFactory, ServiceBusReceiverFactory {
     /**
      * Return a function which accepts service bus queue name, then returns {@link IQueueClient}
      */
     IQueueClient getOrCreateClient(String name);
+
+    /**
+     * Remove the cached client of a queue, so a new client is created next time
+     *
+     * @return the removed client, which should be closed by caller, or {@code null} if none is cached
+     */
+    IQueueClient removeClient(String name);
 }
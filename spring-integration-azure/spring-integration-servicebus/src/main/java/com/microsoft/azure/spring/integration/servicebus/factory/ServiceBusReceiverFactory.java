@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.factory;
+
+import com.microsoft.azure.servicebus.IMessageReceiver;
+
+/**
+ * Factory to return functional creator of service bus message receiver
+ */
+public interface ServiceBusReceiverFactory {
+    /**
+     * Return a function which accepts service bus entity path, then returns a {@link IMessageReceiver} in peek lock
+     * mode. The entity path is the queue name, or {@code <topic>/subscriptions/<subscription>} for a subscription.
+     */
+    IMessageReceiver getOrCreateReceiver(String entityPath);
+}
@@ -13,9 +13,16 @@ import com.microsoft.azure.servicebus.ISubscriptionClient;
  *
  * @author Warren Zhu
  */
-public interface ServiceBusTopicClientFactory extends ServiceBusSenderFactory {
+public interface ServiceBusTopicClientFactory extends ServiceBusSenderFactory, ServiceBusReceiverFactory {
     /**
      * Return a function which accepts service bus topic and subscription name, then returns {@link ISubscriptionClient}
      */
     ISubscriptionClient getOrCreateSubscriptionClient(String topic, String subscription);
+
+    /**
+     * Remove the cached client of a subscription, so a new client is created next time
+     *
+     * @return the removed client, which should be closed by caller, or {@code null} if none is cached
+     */
+    ISubscriptionClient removeSubscriptionClient(String topic, String subscription);
 }
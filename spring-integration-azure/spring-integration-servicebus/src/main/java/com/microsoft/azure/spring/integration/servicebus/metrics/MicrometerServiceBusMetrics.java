@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.lang.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * {@link ServiceBusMetrics} publishing to a Micrometer {@link MeterRegistry}.
+ *
+ * <p>
+ * Handler executors are published as gauges {@value #HANDLER_QUEUE_DEPTH} and {@value #HANDLER_ACTIVE_WORKERS} per
+ * entity, which are removed once the entity is unsubscribed.
+ */
+public class MicrometerServiceBusMetrics implements ServiceBusMetrics {
+
+    public static final String HANDLER_QUEUE_DEPTH = "servicebus.handler.queue.depth";
+
+    public static final String HANDLER_ACTIVE_WORKERS = "servicebus.handler.active.workers";
+
+    static final String TAG_ENTITY = "entity";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, List<Gauge>> executorGaugesByEntity = new ConcurrentHashMap<>();
+
+    public MicrometerServiceBusMetrics(@NonNull MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onHandlerExecutorCreated(String entityPath, IntSupplier queueDepth, IntSupplier activeWorkers) {
+        Tags tags = entityTags(entityPath);
+        List<Gauge> gauges = Arrays.asList(
+                Gauge.builder(HANDLER_QUEUE_DEPTH, queueDepth, IntSupplier::getAsInt).tags(tags).strongReference(true)
+                     .register(this.meterRegistry),
+                Gauge.builder(HANDLER_ACTIVE_WORKERS, activeWorkers, IntSupplier::getAsInt).tags(tags)
+                     .strongReference(true).register(this.meterRegistry));
+        removeGauges(this.executorGaugesByEntity.put(String.valueOf(entityPath), gauges));
+    }
+
+    @Override
+    public void onHandlerExecutorClosed(String entityPath) {
+        removeGauges(this.executorGaugesByEntity.remove(String.valueOf(entityPath)));
+    }
+
+    private void removeGauges(List<Gauge> gauges) {
+        if (gauges != null) {
+            gauges.forEach(this.meterRegistry::remove);
+        }
+    }
+
+    static Tags entityTags(String entityPath) {
+        return Tags.of(TAG_ENTITY, String.valueOf(entityPath));
+    }
+}
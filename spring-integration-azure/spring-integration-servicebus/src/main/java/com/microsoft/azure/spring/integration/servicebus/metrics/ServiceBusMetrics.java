@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.metrics;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Callback of consumer side events worth measuring. All methods are no-op by default, see
+ * {@link MicrometerServiceBusMetrics} for an implementation publishing to Micrometer.
+ */
+public interface ServiceBusMetrics {
+
+    /**
+     * Called when a subscription gets its handler executor
+     *
+     * @param queueDepth    how many handler tasks of the subscription are waiting for a thread
+     * @param activeWorkers how many handler tasks of the subscription are running
+     */
+    default void onHandlerExecutorCreated(String entityPath, IntSupplier queueDepth, IntSupplier activeWorkers) {
+        // no-op
+    }
+
+    /**
+     * Called when the handler executor of a subscription is shut down
+     */
+    default void onHandlerExecutorClosed(String entityPath) {
+        // no-op
+    }
+}
@@ -6,9 +6,12 @@
 
 package com.microsoft.azure.spring.integration.servicebus.queue;
 
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
 import com.microsoft.azure.spring.integration.core.api.SubscribeOperation;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalConfig;
 import org.springframework.messaging.Message;
 
 /**
@@ -18,9 +21,20 @@ import org.springframework.messaging.Message;
  *
  * @author Warren Zhu
  */
-public interface ServiceBusQueueOperation extends SendOperation, SubscribeOperation {
+public interface ServiceBusQueueOperation extends SendOperation, BatchSendOperation, SubscribeOperation {
     void setClientConfig(ServiceBusClientConfig clientConfig);
 
+    /**
+     * How long and when locks of received messages are renewed, including after the handler returns in MANUAL mode
+     */
+    void setLockRenewalConfig(LockRenewalConfig lockRenewalConfig);
+
+    /**
+     * Decide which headers are sent as message properties and how, see
+     * {@link com.microsoft.azure.spring.integration.core.converter.DefaultAzureHeaderMapper}
+     */
+    void setHeaderMapper(AzureHeaderMapper headerMapper);
+
     /**
      * Send a {@link Message} to the given destination deadletterqueue.
      *
@@ -69,12 +69,18 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
         return true;
     }
 
+    /**
+     * The service bus sdk can't unregister a message handler, so the client of the queue is closed to stop its
+     * receive pump. Following sends to the queue use a new client.
+     */
     @Override
     public boolean unsubscribe(String destination) {
+        if (!subscribedQueues.remove(destination)) {
+            return false;
+        }
 
-        // TODO: unregister message handler but service bus sdk unsupported
-
-        return subscribedQueues.remove(destination);
+        closeReceiver(destination, this.senderFactory.removeClient(destination));
+        return true;
     }
 
     @Override
@@ -87,6 +93,7 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
 
         try {
             if (!clientConfig.isSessionsEnabled()) {
+                untrackLock(uuid);
                 queueClient.deadLetter(uuid, deadLetterReason, deadLetterErrorDescription);
             } else {
                 IMessageSession session = (IMessageSession) message.getHeaders().get(AzureHeaders.MESSAGE_SESSION);
@@ -108,6 +115,7 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
 
         try {
             if (!clientConfig.isSessionsEnabled()) {
+                untrackLock(uuid);
                 queueClient.abandon(uuid);
             } else {
                 IMessageSession session = (IMessageSession) message.getHeaders().get(AzureHeaders.MESSAGE_SESSION);
@@ -125,20 +133,19 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
 
         IQueueClient queueClient = this.senderFactory.getOrCreateClient(name);
 
-        String threadPrefix = String.format("%s-handler", name);
-
         try {
-            queueClient.setPrefetchCount(this.clientConfig.getPrefetchCount());
+            queueClient.setPrefetchCount(buildPrefetchCount());
 
             // Register SessionHandler if sessions are enabled.
             // Handlers are mutually exclusive.
             if (this.clientConfig.isSessionsEnabled()) {
                 queueClient.registerSessionHandler(
                         new QueueMessageHandler(consumer, payloadType, queueClient), buildSessionHandlerOptions(),
-                        buildHandlerExecutors(threadPrefix));
+                        buildHandlerExecutor(name));
             } else {
-                queueClient.registerMessageHandler(new QueueMessageHandler(consumer, payloadType, queueClient),
-                        buildHandlerOptions(), buildHandlerExecutors(threadPrefix));
+                QueueMessageHandler handler = new QueueMessageHandler(consumer, payloadType, queueClient);
+                handler.setLockRenewal(name, getLockRenewalScheduler());
+                queueClient.registerMessageHandler(handler, buildHandlerOptions(), buildHandlerExecutor(name));
             }
         } catch (ServiceBusException | InterruptedException e) {
             log.error("Failed to register queue message handler", e);
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.receive;
+
+import com.microsoft.azure.spring.integration.core.api.reactor.BatchReceiveOperation;
+import com.microsoft.azure.spring.integration.core.api.reactor.ReceiveOperation;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Azure service bus operation to pull {@link Message} from a queue or subscription asynchronously, one by one or in
+ * batch. The destination is the queue name, or {@code <topic>/subscriptions/<subscription>} for a subscription.
+ *
+ * <p>
+ * Messages are received in peek lock mode. You should checkpoint in time if message has been processed successfully,
+ * otherwise it will be received again once its lock expires.
+ */
+public interface ServiceBusReceiveOperation extends ReceiveOperation, BatchReceiveOperation {
+
+    /**
+     * Receive up to {@link #setMaxMessageCount(int)} messages, waiting at most {@link #setMaxWaitTime(Duration)}
+     */
+    Mono<List<Message<?>>> receiveBatchAsync(String destination);
+
+    /**
+     * Set how many messages are received at most by one batch receive. Default is 100
+     */
+    void setMaxMessageCount(int maxMessageCount);
+
+    /**
+     * Set how long to wait for the first message to arrive. Default is 5 seconds
+     */
+    void setMaxWaitTime(Duration maxWaitTime);
+}
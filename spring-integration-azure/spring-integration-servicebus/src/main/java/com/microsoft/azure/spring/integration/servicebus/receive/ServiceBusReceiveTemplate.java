@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.receive;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.servicebus.primitives.ServiceBusException;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.reactor.AzureCheckpointer;
+import com.microsoft.azure.spring.integration.core.api.reactor.Checkpointer;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
+import com.microsoft.azure.spring.integration.servicebus.ServiceBusRuntimeException;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusReceiverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default implementation of {@link ServiceBusReceiveOperation} built on
+ * {@link IMessageReceiver#receiveAsync(Duration)} and {@link IMessageReceiver#receiveBatchAsync(int, Duration)}.
+ *
+ * <p>
+ * In {@link CheckpointMode#RECORD} mode, messages are completed once received. In {@link CheckpointMode#MANUAL}
+ * mode, each message carries a {@link Checkpointer} in header {@link AzureHeaders#CHECKPOINTER} completing or
+ * abandoning it.
+ */
+public class ServiceBusReceiveTemplate implements ServiceBusReceiveOperation {
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusReceiveTemplate.class);
+    private static final int DEFAULT_MAX_MESSAGE_COUNT = 100;
+    private static final Duration DEFAULT_MAX_WAIT_TIME = Duration.ofSeconds(5);
+    private static final String MSG_FAIL_CHECKPOINT = "Failed to checkpoint %s in '%s'";
+    private static final String MSG_SUCCESS_CHECKPOINT = "Checkpointed %s in '%s' in %s mode";
+
+    private final ServiceBusReceiverFactory receiverFactory;
+
+    protected ServiceBusMessageConverter messageConverter = new ServiceBusMessageConverter();
+
+    private int maxMessageCount = DEFAULT_MAX_MESSAGE_COUNT;
+
+    private Duration maxWaitTime = DEFAULT_MAX_WAIT_TIME;
+
+    private Class<?> messagePayloadType = byte[].class;
+
+    private CheckpointMode checkpointMode = CheckpointMode.RECORD;
+
+    public ServiceBusReceiveTemplate(@NonNull ServiceBusReceiverFactory receiverFactory) {
+        this.receiverFactory = receiverFactory;
+        log.info("ServiceBusReceiveTemplate started with properties {}", buildProperties());
+    }
+
+    @Override
+    public Mono<Message<?>> receiveAsync(String destination) {
+        Assert.hasText(destination, "destination can't be null or empty");
+
+        return Mono.defer(() -> {
+            IMessageReceiver receiver = this.receiverFactory.getOrCreateReceiver(destination);
+            return Mono.fromFuture(receiver.receiveAsync(this.maxWaitTime))
+                       .onErrorMap(ServiceBusException.class, e ->
+                               new ServiceBusRuntimeException("Failed to receive message from " + destination, e))
+                       .map(message -> toMessage(receiver, message));
+        });
+    }
+
+    @Override
+    public Mono<List<Message<?>>> receiveBatchAsync(String destination) {
+        return receiveBatchAsync(destination, this.maxMessageCount, this.maxWaitTime);
+    }
+
+    @Override
+    public Mono<List<Message<?>>> receiveBatchAsync(String destination, int maxMessageCount, Duration maxWaitTime) {
+        Assert.hasText(destination, "destination can't be null or empty");
+        Assert.isTrue(maxMessageCount > 0, "maxMessageCount should be positive");
+        Assert.notNull(maxWaitTime, "maxWaitTime can't be null");
+
+        return Mono.defer(() -> {
+            IMessageReceiver receiver = this.receiverFactory.getOrCreateReceiver(destination);
+            return Mono.fromFuture(receiver.receiveBatchAsync(maxMessageCount, maxWaitTime))
+                       .onErrorMap(ServiceBusException.class, e ->
+                               new ServiceBusRuntimeException("Failed to receive messages from " + destination, e))
+                       .map(messages -> toMessages(receiver, messages))
+                       .defaultIfEmpty(Collections.emptyList());
+        });
+    }
+
+    private List<Message<?>> toMessages(IMessageReceiver receiver, Collection<IMessage> serviceBusMessages) {
+        List<Message<?>> messages = new ArrayList<>(serviceBusMessages.size());
+        serviceBusMessages.forEach(m -> messages.add(toMessage(receiver, m)));
+        return messages;
+    }
+
+    private Message<?> toMessage(IMessageReceiver receiver, IMessage serviceBusMessage) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.LOCK_TOKEN, serviceBusMessage.getLockToken());
+
+        Checkpointer checkpointer = new AzureCheckpointer(() -> checkpoint(receiver, serviceBusMessage),
+                () -> Mono.fromFuture(receiver.abandonAsync(serviceBusMessage.getLockToken())));
+
+        if (this.checkpointMode == CheckpointMode.RECORD) {
+            // Failure is already logged by checkpoint
+            checkpointer.success().onErrorResume(t -> Mono.empty()).subscribe();
+        } else if (this.checkpointMode == CheckpointMode.MANUAL) {
+            headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
+        }
+
+        return this.messageConverter.toMessage(serviceBusMessage, new MessageHeaders(headers),
+                this.messagePayloadType);
+    }
+
+    private Mono<Void> checkpoint(IMessageReceiver receiver, IMessage serviceBusMessage) {
+        return Mono.fromFuture(receiver.completeAsync(serviceBusMessage.getLockToken()))
+                   .doOnSuccess(v -> {
+                       if (log.isDebugEnabled()) {
+                           log.debug(String.format(MSG_SUCCESS_CHECKPOINT, serviceBusMessage.getMessageId(),
+                                   receiver.getEntityPath(), this.checkpointMode));
+                       }
+                   })
+                   .doOnError(t -> {
+                       if (log.isWarnEnabled()) {
+                           log.warn(String.format(MSG_FAIL_CHECKPOINT, serviceBusMessage.getMessageId(),
+                                   receiver.getEntityPath()), t);
+                       }
+                   });
+    }
+
+    @Override
+    public void setCheckpointMode(CheckpointMode checkpointMode) {
+        Assert.state(checkpointMode == CheckpointMode.MANUAL || checkpointMode == CheckpointMode.RECORD,
+                "Only MANUAL or RECORD checkpoint mode is supported in ServiceBusReceiveTemplate");
+        this.checkpointMode = checkpointMode;
+        log.info("ServiceBusReceiveTemplate checkpoint mode becomes: {}", this.checkpointMode);
+    }
+
+    @Override
+    public void setMessagePayloadType(Class<?> payloadType) {
+        this.messagePayloadType = payloadType;
+        log.info("ServiceBusReceiveTemplate messagePayloadType becomes: {}", this.messagePayloadType);
+    }
+
+    @Override
+    public void setMaxMessageCount(int maxMessageCount) {
+        Assert.state(maxMessageCount > 0, "maxMessageCount should be positive");
+        this.maxMessageCount = maxMessageCount;
+        log.info("ServiceBusReceiveTemplate maxMessageCount becomes: {}", this.maxMessageCount);
+    }
+
+    @Override
+    public void setMaxWaitTime(Duration maxWaitTime) {
+        Assert.state(maxWaitTime != null && !maxWaitTime.isNegative(), "maxWaitTime can't be null or negative");
+        this.maxWaitTime = maxWaitTime;
+        log.info("ServiceBusReceiveTemplate maxWaitTime becomes: {}", this.maxWaitTime);
+    }
+
+    private Map<String, Object> buildProperties() {
+        Map<String, Object> properties = new HashMap<>();
+
+        properties.put("maxMessageCount", this.maxMessageCount);
+        properties.put("maxWaitTime", this.maxWaitTime);
+        properties.put("messagePayloadType", this.messagePayloadType);
+        properties.put("checkpointMode", this.checkpointMode);
+
+        return properties;
+    }
+
+    public ServiceBusMessageConverter getMessageConverter() {
+        return messageConverter;
+    }
+
+    public void setMessageConverter(ServiceBusMessageConverter messageConverter) {
+        this.messageConverter = messageConverter;
+    }
+
+    /**
+     * Decide how message properties are mapped back to headers, on the current message converter
+     */
+    public void setHeaderMapper(AzureHeaderMapper headerMapper) {
+        this.messageConverter.setHeaderMapper(headerMapper);
+    }
+
+    public int getMaxMessageCount() {
+        return maxMessageCount;
+    }
+
+    public Duration getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public Class<?> getMessagePayloadType() {
+        return messagePayloadType;
+    }
+
+    public CheckpointMode getCheckpointMode() {
+        return checkpointMode;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.renewal;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Lock renewal related config used by {@link LockRenewalScheduler}
+ */
+public class LockRenewalConfig {
+
+    public static final Duration DEFAULT_MAX_RENEWAL_DURATION = Duration.ofMinutes(5);
+
+    public static final Duration DEFAULT_RENEW_BEFORE = Duration.ofSeconds(10);
+
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofSeconds(1);
+
+    /**
+     * The max time a lock is kept after the message is received. Also used as max auto renew duration of the message
+     * and session handlers
+     */
+    private final Duration maxRenewalDuration;
+
+    /**
+     * How long before a lock expires it's renewed
+     */
+    private final Duration renewBefore;
+
+    /**
+     * The precision of the timing wheel. Locks due in the same tick are renewed together
+     */
+    private final Duration tickDuration;
+
+    public LockRenewalConfig(Duration maxRenewalDuration, Duration renewBefore, Duration tickDuration) {
+        Assert.isTrue(maxRenewalDuration != null && !maxRenewalDuration.isNegative(),
+                "maxRenewalDuration can't be null or negative");
+        Assert.isTrue(renewBefore != null && !renewBefore.isNegative(), "renewBefore can't be null or negative");
+        Assert.isTrue(tickDuration != null && !tickDuration.isNegative() && !tickDuration.isZero(),
+                "tickDuration should be positive");
+        this.maxRenewalDuration = maxRenewalDuration;
+        this.renewBefore = renewBefore;
+        this.tickDuration = tickDuration;
+    }
+
+    public static LockRenewalConfigBuilder builder() {
+        return new LockRenewalConfigBuilder();
+    }
+
+    public Duration getMaxRenewalDuration() {
+        return maxRenewalDuration;
+    }
+
+    public Duration getRenewBefore() {
+        return renewBefore;
+    }
+
+    public Duration getTickDuration() {
+        return tickDuration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        LockRenewalConfig that = (LockRenewalConfig) o;
+        return maxRenewalDuration.equals(that.maxRenewalDuration) && renewBefore.equals(that.renewBefore) &&
+                tickDuration.equals(that.tickDuration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRenewalDuration, renewBefore, tickDuration);
+    }
+
+    @Override
+    public String toString() {
+        return "LockRenewalConfig{" + "maxRenewalDuration=" + maxRenewalDuration + ", renewBefore=" + renewBefore +
+                ", tickDuration=" + tickDuration + '}';
+    }
+
+    public static class LockRenewalConfigBuilder {
+        private Duration maxRenewalDuration = DEFAULT_MAX_RENEWAL_DURATION;
+        private Duration renewBefore = DEFAULT_RENEW_BEFORE;
+        private Duration tickDuration = DEFAULT_TICK_DURATION;
+
+        public LockRenewalConfigBuilder maxRenewalDuration(Duration maxRenewalDuration) {
+            this.maxRenewalDuration = maxRenewalDuration;
+            return this;
+        }
+
+        public LockRenewalConfigBuilder renewBefore(Duration renewBefore) {
+            this.renewBefore = renewBefore;
+            return this;
+        }
+
+        public LockRenewalConfigBuilder tickDuration(Duration tickDuration) {
+            this.tickDuration = tickDuration;
+            return this;
+        }
+
+        public LockRenewalConfig build() {
+            return new LockRenewalConfig(maxRenewalDuration, renewBefore, tickDuration);
+        }
+    }
+}
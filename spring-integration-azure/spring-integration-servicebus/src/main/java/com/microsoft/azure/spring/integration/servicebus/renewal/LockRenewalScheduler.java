@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.renewal;
+
+import com.microsoft.azure.servicebus.IMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Keep renewing the locks of received messages until they are settled, instead of only while their handler runs.
+ *
+ * <p>
+ * Tracked locks are kept in a hashed timing wheel, so there is one timer for all of them instead of one per message.
+ * Every {@link LockRenewalConfig#getTickDuration()} the wheel moves one bucket forward, and all locks of the bucket
+ * which expire within {@link LockRenewalConfig#getRenewBefore()} are renewed together per entity. A lock is renewed
+ * until it's untracked, or until it's kept for {@link LockRenewalConfig#getMaxRenewalDuration()} since being tracked.
+ */
+public class LockRenewalScheduler {
+    private static final Logger log = LoggerFactory.getLogger(LockRenewalScheduler.class);
+
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * The max number of lock tokens renewed in one request
+     */
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final LockRenewalConfig renewalConfig;
+
+    private final BiFunction<String, Collection<IMessage>, CompletableFuture<Collection<Instant>>> renewal;
+
+    private final Map<UUID, Renewal> renewals = new ConcurrentHashMap<>();
+
+    private final List<Queue<Renewal>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+    private final long tickNanos;
+
+    private final ScheduledFuture<?> ticker;
+
+    private long tick;
+
+    /**
+     * @param renewal renew the locks of messages received from an entity, returns when each lock expires in order
+     * @param ticker  where the wheel is moved forward each tick
+     */
+    public LockRenewalScheduler(@NonNull LockRenewalConfig renewalConfig,
+                                @NonNull BiFunction<String, Collection<IMessage>,
+                                        CompletableFuture<Collection<Instant>>> renewal,
+                                @NonNull ScheduledExecutorService ticker) {
+        this.renewalConfig = renewalConfig;
+        this.renewal = renewal;
+        this.tickNanos = renewalConfig.getTickDuration().toNanos();
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.wheel.add(new ArrayDeque<>());
+        }
+
+        this.ticker = ticker.scheduleAtFixedRate(this::tick, this.tickNanos, this.tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Start renewing the lock of a message. Messages without lock, such as those received in receive and delete mode,
+     * are ignored
+     *
+     * @param entityPath the path of the queue or subscription the message is received from
+     */
+    public void track(@NonNull String entityPath, @NonNull IMessage message) {
+        UUID lockToken = message.getLockToken();
+        Instant lockedUntil = message.getLockedUntilUtc();
+
+        if (lockToken == null || lockedUntil == null) {
+            return;
+        }
+
+        Renewal renewal = new Renewal(entityPath, message, lockedUntil,
+                Instant.now().plus(this.renewalConfig.getMaxRenewalDuration()));
+        Renewal previous = this.renewals.put(lockToken, renewal);
+
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+
+        schedule(renewal);
+    }
+
+    /**
+     * Stop renewing the lock of a message, usually because it's settled
+     */
+    public void untrack(UUID lockToken) {
+        if (lockToken == null) {
+            return;
+        }
+
+        Renewal renewal = this.renewals.remove(lockToken);
+
+        if (renewal != null) {
+            renewal.cancelled = true;
+        }
+    }
+
+    /**
+     * Stop renewing the locks of all messages received from an entity
+     */
+    public void untrackAll(String entityPath) {
+        this.renewals.values().removeIf(r -> {
+            if (r.entityPath.equals(entityPath)) {
+                r.cancelled = true;
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * @return how many locks are being renewed
+     */
+    public int getTrackedCount() {
+        return this.renewals.size();
+    }
+
+    public LockRenewalConfig getRenewalConfig() {
+        return renewalConfig;
+    }
+
+    /**
+     * Stop renewing all locks
+     */
+    public void close() {
+        if (this.ticker != null) {
+            this.ticker.cancel(false);
+        }
+
+        this.renewals.values().forEach(r -> r.cancelled = true);
+        this.renewals.clear();
+
+        synchronized (this) {
+            this.wheel.forEach(Queue::clear);
+        }
+    }
+
+    private void schedule(Renewal renewal) {
+        Instant renewAt = renewal.lockedUntil.minus(this.renewalConfig.getRenewBefore());
+
+        if (!renewal.lockedUntil.isBefore(renewal.deadline)) {
+            // Already locked long enough
+            this.renewals.remove(renewal.message.getLockToken(), renewal);
+            return;
+        }
+
+        long delayNanos = Math.max(0, Duration.between(Instant.now(), renewAt).toNanos());
+        long ticks = Math.max(1, (delayNanos + this.tickNanos - 1) / this.tickNanos);
+
+        synchronized (this) {
+            if (renewal.cancelled) {
+                return;
+            }
+
+            renewal.remainingRounds = (ticks - 1) / WHEEL_SIZE;
+            this.wheel.get((int) ((this.tick + ticks - 1) % WHEEL_SIZE)).offer(renewal);
+        }
+    }
+
+    /**
+     * Move the wheel one bucket forward and renew the locks due
+     */
+    void tick() {
+        List<Renewal> due = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Renewal> bucket = this.wheel.get((int) (this.tick % WHEEL_SIZE)).iterator();
+            this.tick++;
+
+            while (bucket.hasNext()) {
+                Renewal renewal = bucket.next();
+
+                if (renewal.cancelled) {
+                    bucket.remove();
+                } else if (renewal.remainingRounds > 0) {
+                    renewal.remainingRounds--;
+                } else {
+                    bucket.remove();
+                    due.add(renewal);
+                }
+            }
+        }
+
+        Instant now = Instant.now();
+        Map<String, List<Renewal>> dueByEntity = new LinkedHashMap<>();
+
+        for (Renewal renewal : due) {
+            if (renewal.cancelled) {
+                continue;
+            }
+
+            if (!renewal.lockedUntil.isAfter(now)) {
+                log.warn("Lock of message {} from {} expired before renewed", renewal.message.getMessageId(),
+                        renewal.entityPath);
+                this.renewals.remove(renewal.message.getLockToken(), renewal);
+            } else {
+                dueByEntity.computeIfAbsent(renewal.entityPath, k -> new ArrayList<>()).add(renewal);
+            }
+        }
+
+        dueByEntity.forEach((entityPath, renewals) -> {
+            for (int i = 0; i < renewals.size(); i += MAX_BATCH_SIZE) {
+                renew(entityPath, renewals.subList(i, Math.min(renewals.size(), i + MAX_BATCH_SIZE)));
+            }
+        });
+    }
+
+    private void renew(String entityPath, List<Renewal> renewals) {
+        List<IMessage> messages = renewals.stream().map(r -> r.message).collect(Collectors.toList());
+        CompletableFuture<Collection<Instant>> renewed;
+
+        try {
+            renewed = this.renewal.apply(entityPath, messages);
+        } catch (RuntimeException e) {
+            renewed = new CompletableFuture<>();
+            renewed.completeExceptionally(e);
+        }
+
+        renewed.whenComplete((lockedUntils, t) -> {
+            if (t != null) {
+                // Try again next tick while the locks are still valid
+                log.warn(String.format("Failed to renew %d locks of %s", renewals.size(), entityPath), t);
+            } else {
+                Iterator<Instant> lockedUntil = lockedUntils.iterator();
+                renewals.forEach(r -> r.lockedUntil = lockedUntil.hasNext() ? lockedUntil.next() : r.lockedUntil);
+            }
+
+            renewals.forEach(this::schedule);
+        });
+    }
+
+    private static final class Renewal {
+        private final String entityPath;
+        private final IMessage message;
+        private final Instant deadline;
+        private volatile Instant lockedUntil;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        Renewal(String entityPath, IMessage message, Instant lockedUntil, Instant deadline) {
+            this.entityPath = entityPath;
+            this.message = message;
+            this.lockedUntil = lockedUntil;
+            this.deadline = deadline;
+        }
+    }
+}
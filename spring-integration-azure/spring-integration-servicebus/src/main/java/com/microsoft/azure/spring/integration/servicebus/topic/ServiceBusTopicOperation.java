@@ -7,9 +7,12 @@
 package com.microsoft.azure.spring.integration.servicebus.topic;
 
 import com.microsoft.azure.management.servicebus.ServiceBusSubscription;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalConfig;
 
 /**
  * Azure service bus topic operation to support send {@link org.springframework.messaging.Message} asynchronously
@@ -17,6 +20,17 @@ import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
  *
  * @author Warren Zhu
  */
-public interface ServiceBusTopicOperation extends SendOperation, SubscribeByGroupOperation {
+public interface ServiceBusTopicOperation extends SendOperation, BatchSendOperation, SubscribeByGroupOperation {
     void setClientConfig(ServiceBusClientConfig clientConfig);
+
+    /**
+     * How long and when locks of received messages are renewed, including after the handler returns in MANUAL mode
+     */
+    void setLockRenewalConfig(LockRenewalConfig lockRenewalConfig);
+
+    /**
+     * Decide which headers are sent as message properties and how, see
+     * {@link com.microsoft.azure.spring.integration.core.converter.DefaultAzureHeaderMapper}
+     */
+    void setHeaderMapper(AzureHeaderMapper headerMapper);
 }
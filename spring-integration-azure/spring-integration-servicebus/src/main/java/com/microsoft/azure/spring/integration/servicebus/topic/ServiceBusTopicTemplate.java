@@ -44,6 +44,8 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
 
     private static final String MSG_SUCCESS_CHECKPOINT = "Consumer group '%s' of topic '%s' checkpointed %s in %s mode";
 
+    private static final String SUBSCRIPTION_PATH = "%s/subscriptions/%s";
+
     private Set<Tuple<String, String>> nameAndConsumerGroups = Sets.newConcurrentHashSet();
 
     public ServiceBusTopicTemplate(ServiceBusTopicClientFactory clientFactory) {
@@ -67,11 +69,19 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
         return true;
     }
 
+    /**
+     * The service bus sdk can't unregister a message handler, so the client of the subscription is closed to stop
+     * its receive pump.
+     */
     @Override
     public boolean unsubscribe(String destination, String consumerGroup) {
-        // TODO: unregister message handler but service bus sdk unsupported
+        if (!nameAndConsumerGroups.remove(Tuple.of(destination, consumerGroup))) {
+            return false;
+        }
 
-        return nameAndConsumerGroups.remove(Tuple.of(destination, consumerGroup));
+        closeReceiver(subscriptionPath(destination, consumerGroup),
+                this.senderFactory.removeSubscriptionClient(destination, consumerGroup));
+        return true;
     }
 
     @SuppressWarnings("unchecked")
@@ -79,10 +89,10 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
             Class<?> payloadType) {
         ISubscriptionClient subscriptionClient = this.senderFactory.getOrCreateSubscriptionClient(name, consumerGroup);
 
-        String threadPrefix = String.format("%s-%s-handler", name, consumerGroup);
+        String entityPath = subscriptionPath(name, consumerGroup);
 
         try {
-            subscriptionClient.setPrefetchCount(this.clientConfig.getPrefetchCount());
+            subscriptionClient.setPrefetchCount(buildPrefetchCount());
 
             // Register SessionHandler id sessions are enabled. 
             // Handlers are mutually exclusive.
@@ -90,11 +100,12 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
                 subscriptionClient.registerSessionHandler(
                         new TopicMessageHandler(consumer, payloadType, subscriptionClient),
                         buildSessionHandlerOptions(),
-                        buildHandlerExecutors(threadPrefix));
+                        buildHandlerExecutor(entityPath));
             } else {
-                subscriptionClient.registerMessageHandler(
-                        new TopicMessageHandler(consumer, payloadType, subscriptionClient), buildHandlerOptions(),
-                        buildHandlerExecutors(threadPrefix));
+                TopicMessageHandler handler = new TopicMessageHandler(consumer, payloadType, subscriptionClient);
+                handler.setLockRenewal(entityPath, getLockRenewalScheduler());
+                subscriptionClient.registerMessageHandler(handler, buildHandlerOptions(),
+                        buildHandlerExecutor(entityPath));
             }
         } catch (ServiceBusException | InterruptedException e) {
             log.error("Failed to register topic message handler", e);
@@ -102,6 +113,10 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
         }
     }
 
+    private static String subscriptionPath(String topic, String subscription) {
+        return String.format(SUBSCRIPTION_PATH, topic, subscription);
+    }
+
     @Override
     public void setClientConfig(@NonNull ServiceBusClientConfig clientConfig) {
         this.clientConfig = clientConfig;
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+public class ServiceBusClientConfigTest {
+
+    @Test
+    public void testSessionSettingsDefaultToConsumerSettings() {
+        ServiceBusClientConfig clientConfig = ServiceBusClientConfig.builder().setConcurrency(4).setPrefetchCount(10)
+                                                                    .build();
+
+        assertEquals(4, clientConfig.getMaxConcurrentSessions());
+        assertEquals(10, clientConfig.getSessionPrefetchCount());
+        assertEquals(1, clientConfig.getMaxConcurrentCallsPerSession());
+        assertEquals(ServiceBusClientConfig.DEFAULT_SESSION_IDLE_TIMEOUT, clientConfig.getSessionIdleTimeout());
+    }
+
+    @Test
+    public void testSessionSettingsIndependentOfConsumerSettings() {
+        ServiceBusClientConfig clientConfig = ServiceBusClientConfig.builder().setConcurrency(4).setPrefetchCount(10)
+                                                                    .setMaxConcurrentSessions(100)
+                                                                    .setMaxConcurrentCallsPerSession(2)
+                                                                    .setSessionIdleTimeout(Duration.ofSeconds(2))
+                                                                    .setSessionPrefetchCount(0).build();
+
+        assertEquals(4, clientConfig.getConcurrency());
+        assertEquals(10, clientConfig.getPrefetchCount());
+        assertEquals(100, clientConfig.getMaxConcurrentSessions());
+        assertEquals(2, clientConfig.getMaxConcurrentCallsPerSession());
+        assertEquals(Duration.ofSeconds(2), clientConfig.getSessionIdleTimeout());
+        assertEquals(0, clientConfig.getSessionPrefetchCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxConcurrentSessionsShouldBePositive() {
+        ServiceBusClientConfig.builder().setMaxConcurrentSessions(0).build();
+    }
+}
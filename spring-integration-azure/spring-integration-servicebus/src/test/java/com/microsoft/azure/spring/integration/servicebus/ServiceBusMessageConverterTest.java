@@ -26,6 +26,7 @@ import java.util.List;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 public class ServiceBusMessageConverterTest extends AzureMessageConverterTest<IMessage> {
@@ -111,4 +112,22 @@ public class ServiceBusMessageConverterTest extends AzureMessageConverterTest<IM
         assertNotNull(servicebusMessage.getScheduledEnqueueTimeUtc());
 
     }
+
+    @Test
+    public void shouldSendHeadersInTheirOwnType() {
+        org.springframework.messaging.Message<String> springMessage =
+                MessageBuilder.withPayload(payload).setHeader("count", 3).setHeader("flag", true)
+                              .setHeader("object", new Object()).build();
+        IMessage servicebusMessage = getConverter().fromMessage(springMessage, IMessage.class);
+
+        assertEquals(3, servicebusMessage.getProperties().get("count"));
+        assertEquals(true, servicebusMessage.getProperties().get("flag"));
+        assertFalse(servicebusMessage.getProperties().containsKey("object"));
+        assertFalse(servicebusMessage.getProperties().containsKey(MessageHeaders.ID));
+        assertEquals(String.valueOf(springMessage.getHeaders().getId()), servicebusMessage.getMessageId());
+
+        MessageHeaders headers = getConverter().toMessage(servicebusMessage, String.class).getHeaders();
+        assertEquals(3, headers.get("count"));
+        assertEquals(true, headers.get("flag"));
+    }
 }
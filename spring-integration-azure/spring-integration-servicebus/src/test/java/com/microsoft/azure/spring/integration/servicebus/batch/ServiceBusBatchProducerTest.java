@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.batch;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IQueueClient;
+import com.microsoft.azure.servicebus.Message;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusQueueClientFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ServiceBusBatchProducerTest {
+
+    private static final String QUEUE = "queue";
+
+    @Mock
+    private ServiceBusQueueClientFactory mockClientFactory;
+
+    @Mock
+    private IQueueClient mockClient;
+
+    private ServiceBusBatchProducer batchProducer;
+
+    @Before
+    public void setUp() {
+        when(this.mockClientFactory.getOrCreateSender(QUEUE)).thenReturn(this.mockClient);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.batchProducer != null) {
+            this.batchProducer.destroy();
+        }
+    }
+
+    @Test
+    public void testMessagesLingerIntoOneBatch() throws Exception {
+        when(this.mockClient.sendBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        this.batchProducer = new ServiceBusBatchProducer(this.mockClientFactory,
+                ServiceBusBatchConfig.builder().lingerTime(Duration.ofMillis(100)).build());
+
+        CompletableFuture.allOf(send("a"), send("b"), send("c")).get(5, TimeUnit.SECONDS);
+
+        verify(this.mockClient, times(1)).sendBatchAsync(anyCollection());
+    }
+
+    @Test
+    public void testFullBatchSentWithoutLinger() throws Exception {
+        when(this.mockClient.sendBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        this.batchProducer = new ServiceBusBatchProducer(this.mockClientFactory,
+                ServiceBusBatchConfig.builder().maxBatchSizeInBytes(1).lingerTime(Duration.ofMinutes(1)).build());
+
+        CompletableFuture.allOf(send("a"), send("b")).get(5, TimeUnit.SECONDS);
+
+        verify(this.mockClient, times(2)).sendBatchAsync(anyCollection());
+    }
+
+    @Test
+    public void testEachMessageFailsWithItsBatch() throws Exception {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("send failed"));
+        when(this.mockClient.sendBatchAsync(anyCollection())).thenReturn(failed);
+        this.batchProducer = new ServiceBusBatchProducer(this.mockClientFactory,
+                ServiceBusBatchConfig.builder().lingerTime(Duration.ofMillis(10)).build());
+
+        CompletableFuture<Void> first = send("a");
+        CompletableFuture<Void> second = send("b");
+
+        for (CompletableFuture<Void> future : Arrays.asList(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected send failure");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testSplitBySize() {
+        Collection<IMessage> messages = Arrays.asList(new Message("a"), new Message("b"), new Message("c"));
+        int size = ServiceBusBatchProducer.estimateSize(new Message("a"));
+
+        List<List<IMessage>> batches = ServiceBusBatchProducer.split(messages, size * 2);
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, batches.get(1).size());
+    }
+
+    private CompletableFuture<Void> send(String body) {
+        return this.batchProducer.send(QUEUE, new Message(body));
+    }
+}
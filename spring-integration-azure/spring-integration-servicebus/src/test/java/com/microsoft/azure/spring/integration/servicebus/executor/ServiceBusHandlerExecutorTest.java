@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.executor;
+
+import com.microsoft.azure.spring.integration.servicebus.metrics.ServiceBusMetrics;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ServiceBusHandlerExecutorTest {
+
+    private static final String QUEUE = "queue";
+
+    private final ServiceBusHandlerExecutor handlerExecutor = new ServiceBusHandlerExecutor(4);
+
+    @Mock
+    private ServiceBusMetrics mockMetrics;
+
+    @After
+    public void tearDown() {
+        this.handlerExecutor.destroy();
+    }
+
+    @Test
+    public void testConcurrencyCappedPerSubscription() throws Exception {
+        ExecutorService executor = this.handlerExecutor.forSubscription(QUEUE, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    finished.countDown();
+                }
+            });
+        }
+
+        awaitActive(2);
+        assertEquals(3, this.handlerExecutor.getQueueDepth());
+
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, this.handlerExecutor.getQueueDepth());
+    }
+
+    @Test
+    public void testBusySubscriptionNotBlockingOthers() throws Exception {
+        ExecutorService busy = this.handlerExecutor.forSubscription(QUEUE, 2);
+        ExecutorService other = this.handlerExecutor.forSubscription("topic/subscriptions/group", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherRun = new CountDownLatch(1);
+
+        for (int i = 0; i < 10; i++) {
+            busy.execute(() -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        other.execute(otherRun::countDown);
+
+        assertTrue(otherRun.await(10, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectAfterRelease() {
+        ExecutorService executor = this.handlerExecutor.forSubscription(QUEUE, 1);
+        this.handlerExecutor.release(QUEUE);
+
+        assertTrue(executor.isShutdown());
+        executor.execute(() -> {
+        });
+    }
+
+    @Test
+    public void testTaskRejectedBySharedPoolReturnedByShutdownNow() throws Exception {
+        ExecutorService executor = this.handlerExecutor.forSubscription(QUEUE, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable pendingTask = () -> {
+        };
+
+        executor.execute(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(pendingTask);
+        awaitActive(1);
+
+        // The running task finishes after the shared pool is shut down, so the pending one can't be handed over
+        this.handlerExecutor.destroy();
+        release.countDown();
+        awaitActive(0);
+
+        List<Runnable> drained = executor.shutdownNow();
+        assertEquals(1, drained.size());
+        assertSame(pendingTask, drained.get(0));
+    }
+
+    @Test
+    public void testMetricsNotifiedOnCreateAndRelease() {
+        this.handlerExecutor.setMetrics(this.mockMetrics);
+
+        this.handlerExecutor.forSubscription(QUEUE, 1);
+        this.handlerExecutor.release(QUEUE);
+
+        verify(this.mockMetrics).onHandlerExecutorCreated(eq(QUEUE), any(IntSupplier.class), any(IntSupplier.class));
+        verify(this.mockMetrics).onHandlerExecutorClosed(QUEUE);
+    }
+
+    private void awaitActive(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (this.handlerExecutor.getActiveCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(expected, this.handlerExecutor.getActiveCount());
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MicrometerServiceBusMetricsTest {
+
+    private static final String QUEUE = "queue";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MicrometerServiceBusMetrics metrics = new MicrometerServiceBusMetrics(this.meterRegistry);
+
+    @Test
+    public void testHandlerExecutorGaugesRemovedOnClose() {
+        this.metrics.onHandlerExecutorCreated(QUEUE, () -> 3, () -> 2);
+
+        assertEquals(3, this.meterRegistry.get(MicrometerServiceBusMetrics.HANDLER_QUEUE_DEPTH)
+                                          .tag(MicrometerServiceBusMetrics.TAG_ENTITY, QUEUE).gauge().value(), 0);
+        assertEquals(2, this.meterRegistry.get(MicrometerServiceBusMetrics.HANDLER_ACTIVE_WORKERS)
+                                          .tag(MicrometerServiceBusMetrics.TAG_ENTITY, QUEUE).gauge().value(), 0);
+
+        this.metrics.onHandlerExecutorClosed(QUEUE);
+
+        assertNull(this.meterRegistry.find(MicrometerServiceBusMetrics.HANDLER_QUEUE_DEPTH).gauge());
+        assertNull(this.meterRegistry.find(MicrometerServiceBusMetrics.HANDLER_ACTIVE_WORKERS).gauge());
+    }
+}
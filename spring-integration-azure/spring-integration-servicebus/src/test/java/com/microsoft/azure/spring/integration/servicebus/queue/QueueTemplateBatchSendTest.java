@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.queue;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IQueueClient;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.servicebus.batch.ServiceBusBatchConfig;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusQueueClientFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueueTemplateBatchSendTest {
+
+    private static final String QUEUE = "queue";
+
+    @Mock
+    private ServiceBusQueueClientFactory mockClientFactory;
+
+    @Mock
+    private IQueueClient mockClient;
+
+    private ServiceBusQueueTemplate template;
+
+    @Before
+    public void setUp() {
+        when(this.mockClientFactory.getOrCreateSender(QUEUE)).thenReturn(this.mockClient);
+        when(this.mockClient.sendBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        this.template = new ServiceBusQueueTemplate(this.mockClientFactory);
+    }
+
+    @Test
+    public void testCollectionSentInOneBatch() throws Exception {
+        List<Message<String>> messages = Arrays.asList(MessageBuilder.withPayload("a").build(),
+                MessageBuilder.withPayload("b").build());
+
+        this.template.sendAsync(QUEUE, messages).get(5, TimeUnit.SECONDS);
+
+        verify(this.mockClient, times(1)).sendBatchAsync(argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    public void testSplitBatchesWithPartitionKeySentInOrder() throws Exception {
+        CompletableFuture<Void> firstSent = new CompletableFuture<>();
+        when(this.mockClient.sendBatchAsync(anyCollection())).thenReturn(firstSent,
+                CompletableFuture.completedFuture(null));
+        // Each message takes a batch of its own
+        this.template.setBatchConfig(ServiceBusBatchConfig.builder().maxBatchSizeInBytes(1).build());
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionKey("key");
+        List<Message<String>> messages = Arrays.asList(MessageBuilder.withPayload("a").build(),
+                MessageBuilder.withPayload("b").build());
+
+        CompletableFuture<Void> sent = this.template.sendAsync(QUEUE, messages, partitionSupplier);
+
+        verify(this.mockClient, times(1)).sendBatchAsync(anyCollection());
+        firstSent.complete(null);
+        sent.get(5, TimeUnit.SECONDS);
+        verify(this.mockClient, times(2)).sendBatchAsync(anyCollection());
+        this.template.destroy();
+    }
+
+    @Test
+    public void testSingleSendsAccumulated() throws Exception {
+        this.template.setBatchConfig(ServiceBusBatchConfig.builder().lingerTime(Duration.ofMillis(50)).build());
+
+        CompletableFuture.allOf(this.template.sendAsync(QUEUE, MessageBuilder.withPayload("a").build()),
+                this.template.sendAsync(QUEUE, MessageBuilder.withPayload("b").build())).get(5, TimeUnit.SECONDS);
+
+        verify(this.mockClient, times(1)).sendBatchAsync(argThat(batch -> batch.size() == 2));
+        verify(this.mockClient, never()).sendAsync(isA(IMessage.class));
+        this.template.destroy();
+    }
+}
@@ -62,6 +62,7 @@ public class QueueTemplateSubscribeTest extends SubscribeOperationTest<ServiceBu
 
     @Override
     protected void verifySubscriberUnregistered(int times) {
+        verify(this.mockClientFactory, times(times)).removeClient(anyString());
     }
 
     private void whenRegisterMessageHandler(QueueClient queueClient) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.receive;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.reactor.Checkpointer;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusReceiverFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ServiceBusReceiveTemplateTest {
+
+    private static final String QUEUE = "queue";
+
+    private static final Duration MAX_WAIT_TIME = Duration.ofSeconds(1);
+
+    @Mock
+    private ServiceBusReceiverFactory mockReceiverFactory;
+
+    @Mock
+    private IMessageReceiver mockReceiver;
+
+    private ServiceBusReceiveTemplate template;
+
+    @Before
+    public void setUp() {
+        this.template = new ServiceBusReceiveTemplate(this.mockReceiverFactory);
+        this.template.setMessagePayloadType(String.class);
+        this.template.setMaxWaitTime(MAX_WAIT_TIME);
+    }
+
+    @Test
+    public void testReceiveAndCompleteInRecordMode() {
+        IMessage serviceBusMessage = new com.microsoft.azure.servicebus.Message("a");
+        when(this.mockReceiverFactory.getOrCreateReceiver(QUEUE)).thenReturn(this.mockReceiver);
+        when(this.mockReceiver.receiveAsync(MAX_WAIT_TIME))
+                .thenReturn(CompletableFuture.completedFuture(serviceBusMessage));
+        when(this.mockReceiver.completeAsync(serviceBusMessage.getLockToken()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        Message<?> message = this.template.receiveAsync(QUEUE).block(Duration.ofSeconds(5));
+
+        assertEquals("a", message.getPayload());
+        assertEquals(serviceBusMessage.getLockToken(), message.getHeaders().get(AzureHeaders.LOCK_TOKEN));
+        assertFalse(message.getHeaders().containsKey(AzureHeaders.CHECKPOINTER));
+        verify(this.mockReceiver).completeAsync(serviceBusMessage.getLockToken());
+    }
+
+    @Test
+    public void testReceiveNothing() {
+        when(this.mockReceiverFactory.getOrCreateReceiver(QUEUE)).thenReturn(this.mockReceiver);
+        when(this.mockReceiver.receiveAsync(MAX_WAIT_TIME)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertNull(this.template.receiveAsync(QUEUE).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void testReceiveBatchInManualMode() {
+        this.template.setCheckpointMode(CheckpointMode.MANUAL);
+        IMessage first = new com.microsoft.azure.servicebus.Message("a");
+        IMessage second = new com.microsoft.azure.servicebus.Message("b");
+        when(this.mockReceiverFactory.getOrCreateReceiver(QUEUE)).thenReturn(this.mockReceiver);
+        when(this.mockReceiver.receiveBatchAsync(10, MAX_WAIT_TIME))
+                .thenReturn(CompletableFuture.<Collection<IMessage>>completedFuture(Arrays.asList(first, second)));
+        when(this.mockReceiver.completeAsync(first.getLockToken()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        List<Message<?>> messages = this.template.receiveBatchAsync(QUEUE, 10, MAX_WAIT_TIME)
+                                                 .block(Duration.ofSeconds(5));
+
+        assertEquals(2, messages.size());
+        assertEquals("a", messages.get(0).getPayload());
+        assertEquals("b", messages.get(1).getPayload());
+        verify(this.mockReceiver, never()).completeAsync(first.getLockToken());
+
+        Checkpointer checkpointer = messages.get(0).getHeaders().get(AzureHeaders.CHECKPOINTER, Checkpointer.class);
+        checkpointer.success().block(Duration.ofSeconds(5));
+        verify(this.mockReceiver).completeAsync(first.getLockToken());
+    }
+
+    @Test
+    public void testReceiveEmptyBatch() {
+        this.template.setMaxMessageCount(50);
+        when(this.mockReceiverFactory.getOrCreateReceiver(QUEUE)).thenReturn(this.mockReceiver);
+        when(this.mockReceiver.receiveBatchAsync(50, MAX_WAIT_TIME))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertTrue(this.template.receiveBatchAsync(QUEUE).block(Duration.ofSeconds(5)).isEmpty());
+    }
+
+    @Test
+    public void testReceiverCreatedOnSubscribe() {
+        this.template.receiveBatchAsync(QUEUE);
+        this.template.receiveAsync(QUEUE);
+
+        verify(this.mockReceiverFactory, never()).getOrCreateReceiver(anyString());
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.renewal;
+
+import com.microsoft.azure.servicebus.IMessage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LockRenewalSchedulerTest {
+
+    private static final String QUEUE = "queue";
+
+    private final List<Collection<IMessage>> renewed = new ArrayList<>();
+
+    private final BiFunction<String, Collection<IMessage>, CompletableFuture<Collection<Instant>>> renewal =
+            (entityPath, messages) -> {
+                this.renewed.add(new ArrayList<>(messages));
+                Instant lockedUntil = Instant.now().plus(Duration.ofMinutes(1));
+                return CompletableFuture.completedFuture(
+                        messages.stream().map(m -> lockedUntil).collect(Collectors.toList()));
+            };
+
+    @Mock
+    private ScheduledExecutorService mockTicker;
+
+    @Test
+    public void testRenewDueLocksTogether() {
+        LockRenewalScheduler scheduler = scheduler(Duration.ofMinutes(5));
+        IMessage first = message(Duration.ofSeconds(5));
+        IMessage second = message(Duration.ofSeconds(5));
+
+        scheduler.track(QUEUE, first);
+        scheduler.track(QUEUE, second);
+        scheduler.tick();
+
+        assertEquals(1, this.renewed.size());
+        assertTrue(this.renewed.get(0).containsAll(Arrays.asList(first, second)));
+        assertEquals(2, scheduler.getTrackedCount());
+    }
+
+    @Test
+    public void testNotRenewedBeforeDue() {
+        LockRenewalScheduler scheduler = scheduler(Duration.ofMinutes(5));
+        scheduler.track(QUEUE, message(Duration.ofMinutes(1)));
+
+        scheduler.tick();
+
+        assertTrue(this.renewed.isEmpty());
+        assertEquals(1, scheduler.getTrackedCount());
+    }
+
+    @Test
+    public void testUntrackedNotRenewed() {
+        LockRenewalScheduler scheduler = scheduler(Duration.ofMinutes(5));
+        IMessage message = message(Duration.ofSeconds(5));
+
+        scheduler.track(QUEUE, message);
+        scheduler.untrack(message.getLockToken());
+        scheduler.tick();
+
+        assertTrue(this.renewed.isEmpty());
+        assertEquals(0, scheduler.getTrackedCount());
+    }
+
+    @Test
+    public void testUntrackAllOfEntity() {
+        LockRenewalScheduler scheduler = scheduler(Duration.ofMinutes(5));
+        scheduler.track(QUEUE, message(Duration.ofSeconds(5)));
+        scheduler.track("topic/subscriptions/group", message(Duration.ofSeconds(5)));
+
+        scheduler.untrackAll(QUEUE);
+        scheduler.tick();
+
+        assertEquals(1, this.renewed.size());
+        assertEquals(1, scheduler.getTrackedCount());
+    }
+
+    @Test
+    public void testStopRenewingAfterMaxDuration() {
+        LockRenewalScheduler scheduler = scheduler(Duration.ofSeconds(30));
+        scheduler.track(QUEUE, message(Duration.ofSeconds(5)));
+
+        scheduler.tick();
+
+        // Renewed lock expires after the max renewal duration, so no more renewal is needed
+        assertEquals(1, this.renewed.size());
+        assertEquals(0, scheduler.getTrackedCount());
+    }
+
+    @Test
+    public void testRetryFailedRenewal() {
+        List<Collection<IMessage>> attempts = new ArrayList<>();
+        LockRenewalScheduler scheduler = new LockRenewalScheduler(config(Duration.ofMinutes(5)),
+                (entityPath, messages) -> {
+                    attempts.add(messages);
+                    CompletableFuture<Collection<Instant>> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(new IllegalStateException("renew failed"));
+                    return failed;
+                }, this.mockTicker);
+        scheduler.track(QUEUE, message(Duration.ofSeconds(5)));
+
+        scheduler.tick();
+        scheduler.tick();
+
+        assertEquals(2, attempts.size());
+        assertEquals(1, scheduler.getTrackedCount());
+    }
+
+    @Test
+    public void testMessageWithoutLockIgnored() {
+        LockRenewalScheduler scheduler = scheduler(Duration.ofMinutes(5));
+        scheduler.track(QUEUE, mock(IMessage.class));
+
+        assertEquals(0, scheduler.getTrackedCount());
+    }
+
+    private LockRenewalScheduler scheduler(Duration maxRenewalDuration) {
+        return new LockRenewalScheduler(config(maxRenewalDuration), this.renewal, this.mockTicker);
+    }
+
+    private static LockRenewalConfig config(Duration maxRenewalDuration) {
+        return LockRenewalConfig.builder().maxRenewalDuration(maxRenewalDuration).renewBefore(Duration.ofSeconds(10))
+                                .tickDuration(Duration.ofSeconds(1)).build();
+    }
+
+    private static IMessage message(Duration lockDuration) {
+        IMessage message = mock(IMessage.class);
+        when(message.getLockToken()).thenReturn(UUID.randomUUID());
+        when(message.getLockedUntilUtc()).thenReturn(Instant.now().plus(lockDuration));
+        return message;
+    }
+}
@@ -6,20 +6,36 @@
 
 package com.microsoft.azure.spring.integration.servicebus.topic;
 
+import com.microsoft.azure.servicebus.IMessage;
 import com.microsoft.azure.servicebus.IMessageHandler;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.servicebus.Message;
 import com.microsoft.azure.servicebus.SubscriptionClient;
 import com.microsoft.azure.servicebus.primitives.ServiceBusException;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusTopicClientFactory;
+import com.microsoft.azure.spring.integration.servicebus.renewal.LockRenewalConfig;
 import com.microsoft.azure.spring.integration.test.support.SubscribeByGroupOperationTest;
 import org.junit.Before;
+import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.*;
@@ -36,6 +52,9 @@ public class TopicTemplateSubscribeTest extends SubscribeByGroupOperationTest<Se
     @Mock
     private SubscriptionClient anotherSubscriptionClient;
 
+    @Mock
+    private IMessageReceiver mockReceiver;
+
     @Before
     public void setUp() {
         this.subscribeByGroupOperation = new ServiceBusTopicTemplate(mockClientFactory);
@@ -47,6 +66,32 @@ public class TopicTemplateSubscribeTest extends SubscribeByGroupOperationTest<Se
         whenRegisterMessageHandler(this.anotherSubscriptionClient);
     }
 
+    @Test
+    public void testLocksRenewedThroughReceiverOfSubscription() throws Exception {
+        ServiceBusTopicTemplate template = (ServiceBusTopicTemplate) this.subscribeByGroupOperation;
+        template.setCheckpointConfig(CheckpointConfig.builder().checkpointMode(CheckpointMode.MANUAL).build());
+        template.setLockRenewalConfig(LockRenewalConfig.builder().tickDuration(Duration.ofMillis(10)).build());
+        String subscriptionPath = this.destination + "/subscriptions/" + this.consumerGroup;
+        when(this.mockClientFactory.getOrCreateReceiver(subscriptionPath)).thenReturn(this.mockReceiver);
+        when(this.mockReceiver.renewMessageLockBatchAsync(anyCollection())).thenReturn(
+                CompletableFuture.completedFuture(Collections.singletonList(Instant.now().plusSeconds(60))));
+
+        template.subscribe(this.destination, this.consumerGroup, m -> {
+        });
+        ArgumentCaptor<IMessageHandler> handler = ArgumentCaptor.forClass(IMessageHandler.class);
+        verify(this.subscriptionClient).registerMessageHandler(handler.capture(), any(), any(ExecutorService.class));
+
+        // Locked for less than renew-before, so renewed on the next tick
+        IMessage message = spy(new Message("payload"));
+        doReturn(UUID.randomUUID()).when(message).getLockToken();
+        doReturn(Instant.now().plusSeconds(1)).when(message).getLockedUntilUtc();
+        handler.getValue().onMessageAsync(message);
+
+        verify(this.mockReceiver, timeout(5000)).renewMessageLockBatchAsync(argThat(m -> m.contains(message)));
+        verify(this.mockClientFactory, never()).getOrCreateReceiver(this.destination);
+        template.destroy();
+    }
+
     @Override
     protected void verifySubscriberCreatorCalled() {
         verify(this.mockClientFactory, atLeastOnce())
@@ -71,6 +116,7 @@ public class TopicTemplateSubscribeTest extends SubscribeByGroupOperationTest<Se
 
     @Override
     protected void verifySubscriberUnregistered(int times) {
+        verify(this.mockClientFactory, times(times)).removeSubscriptionClient(anyString(), anyString());
     }
 
     private void whenRegisterMessageHandler(SubscriptionClient subscriptionClient) {
@@ -7,17 +7,36 @@
 package com.microsoft.azure.spring.integration.storage.queue.converter;
 
 import com.azure.storage.queue.models.QueueMessageItem;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.converter.AbstractAzureMessageConverter;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.springframework.messaging.MessageHeaders;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
+/**
+ * Queue messages have no application properties, so compressed payloads carry their content encoding in the message
+ * text, e.g. {@code content-encoding:gzip;base64,H4sIAAAA...}. Such text is only decoded once decompression is
+ * enabled, either by {@link #setCompressionConfig} or {@link #setDecompressionEnabled(boolean)},
+ * so plain text starting with the same prefix is received as it is by default.
+ */
 public class StorageQueueMessageConverter extends AbstractAzureMessageConverter<QueueMessageItem> {
 
+    private static final String CONTENT_ENCODING_PREFIX = AzureHeaders.CONTENT_ENCODING + ":";
+
+    private static final String BASE64_SEPARATOR = ";base64,";
+
     @Override
     protected byte[] getPayload(QueueMessageItem azureMessage) {
         return azureMessage.getMessageText().getBytes(StandardCharsets.UTF_8);
     }
 
+    @Override
+    protected String getPayloadAsString(QueueMessageItem azureMessage) {
+        return azureMessage.getMessageText();
+    }
+
     @Override
     protected QueueMessageItem fromString(String payload) {
         final QueueMessageItem queueMessageItem = new QueueMessageItem();
@@ -32,4 +51,38 @@ public class StorageQueueMessageConverter extends AbstractAzureMessageConverter<
         return queueMessageItem;
     }
 
+    /**
+     * Queue messages have no application properties, so the content encoding is written in front of the base64
+     * encoded compressed bytes, e.g. {@code content-encoding:gzip;base64,H4sIAAAA...}
+     */
+    @Override
+    protected QueueMessageItem fromCompressedByte(byte[] payload, String contentEncoding) {
+        return fromString(CONTENT_ENCODING_PREFIX + contentEncoding + BASE64_SEPARATOR
+                + Base64.getEncoder().encodeToString(payload));
+    }
+
+    @Override
+    protected String getContentEncoding(QueueMessageItem azureMessage, MessageHeaders headers) {
+        String text = azureMessage.getMessageText();
+
+        if (text == null || !text.startsWith(CONTENT_ENCODING_PREFIX)) {
+            return null;
+        }
+
+        int separator = text.indexOf(BASE64_SEPARATOR, CONTENT_ENCODING_PREFIX.length());
+        return separator < 0 ? null : text.substring(CONTENT_ENCODING_PREFIX.length(), separator);
+    }
+
+    @Override
+    protected byte[] getCompressedPayload(QueueMessageItem azureMessage) {
+        String text = azureMessage.getMessageText();
+        int separator = text.indexOf(BASE64_SEPARATOR, CONTENT_ENCODING_PREFIX.length());
+
+        try {
+            return Base64.getDecoder().decode(text.substring(separator + BASE64_SEPARATOR.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException("Failed to decode compressed payload", e);
+        }
+    }
+
 }
@@ -8,8 +8,16 @@ package com.microsoft.azure.spring.integration.storage.queue;
 
 import com.azure.storage.queue.models.QueueMessageItem;
 import com.microsoft.azure.spring.integration.core.converter.AzureMessageConverter;
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionConfig;
 import com.microsoft.azure.spring.integration.storage.queue.converter.StorageQueueMessageConverter;
 import com.microsoft.azure.spring.integration.test.support.AzureMessageConverterTest;
+import org.junit.Test;
+import org.springframework.integration.support.MessageBuilder;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class StorageQueueMessageConverterTest extends AzureMessageConverterTest<QueueMessageItem> {
     @Override
@@ -28,4 +36,52 @@ public class StorageQueueMessageConverterTest extends AzureMessageConverterTest<
     protected Class<QueueMessageItem> getTargetClass() {
         return QueueMessageItem.class;
     }
+
+    @Test
+    public void testCompressedPayload() {
+        StorageQueueMessageConverter converter = new StorageQueueMessageConverter();
+        converter.setCompressionConfig(CompressionConfig.builder().thresholdInBytes(16).build());
+        String payload = String.join("", Collections.nCopies(100, this.payload));
+
+        QueueMessageItem queueMessageItem = converter.fromMessage(MessageBuilder.withPayload(payload).build(),
+                QueueMessageItem.class);
+        assertTrue(queueMessageItem.getMessageText().startsWith("content-encoding:gzip;base64,"));
+        assertTrue(queueMessageItem.getMessageText().length() < payload.length());
+
+        assertEquals(payload, converter.toMessage(queueMessageItem, String.class).getPayload());
+    }
+
+    @Test
+    public void testPayloadBelowThresholdNotCompressed() {
+        StorageQueueMessageConverter converter = new StorageQueueMessageConverter();
+        converter.setCompressionConfig(CompressionConfig.builder().build());
+
+        QueueMessageItem queueMessageItem = converter.fromMessage(MessageBuilder.withPayload(this.payload).build(),
+                QueueMessageItem.class);
+        assertEquals(this.payload, queueMessageItem.getMessageText());
+    }
+
+    @Test
+    public void testEncodingPrefixIgnoredUnlessDecompressionEnabled() {
+        StorageQueueMessageConverter converter = new StorageQueueMessageConverter();
+        QueueMessageItem queueMessageItem = new QueueMessageItem();
+        String text = "content-encoding:gzip;base64,not compressed";
+        queueMessageItem.setMessageText(text);
+
+        assertEquals(text, converter.toMessage(queueMessageItem, String.class).getPayload());
+    }
+
+    @Test
+    public void testCompressedPayloadDecodedByReceiverWithDecompressionEnabled() {
+        StorageQueueMessageConverter sender = new StorageQueueMessageConverter();
+        sender.setCompressionConfig(CompressionConfig.builder().thresholdInBytes(16).build());
+        StorageQueueMessageConverter receiver = new StorageQueueMessageConverter();
+        receiver.setDecompressionEnabled(true);
+        String payload = String.join("", Collections.nCopies(100, this.payload));
+
+        QueueMessageItem queueMessageItem = sender.fromMessage(MessageBuilder.withPayload(payload).build(),
+                QueueMessageItem.class);
+
+        assertEquals(payload, receiver.toMessage(queueMessageItem, String.class).getPayload());
+    }
 }